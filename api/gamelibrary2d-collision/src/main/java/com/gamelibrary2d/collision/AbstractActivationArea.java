@@ -5,31 +5,65 @@ import com.gamelibrary2d.Rectangle;
 public abstract class AbstractActivationArea implements ActivationArea {
     private final float maxMovement;
     private final ActivationResult activatedResult;
+    private final boolean readsCoordinates;
 
     protected AbstractActivationArea(float maxMovement, boolean continueSearchIfActivated) {
         this.maxMovement = maxMovement;
         activatedResult = continueSearchIfActivated
                 ? ActivationResult.ACTIVATED_CONTINUE_SEARCH
                 : ActivationResult.ACTIVATED;
+        readsCoordinates = InternalBoundsUtils.overridesCoordinates(getClass());
     }
 
     @Override
     public ActivationResult onActivation(Collidable collidable) {
-        Rectangle collidableBounds = collidable.getBounds();
         float collidablePosX = collidable.getPosX();
         float collidablePosY = collidable.getPosY();
+        if (InternalBoundsUtils.overridesCoordinates(collidable.getClass())) {
+            return onActivation(
+                    collidable.getLowerX() + collidablePosX,
+                    collidable.getLowerY() + collidablePosY,
+                    collidable.getUpperX() + collidablePosX,
+                    collidable.getUpperY() + collidablePosY);
+        }
+
+        Rectangle collidableBounds = collidable.getBounds();
+        return onActivation(
+                collidableBounds.getLowerX() + collidablePosX,
+                collidableBounds.getLowerY() + collidablePosY,
+                collidableBounds.getUpperX() + collidablePosX,
+                collidableBounds.getUpperY() + collidablePosY);
+    }
+
+    private ActivationResult onActivation(
+            float collidableLowerX,
+            float collidableLowerY,
+            float collidableUpperX,
+            float collidableUpperY) {
+        float lowerX, lowerY, upperX, upperY;
+        if (readsCoordinates) {
+            lowerX = getLowerX();
+            lowerY = getLowerY();
+            upperX = getUpperX();
+            upperY = getUpperY();
+        } else {
+            Rectangle bounds = getBounds();
+            lowerX = bounds.getLowerX();
+            lowerY = bounds.getLowerY();
+            upperX = bounds.getUpperX();
+            upperY = bounds.getUpperY();
+        }
 
-        Rectangle bounds = getBounds();
         float posX = getPosX();
         float posY = getPosY();
-        float shrinkX = collidableBounds.getWidth() + maxMovement;
-        float shrinkY = collidableBounds.getHeight() + maxMovement;
+        float shrinkX = collidableUpperX - collidableLowerX + maxMovement;
+        float shrinkY = collidableUpperY - collidableLowerY + maxMovement;
 
         boolean activated =
-                !(bounds.getLowerX() + shrinkX + posX > collidableBounds.getUpperX() + collidablePosX
-                        || bounds.getLowerY() + shrinkY + posY > collidableBounds.getUpperY() + collidablePosY
-                        || bounds.getUpperX() - shrinkX + posX < collidableBounds.getLowerX() + collidablePosX
-                        || bounds.getUpperY() - shrinkY + posY < collidableBounds.getLowerY() + collidablePosY);
+                !(lowerX + shrinkX + posX > collidableUpperX
+                        || lowerY + shrinkY + posY > collidableUpperY
+                        || upperX - shrinkX + posX < collidableLowerX
+                        || upperY - shrinkY + posY < collidableLowerY);
 
         return activated ? activatedResult : ActivationResult.NEAR_EDGE;
     }
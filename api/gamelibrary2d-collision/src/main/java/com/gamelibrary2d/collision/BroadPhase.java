@@ -0,0 +1,64 @@
+package com.gamelibrary2d.collision;
+
+import com.gamelibrary2d.Rectangle;
+import com.gamelibrary2d.functional.Func;
+
+/**
+ * Determines how {@link CollisionDetection} finds overlapping {@link Collidable} objects.
+ */
+public final class BroadPhase {
+    private final Func<Rectangle, InternalBroadPhase> factory;
+
+    private BroadPhase(Func<Rectangle, InternalBroadPhase> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a quad tree that is rebuilt each update.
+     *
+     * @param minNodeWidth The minimum node width of the collision quad tree.
+     * @param nodeCapacity The object capacity of each node. When exceeded, the node will split into child nodes (quadrants).
+     */
+    public static BroadPhase quadTree(float minNodeWidth, int nodeCapacity) {
+        return new BroadPhase(bounds -> new InternalQuadTree(bounds, minNodeWidth, nodeCapacity, false));
+    }
+
+    /**
+     * Creates a quad tree that is kept between updates. Only objects that have left their current node are relocated,
+     * and child nodes are merged when their combined content no longer exceeds the node capacity. This is faster than
+     * a {@link #quadTree rebuilt quad tree} when most objects move little between updates. Only the cost of
+     * rebuilding the tree is saved, so the gain is small when searching the tree dominates, as in dense scenes.
+     *
+     * @param minNodeWidth The minimum node width of the collision quad tree.
+     * @param nodeCapacity The object capacity of each node. When exceeded, the node will split into child nodes (quadrants).
+     */
+    public static BroadPhase persistentQuadTree(float minNodeWidth, int nodeCapacity) {
+        return new BroadPhase(bounds -> new InternalQuadTree(bounds, minNodeWidth, nodeCapacity, true));
+    }
+
+    /**
+     * Creates a uniform grid of cells covering the collision detection bounds. Objects outside the bounds are placed
+     * in the nearest edge cell. The grid outperforms the quad tree when the bounds are limited and the objects are
+     * of similar size. The cell size should typically be close to the size of the largest objects. When object sizes
+     * vary widely, the large objects span many cells and {@link #sweepAndPrune sweep and prune} may be faster.
+     *
+     * @param cellSize The width and height of each cell.
+     */
+    public static BroadPhase spatialHashGrid(float cellSize) {
+        return new BroadPhase(bounds -> new InternalSpatialHashGrid(bounds, cellSize));
+    }
+
+    /**
+     * Creates a sweep-and-prune broad-phase, which keeps the ends of the objects' intervals sorted along both axes,
+     * together with the pairs of overlapping objects. Both are kept between updates and only change as objects move,
+     * making it fast when objects move little between updates. Unlike the grid, it does not depend on the bounds of
+     * the collision detection or on objects being of similar size.
+     */
+    public static BroadPhase sweepAndPrune() {
+        return new BroadPhase(InternalSweepAndPrune::new);
+    }
+
+    InternalBroadPhase create(Rectangle bounds) {
+        return factory.invoke(bounds);
+    }
+}
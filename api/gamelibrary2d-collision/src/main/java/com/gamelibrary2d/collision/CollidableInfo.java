@@ -4,15 +4,31 @@ import com.gamelibrary2d.Rectangle;
 
 public class CollidableInfo<T extends Collidable> {
     private final T collidable;
+    private final boolean readsCoordinates;
 
     private float deltaTime;
     private float prevX;
     private float prevY;
 
+    private float prevLowerX;
+    private float prevLowerY;
+    private float prevUpperX;
+    private float prevUpperY;
     private Rectangle prevBounds;
 
+    // The bounds of the collidable, read once per update by updateBounds.
+    float lowerX;
+    float lowerY;
+    float upperX;
+    float upperY;
+
+    private float timeOfImpact = 1f;
+
+    private Contact contact;
+
     public CollidableInfo(T collidable) {
         this.collidable = collidable;
+        this.readsCoordinates = InternalBoundsUtils.overridesCoordinates(collidable.getClass());
     }
 
     public T getCollidable() {
@@ -51,10 +67,124 @@ public class CollidableInfo<T extends Collidable> {
         return prevBounds;
     }
 
-    void reset(float deltaTime, float prevX, float prevY, Rectangle prevBounds) {
+    public float getPrevLowerX() {
+        return prevLowerX;
+    }
+
+    public float getPrevLowerY() {
+        return prevLowerY;
+    }
+
+    public float getPrevUpperX() {
+        return prevUpperX;
+    }
+
+    public float getPrevUpperY() {
+        return prevUpperY;
+    }
+
+    /**
+     * The lower x-coordinate of the bounds of the collidable, relative to its position. The bounds are read once per
+     * update, after the collidable has been updated, and before the updated handler is invoked.
+     */
+    public float getLowerX() {
+        return lowerX;
+    }
+
+    /**
+     * The lower y-coordinate of the bounds, see {@link #getLowerX}.
+     */
+    public float getLowerY() {
+        return lowerY;
+    }
+
+    /**
+     * The upper x-coordinate of the bounds, see {@link #getLowerX}.
+     */
+    public float getUpperX() {
+        return upperX;
+    }
+
+    /**
+     * The upper y-coordinate of the bounds, see {@link #getLowerX}.
+     */
+    public float getUpperY() {
+        return upperY;
+    }
+
+    /**
+     * The time of impact of the collision currently being handled, as a fraction of the update from 0 to 1. The
+     * position at impact is interpolated between the {@link #getPrevX previous} and the current position. Only objects
+     * registered as {@link CollisionRegistration#setContinuous continuous} are swept, and their handlers can read the
+     * value from the updated object's info. For other objects, collisions are detected at the end of the update and
+     * the value is always 1.
+     */
+    public float getTimeOfImpact() {
+        return timeOfImpact;
+    }
+
+    void setTimeOfImpact(float timeOfImpact) {
+        this.timeOfImpact = timeOfImpact;
+    }
+
+    /**
+     * The contact of the collision currently being handled. Handlers can read the value from the updated object's
+     * info, and use the contact to keep data for the pair between updates.
+     *
+     * @return The contact, or null if {@link CollisionDetection#setContactTracking contact tracking} is disabled.
+     */
+    public Contact getContact() {
+        return contact;
+    }
+
+    void setContact(Contact contact) {
+        this.contact = contact;
+    }
+
+    /**
+     * Reads the bounds of the collidable. Collidables that override {@link Collidable#getLowerX()} and the other
+     * coordinate methods are read through them, and other collidables through a single call to
+     * {@link Collidable#getBounds()}.
+     */
+    void updateBounds() {
+        if (readsCoordinates) {
+            lowerX = collidable.getLowerX();
+            lowerY = collidable.getLowerY();
+            upperX = collidable.getUpperX();
+            upperY = collidable.getUpperY();
+        } else {
+            Rectangle bounds = collidable.getBounds();
+            lowerX = bounds.getLowerX();
+            lowerY = bounds.getLowerY();
+            upperX = bounds.getUpperX();
+            upperY = bounds.getUpperY();
+        }
+    }
+
+    void setBounds(float lowerX, float lowerY, float upperX, float upperY) {
+        this.lowerX = lowerX;
+        this.lowerY = lowerY;
+        this.upperX = upperX;
+        this.upperY = upperY;
+    }
+
+    void reset(float deltaTime, float prevX, float prevY, float prevLowerX, float prevLowerY, float prevUpperX, float prevUpperY) {
         this.deltaTime = deltaTime;
         this.prevX = prevX;
         this.prevY = prevY;
-        this.prevBounds = prevBounds;
+        this.prevLowerX = prevLowerX;
+        this.prevLowerY = prevLowerY;
+        this.prevUpperX = prevUpperX;
+        this.prevUpperY = prevUpperY;
+        if (prevBounds == null || !prevBounds.equals(prevLowerX, prevLowerY, prevUpperX, prevUpperY)) {
+            prevBounds = new Rectangle(prevLowerX, prevLowerY, prevUpperX, prevUpperY);
+        }
+    }
+
+    /**
+     * Resets the previous position and bounds to the current position and the last {@link #updateBounds read} bounds.
+     */
+    void reset(float deltaTime) {
+        reset(deltaTime, collidable.getPosX(), collidable.getPosY(), lowerX, lowerY, upperX, upperY);
     }
 }
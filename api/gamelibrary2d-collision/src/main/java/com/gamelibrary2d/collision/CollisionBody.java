@@ -0,0 +1,84 @@
+package com.gamelibrary2d.collision;
+
+import com.gamelibrary2d.Rectangle;
+
+/**
+ * A {@link Collidable} view of a body in a {@link CollisionBodyBatch}. The state of the body is stored in the arrays
+ * of the batch. The view is reused if the index of a removed body is reused by a new body.
+ */
+public final class CollisionBody implements Collidable {
+    private final CollisionBodyBatch batch;
+    private final int index;
+
+    CollisionBody(CollisionBodyBatch batch, int index) {
+        this.batch = batch;
+        this.index = index;
+    }
+
+    /**
+     * @return The batch of this body.
+     */
+    public CollisionBodyBatch getBatch() {
+        return batch;
+    }
+
+    /**
+     * @return The index of this body in the {@link #getBatch batch}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Bodies are updated by their {@link CollisionBodyBatch batch}.
+     */
+    @Override
+    public void update(float deltaTime) {
+
+    }
+
+    @Override
+    public boolean canCollide() {
+        return batch.canCollide(index);
+    }
+
+    @Override
+    public void setPosition(float x, float y) {
+        batch.setPosition(index, x, y);
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return new Rectangle(getLowerX(), getLowerY(), getUpperX(), getUpperY());
+    }
+
+    @Override
+    public float getPosX() {
+        return batch.getPosX(index);
+    }
+
+    @Override
+    public float getPosY() {
+        return batch.getPosY(index);
+    }
+
+    @Override
+    public float getLowerX() {
+        return batch.getLowerX(index);
+    }
+
+    @Override
+    public float getLowerY() {
+        return batch.getLowerY(index);
+    }
+
+    @Override
+    public float getUpperX() {
+        return batch.getUpperX(index);
+    }
+
+    @Override
+    public float getUpperY() {
+        return batch.getUpperY(index);
+    }
+}
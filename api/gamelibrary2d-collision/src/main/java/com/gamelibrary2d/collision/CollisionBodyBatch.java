@@ -0,0 +1,339 @@
+package com.gamelibrary2d.collision;
+
+import com.gamelibrary2d.Rectangle;
+import com.gamelibrary2d.collision.handlers.CollisionHandler;
+
+import java.util.Arrays;
+
+/**
+ * Stores the position, velocity and bounds of many simple bodies, such as projectiles or debris, in parallel arrays.
+ * All bodies are moved by their velocity in a single loop, rather than by invoking {@link Collidable#update} on one
+ * object per body. The bodies take part in the same collision detection as other {@link Collidable} objects when
+ * the batch has been {@link CollisionDetection#add(CollisionBodyBatch) added} to a {@link CollisionDetection}.
+ * Bodies are identified by index, and other objects can handle collisions with them through {@link CollisionBody}.
+ */
+public class CollisionBodyBatch {
+    private static final int ACTIVE = 1;
+    private static final int COLLIDABLE = 1 << 1;
+    private static final int UPDATED = 1 << 2;
+
+    private final InternalBatchCollisionHandler collisionHandler = new InternalBatchCollisionHandler();
+
+    private float[] posX, posY;
+    private float[] prevX, prevY;
+    private float[] velocityX, velocityY;
+    private float[] lowerX, lowerY, upperX, upperY;
+    private int[] flags;
+    private InternalCollidableWrapper<?>[] wrappers;
+
+    private int size;
+    private int[] freeIndices;
+    private int freeIndexCount;
+    private int bodyCount;
+
+    /**
+     * Creates a new {@link CollisionBodyBatch}.
+     *
+     * @param initialCapacity The initial number of bodies. The capacity grows when exceeded.
+     */
+    public CollisionBodyBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        posX = new float[capacity];
+        posY = new float[capacity];
+        prevX = new float[capacity];
+        prevY = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        lowerX = new float[capacity];
+        lowerY = new float[capacity];
+        upperX = new float[capacity];
+        upperY = new float[capacity];
+        flags = new int[capacity];
+        wrappers = new InternalCollidableWrapper<?>[capacity];
+        freeIndices = new int[capacity];
+    }
+
+    /**
+     * Adds a new body. The index of a removed body may be reused.
+     *
+     * @param x         The x-coordinate of the body.
+     * @param y         The y-coordinate of the body.
+     * @param velocityX The velocity along the x-axis, per second.
+     * @param velocityY The velocity along the y-axis, per second.
+     * @param bounds    The bounds of the body, relative to its position.
+     * @return The index of the body.
+     */
+    public int add(float x, float y, float velocityX, float velocityY, Rectangle bounds) {
+        int index = freeIndexCount > 0 ? freeIndices[--freeIndexCount] : allocateIndex();
+        posX[index] = x;
+        posY[index] = y;
+        prevX[index] = x;
+        prevY[index] = y;
+        this.velocityX[index] = velocityX;
+        this.velocityY[index] = velocityY;
+        lowerX[index] = bounds.getLowerX();
+        lowerY[index] = bounds.getLowerY();
+        upperX[index] = bounds.getUpperX();
+        upperY[index] = bounds.getUpperY();
+        flags[index] = ACTIVE | COLLIDABLE;
+        ++bodyCount;
+        return index;
+    }
+
+    private int allocateIndex() {
+        if (size == flags.length) {
+            int capacity = size * 2;
+            posX = Arrays.copyOf(posX, capacity);
+            posY = Arrays.copyOf(posY, capacity);
+            prevX = Arrays.copyOf(prevX, capacity);
+            prevY = Arrays.copyOf(prevY, capacity);
+            velocityX = Arrays.copyOf(velocityX, capacity);
+            velocityY = Arrays.copyOf(velocityY, capacity);
+            lowerX = Arrays.copyOf(lowerX, capacity);
+            lowerY = Arrays.copyOf(lowerY, capacity);
+            upperX = Arrays.copyOf(upperX, capacity);
+            upperY = Arrays.copyOf(upperY, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            wrappers = Arrays.copyOf(wrappers, capacity);
+            freeIndices = Arrays.copyOf(freeIndices, capacity);
+        }
+
+        int index = size++;
+        wrappers[index] = new InternalCollidableWrapper<>(
+                new CollisionBody(this, index),
+                CollisionBody.class,
+                collisionHandler);
+
+        return index;
+    }
+
+    /**
+     * Removes the body at the specified index. The body will stop colliding immediately.
+     */
+    public void remove(int index) {
+        if (isActive(index)) {
+            flags[index] = 0;
+            freeIndices[freeIndexCount++] = index;
+            --bodyCount;
+        }
+    }
+
+    /**
+     * Removes all bodies.
+     */
+    public void clear() {
+        for (int i = 0; i < size; ++i) {
+            remove(i);
+        }
+    }
+
+    /**
+     * @return The number of bodies in the batch.
+     */
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    /**
+     * @return The number of indices in use, including the indices of removed bodies. All bodies have a lower index.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return True if there is a body at the specified index, false if it has been removed.
+     */
+    public boolean isActive(int index) {
+        return (flags[index] & ACTIVE) != 0;
+    }
+
+    /**
+     * @return True if the body can currently collide.
+     */
+    public boolean canCollide(int index) {
+        return (flags[index] & (ACTIVE | COLLIDABLE)) == (ACTIVE | COLLIDABLE);
+    }
+
+    /**
+     * Determines if the body can currently collide. Collision detection is skipped while this is false.
+     */
+    public void setCanCollide(int index, boolean canCollide) {
+        flags[index] = canCollide ? flags[index] | COLLIDABLE : flags[index] & ~COLLIDABLE;
+    }
+
+    /**
+     * @return A {@link Collidable} view of the body at the specified index.
+     */
+    public CollisionBody getBody(int index) {
+        return (CollisionBody) wrappers[index].collidable;
+    }
+
+    /**
+     * The listener is invoked when a body collides with another {@link Collidable}, including bodies of this or
+     * other batches.
+     */
+    public void setCollisionListener(CollisionListener collisionListener) {
+        collisionHandler.listener = collisionListener;
+    }
+
+    public float getPosX(int index) {
+        return posX[index];
+    }
+
+    public float getPosY(int index) {
+        return posY[index];
+    }
+
+    public void setPosition(int index, float x, float y) {
+        posX[index] = x;
+        posY[index] = y;
+    }
+
+    public float getVelocityX(int index) {
+        return velocityX[index];
+    }
+
+    public float getVelocityY(int index) {
+        return velocityY[index];
+    }
+
+    public void setVelocity(int index, float velocityX, float velocityY) {
+        this.velocityX[index] = velocityX;
+        this.velocityY[index] = velocityY;
+    }
+
+    public float getLowerX(int index) {
+        return lowerX[index];
+    }
+
+    public float getLowerY(int index) {
+        return lowerY[index];
+    }
+
+    public float getUpperX(int index) {
+        return upperX[index];
+    }
+
+    public float getUpperY(int index) {
+        return upperY[index];
+    }
+
+    public void setBounds(int index, Rectangle bounds) {
+        lowerX[index] = bounds.getLowerX();
+        lowerY[index] = bounds.getLowerY();
+        upperX[index] = bounds.getUpperX();
+        upperY[index] = bounds.getUpperY();
+    }
+
+    void insert(InternalBroadPhase broadPhase, InternalDispatchTable dispatchTable, boolean activation) {
+        for (int i = 0; i < size; ++i) {
+            InternalCollidableWrapper<?> wrapper = wrappers[i];
+            wrapper.setDispatchTable(dispatchTable);
+            int bodyFlags = flags[i] & ~UPDATED;
+            if ((bodyFlags & ACTIVE) == 0) {
+                broadPhase.remove(wrapper);
+            } else if (!activation) {
+                updateBounds(wrapper, i);
+                broadPhase.insertWithoutActivation(wrapper);
+                bodyFlags |= UPDATED;
+            } else {
+                updateBounds(wrapper, i);
+                if (broadPhase.insert(wrapper) == InsertionResult.INSERTED_ACTIVE) {
+                    bodyFlags |= UPDATED;
+                }
+            }
+            flags[i] = bodyFlags;
+        }
+    }
+
+    void integrate(float deltaTime) {
+        for (int i = 0; i < size; ++i) {
+            if ((flags[i] & UPDATED) != 0) {
+                prevX[i] = posX[i];
+                prevY[i] = posY[i];
+                posX[i] += velocityX[i] * deltaTime;
+                posY[i] += velocityY[i] * deltaTime;
+            }
+        }
+    }
+
+    void relocate(InternalBroadPhase broadPhase, float deltaTime) {
+        for (int i = 0; i < size; ++i) {
+            if ((flags[i] & UPDATED) != 0) {
+                InternalCollidableWrapper<?> wrapper = wrappers[i];
+                wrapper.info.reset(deltaTime, prevX[i], prevY[i], lowerX[i], lowerY[i], upperX[i], upperY[i]);
+                if (updateBounds(wrapper, i)) {
+                    broadPhase.relocate(wrapper);
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes the position and bounds of the body to the broad-phase area of its wrapper, straight from the arrays.
+     *
+     * @return True if the position or bounds have changed since the last invocation.
+     */
+    private boolean updateBounds(InternalCollidableWrapper<?> wrapper, int index) {
+        return wrapper.updateBounds(posX[index], posY[index], lowerX[index], lowerY[index], upperX[index], upperY[index]);
+    }
+
+    void handleCollisions(InternalBroadPhase broadPhase, InternalContactCache contactCache) {
+        if (collisionHandler.listener == null) {
+            return;
+        }
+
+        for (int i = 0; i < size; ++i) {
+            if ((flags[i] & UPDATED) != 0 && canCollide(i)) {
+                InternalCollidableWrapper<?> wrapper = wrappers[i];
+                wrapper.initializeCollisionHandlers(contactCache);
+                broadPhase.handleCollisions(wrapper);
+                wrapper.finishCollisionHandlers();
+            }
+        }
+    }
+
+    void removeFrom(InternalBroadPhase broadPhase) {
+        for (int i = 0; i < size; ++i) {
+            broadPhase.remove(wrappers[i]);
+        }
+    }
+
+    public interface CollisionListener {
+
+        /**
+         * Invoked when a body collides with another {@link Collidable}.
+         *
+         * @param index    The index of the body.
+         * @param collided The collided object. Bodies of a {@link CollisionBodyBatch} are represented by {@link CollisionBody}.
+         * @return The collision result. If {@link CollisionResult#ABORT}, the search for collisions with the body is aborted.
+         */
+        CollisionResult onCollision(int index, Collidable collided);
+    }
+
+    private static class InternalBatchCollisionHandler implements CollisionHandler<CollisionBody, Collidable> {
+        private CollisionListener listener;
+        private int index;
+
+        @Override
+        public Class<Collidable> getCollidableClass() {
+            return Collidable.class;
+        }
+
+        @Override
+        public void initialize(CollidableInfo<CollisionBody> updated) {
+            index = updated.getCollidable().getIndex();
+        }
+
+        @Override
+        public CollisionResult collision(CollidableInfo<Collidable> collided) {
+            return listener.onCollision(index, collided.getCollidable());
+        }
+
+        @Override
+        public void finish() {
+
+        }
+    }
+}
@@ -3,24 +3,47 @@ package com.gamelibrary2d.collision;
 import com.gamelibrary2d.Rectangle;
 import com.gamelibrary2d.collision.handlers.CollisionHandler;
 import com.gamelibrary2d.collision.handlers.UpdatedHandler;
+import com.gamelibrary2d.concurrent.RangeTask;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Updates {@link Collidable} objects and performs collision detection. A collision is detected when the bounds of two
  * registered {@link Collidable} overlap. {@link CollisionHandler}'s are used to handle collisions and perform more
- * fine-grained collision detection.
+ * fine-grained collision detection. Fast-moving objects can be made {@link CollisionRegistration#setContinuous continuous},
+ * in which case they are swept from their previous position to avoid passing through other objects.
+ * <p>
+ * Objects are updated in the order they were added, until an object is removed. The last object then takes the
+ * place of the removed object. An object that is added several times gets one registration, and is updated once,
+ * for each time it was added.
+ * </p>
  */
 public class CollisionDetection {
+    private static final int MIN_PARALLEL_CHUNK_SIZE = 64;
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 512;
+
     private final Rectangle bounds;
-    private final InternalQuadTreeNode rootNode;
-    private final InternalPool<InternalQuadTreeNode> nodePool = new InternalPool<>();
+    private final InternalBroadPhase broadPhase;
+    private final InternalDispatchTable dispatchTable = new InternalDispatchTable();
     private final ArrayList<ActivationArea> activationAreas = new ArrayList<>();
     private final ArrayList<InternalCollidableWrapper<?>> participants;
+    private final ArrayList<CollisionBodyBatch> batches = new ArrayList<>();
+    private final IdentityHashMap<Object, InternalCollidableWrapper<?>> registrations = new IdentityHashMap<>();
+    private final ArrayList<InternalCollidableWrapper<?>> pendingRemovals = new ArrayList<>();
     private final ArrayList<InternalCollidableWrapper<?>> updateList;
     private final List<Collidable> updated;
+    private final ArrayList<InternalCollidableWrapper<?>> removedFromBroadPhase = new ArrayList<>();
+    private final ArrayList<CollisionBodyBatch> removedBatches = new ArrayList<>();
+    private boolean clearBroadPhase;
+    private boolean updating;
+    private ForkJoinPool forkJoinPool;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private InternalContactCache contactCache;
+    private ContactListener contactListener;
 
     /**
      * Creates a new {@link CollisionDetection} instance.
@@ -30,64 +53,243 @@ public class CollisionDetection {
      * @param nodeCapacity The object capacity of each node. When exceeded, the node will split into child nodes (quadrants).
      */
     public CollisionDetection(Rectangle bounds, float minNodeWidth, int nodeCapacity) {
+        this(bounds, BroadPhase.quadTree(minNodeWidth, nodeCapacity));
+    }
+
+    /**
+     * Creates a new {@link CollisionDetection} instance.
+     *
+     * @param bounds         The collision detection bounds.
+     * @param minNodeWidth   The minimum node width of the collision quad tree.
+     * @param nodeCapacity   The object capacity of each node. When exceeded, the node will split into child nodes (quadrants).
+     * @param persistentTree Determines if the collision quad tree is kept between updates. By default, the tree is
+     *                       rebuilt each update. A persistent tree only relocates objects that have left their
+     *                       current node, and merges child nodes when their combined content no longer exceeds the
+     *                       node capacity. This is faster when most objects move little between updates.
+     */
+    public CollisionDetection(Rectangle bounds, float minNodeWidth, int nodeCapacity, boolean persistentTree) {
+        this(bounds, persistentTree
+                ? BroadPhase.persistentQuadTree(minNodeWidth, nodeCapacity)
+                : BroadPhase.quadTree(minNodeWidth, nodeCapacity));
+    }
+
+    /**
+     * Creates a new {@link CollisionDetection} instance.
+     *
+     * @param bounds     The collision detection bounds.
+     * @param broadPhase The {@link BroadPhase} used to find overlapping objects.
+     */
+    public CollisionDetection(Rectangle bounds, BroadPhase broadPhase) {
         this.bounds = bounds;
+        this.broadPhase = broadPhase.create(bounds);
         participants = new ArrayList<>();
-        rootNode = new InternalQuadTreeNode(nodePool);
         updateList = new ArrayList<>();
         updated = new ArrayList<>();
-        rootNode.setBounds(bounds.getLowerX(), bounds.getLowerY(), bounds.getUpperX(), bounds.getUpperY());
-        rootNode.setMaxDepth((int) Math.round(Math.log(bounds.getWidth() / minNodeWidth) / Math.log(2)));
-        rootNode.setCapacity(nodeCapacity);
     }
 
     public Rectangle getBounds() {
         return bounds;
     }
 
+    /**
+     * @return The {@link ForkJoinPool} used for parallel updates, or null if updates are performed on the calling thread.
+     */
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    /**
+     * Enables parallel updates using the specified {@link ForkJoinPool}. The {@link BroadPhase} is prepared on the
+     * calling thread. All activated objects are then {@link Collidable#update updated} in parallel, followed by a
+     * parallel search for overlapping objects. {@link UpdatedHandler}'s and {@link CollisionHandler}'s are always
+     * invoked on the calling thread, in the same order as when updating sequentially, and do not need any
+     * additional synchronization. However, {@link Collidable#update} must only modify the updated object.
+     * <p>
+     * Note that all objects are updated before any collisions are handled. Collisions are therefore detected
+     * against the updated positions of all objects, rather than against the positions of objects that have yet to
+     * be updated.
+     * </p>
+     * <p>
+     * The pool is only used when at least {@link #setParallelThreshold threshold} objects are updated. Smaller
+     * updates are performed in the same steps on the calling thread, where forking costs more than it saves.
+     * </p>
+     *
+     * @param forkJoinPool The pool used for parallel updates, or null to update on the calling thread.
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * @return The minimum number of updated objects for the {@link #setForkJoinPool ForkJoinPool} to be used.
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the minimum number of updated objects for the {@link #setForkJoinPool ForkJoinPool} to be used. The
+     * default is 512. Below a few hundred objects, the cost of distributing the work exceeds the time saved. The
+     * {@link BroadPhase#sweepAndPrune sweep and prune} broad-phase relocates the updated objects on the calling
+     * thread, and gains little from parallel updates regardless of the number of objects.
+     *
+     * @param parallelThreshold The minimum number of updated objects.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * @return True if contacts are tracked between updates.
+     * @see #setContactTracking(boolean)
+     */
+    public boolean isContactTracking() {
+        return contactCache != null;
+    }
+
+    /**
+     * Determines if contacts are tracked between updates. When enabled, each pair of objects passed to the collision
+     * handlers of the updated object is tracked as a {@link Contact}. The contact is available to the handlers
+     * through {@link CollidableInfo#getContact}, and the {@link #setContactListener contact listener} is notified
+     * when a contact begins, stays and ends. Disabling contact tracking ends all contacts without notifying the
+     * listener.
+     */
+    public void setContactTracking(boolean contactTracking) {
+        if (contactTracking && contactCache == null) {
+            contactCache = new InternalContactCache();
+            contactCache.listener = contactListener;
+        } else if (!contactTracking && contactCache != null) {
+            contactCache.clear();
+            contactCache = null;
+        }
+    }
+
+    /**
+     * Sets the listener that is notified when a contact begins, stays or ends. Only invoked when
+     * {@link #setContactTracking contact tracking} is enabled.
+     */
+    public void setContactListener(ContactListener contactListener) {
+        this.contactListener = contactListener;
+        if (contactCache != null) {
+            contactCache.listener = contactListener;
+        }
+    }
+
     /**
      * Registers the object for automatic updating and collision detection.
+     *
+     * @return A handle that can be used to {@link #remove(CollisionRegistration) unregister} the object.
      */
-    public <T extends Collidable> void add(T obj) {
-        participants.add(new InternalCollidableWrapper<>(obj, getClass(obj)));
+    public <T extends Collidable> CollisionRegistration<T> add(T obj) {
+        return register(new InternalCollidableWrapper<>(obj, getClass(obj)));
     }
 
     /**
      * Registers the object for automatic updating and collision detection.
+     *
+     * @return A handle that can be used to {@link #remove(CollisionRegistration) unregister} the object.
      */
-    public <T extends Collidable> void add(T obj, CollisionHandler<T, ?> collisionHandler) {
-        participants.add(new InternalCollidableWrapper<>(obj, getClass(obj), collisionHandler));
+    public <T extends Collidable> CollisionRegistration<T> add(T obj, CollisionHandler<T, ?> collisionHandler) {
+        return register(new InternalCollidableWrapper<>(obj, getClass(obj), collisionHandler));
     }
 
     /**
      * Registers the object for automatic updating and collision detection.
+     *
+     * @return A handle that can be used to {@link #remove(CollisionRegistration) unregister} the object.
      */
-    public <T extends Collidable> void add(T obj, Collection<CollisionHandler<T, ?>> collisionHandlers) {
-        participants.add(new InternalCollidableWrapper<>(obj, getClass(obj), new ArrayList<>(collisionHandlers)));
+    public <T extends Collidable> CollisionRegistration<T> add(T obj, Collection<CollisionHandler<T, ?>> collisionHandlers) {
+        return register(new InternalCollidableWrapper<>(obj, getClass(obj), new ArrayList<>(collisionHandlers)));
     }
 
     /**
      * Registers the object for automatic updating and collision detection.
+     *
+     * @return A handle that can be used to {@link #remove(CollisionRegistration) unregister} the object.
      */
-    public <T extends Collidable> void add(T obj, UpdatedHandler<T> updatedHandler) {
-        participants.add(new InternalCollidableWrapper<>(obj, getClass(obj), updatedHandler));
+    public <T extends Collidable> CollisionRegistration<T> add(T obj, UpdatedHandler<T> updatedHandler) {
+        return register(new InternalCollidableWrapper<>(obj, getClass(obj), updatedHandler));
     }
 
     /**
      * Registers the object for automatic updating and collision detection.
+     *
+     * @return A handle that can be used to {@link #remove(CollisionRegistration) unregister} the object.
      */
-    public <T extends Collidable> void add(T obj,
+    public <T extends Collidable> CollisionRegistration<T> add(T obj,
                                            UpdatedHandler<T> updatedHandler,
                                            CollisionHandler<T, ?> collisionHandler) {
-        participants.add(new InternalCollidableWrapper<>(obj, getClass(obj), updatedHandler, collisionHandler));
+        return register(new InternalCollidableWrapper<>(obj, getClass(obj), updatedHandler, collisionHandler));
     }
 
     /**
      * Registers the object for automatic updating and collision detection.
+     *
+     * @return A handle that can be used to {@link #remove(CollisionRegistration) unregister} the object.
      */
-    public <T extends Collidable> void add(T obj,
+    public <T extends Collidable> CollisionRegistration<T> add(T obj,
                                            UpdatedHandler<T> updatedHandler,
                                            Collection<CollisionHandler<T, ?>> collisionHandlers) {
-        participants.add(new InternalCollidableWrapper<>(obj, getClass(obj), updatedHandler, new ArrayList<>(collisionHandlers)));
+        return register(new InternalCollidableWrapper<>(obj, getClass(obj), updatedHandler, new ArrayList<>(collisionHandlers)));
+    }
+
+    private <T extends Collidable> CollisionRegistration<T> register(InternalCollidableWrapper<T> wrapper) {
+        wrapper.setDispatchTable(dispatchTable);
+        wrapper.participantIndex = participants.size();
+        participants.add(wrapper);
+
+        // Registrations of the same object are chained in the order they were made.
+        InternalCollidableWrapper<?> registration = registrations.putIfAbsent(wrapper.collidable, wrapper);
+        if (registration != null) {
+            while (registration.nextRegistration != null) {
+                registration = registration.nextRegistration;
+            }
+            registration.nextRegistration = wrapper;
+        }
+
+        return wrapper;
+    }
+
+    private void unregister(InternalCollidableWrapper<?> wrapper) {
+        InternalCollidableWrapper<?> registration = registrations.get(wrapper.collidable);
+        if (registration == wrapper) {
+            if (wrapper.nextRegistration != null) {
+                registrations.put(wrapper.collidable, wrapper.nextRegistration);
+            } else {
+                registrations.remove(wrapper.collidable);
+            }
+        } else {
+            while (registration != null && registration.nextRegistration != wrapper) {
+                registration = registration.nextRegistration;
+            }
+            if (registration != null) {
+                registration.nextRegistration = wrapper.nextRegistration;
+            }
+        }
+
+        wrapper.nextRegistration = null;
+    }
+
+    /**
+     * Registers a {@link CollisionBodyBatch} for automatic updating and collision detection.
+     * The bodies of the batch are moved before any other objects are updated.
+     */
+    public void add(CollisionBodyBatch batch) {
+        batches.add(batch);
+    }
+
+    /**
+     * Unregisters the {@link CollisionBodyBatch} for automatic updating and collision detection.
+     *
+     * @return True if the batch was unregistered, false otherwise.
+     */
+    public boolean remove(CollisionBodyBatch batch) {
+        if (batches.remove(batch)) {
+            removedBatches.add(batch);
+            return true;
+        }
+
+        return false;
     }
 
     private Class<?> getClass(Object obj) {
@@ -95,34 +297,94 @@ public class CollisionDetection {
     }
 
     /**
-     * Unregisters the object for automatic updating and collision detection.
+     * Unregisters the object for automatic updating and collision detection. The object is looked up by identity.
+     * If the object has been added several times, the earliest remaining registration is removed.
+     * If invoked during an {@link #update}, the object is removed when the update has finished.
+     * <p>
+     * Objects are removed by moving the last registered object into the place of the removed object, which changes
+     * the order in which the remaining objects are updated.
+     * </p>
      *
      * @return True if the object was unregistered, false otherwise.
      */
     public boolean remove(Object obj) {
-        for (int i = 0; i < participants.size(); ++i) {
-            if (participants.get(i).collidable.equals(obj)) {
-                participants.remove(i);
-                return true;
-            }
+        InternalCollidableWrapper<?> wrapper = registrations.get(obj);
+        return wrapper != null && remove(wrapper);
+    }
+
+    /**
+     * Unregisters the object for automatic updating and collision detection in constant time.
+     * If invoked during an {@link #update}, the object is removed when the update has finished.
+     * <p>
+     * Objects are removed by moving the last registered object into the place of the removed object, which changes
+     * the order in which the remaining objects are updated.
+     * </p>
+     *
+     * @return True if the object was unregistered, false otherwise.
+     */
+    public boolean remove(CollisionRegistration<?> registration) {
+        InternalCollidableWrapper<?> wrapper = (InternalCollidableWrapper<?>) registration;
+        int index = wrapper.participantIndex;
+        if (wrapper.removalPending || index < 0 || index >= participants.size() || participants.get(index) != wrapper) {
+            return false;
         }
 
-        return false;
+        unregister(wrapper);
+
+        removedFromBroadPhase.add(wrapper);
+
+        if (updating) {
+            wrapper.removalPending = true;
+            pendingRemovals.add(wrapper);
+        } else {
+            removeParticipant(wrapper);
+        }
+
+        return true;
+    }
+
+    private void removeParticipant(InternalCollidableWrapper<?> wrapper) {
+        int index = wrapper.participantIndex;
+        int lastIndex = participants.size() - 1;
+        InternalCollidableWrapper<?> last = participants.remove(lastIndex);
+        if (index != lastIndex) {
+            participants.set(index, last);
+            last.participantIndex = index;
+        }
+
+        wrapper.participantIndex = -1;
+        wrapper.removalPending = false;
     }
 
     /**
      * Clears registered objects.
      */
     public void clear() {
+        for (int i = 0; i < participants.size(); ++i) {
+            InternalCollidableWrapper<?> participant = participants.get(i);
+            participant.participantIndex = -1;
+            participant.nextRegistration = null;
+        }
+
+        for (int i = 0; i < pendingRemovals.size(); ++i) {
+            pendingRemovals.get(i).removalPending = false;
+        }
+
         participants.clear();
+        pendingRemovals.clear();
+        registrations.clear();
+        batches.clear();
+        removedFromBroadPhase.clear();
+        removedBatches.clear();
+        clearBroadPhase = true;
     }
 
     /**
      * @return A modifiable list of restrictive {@link ActivationArea collision detection areas}. It is safe to move the areas
-     * as they are repositioned in the collision quad tree each update. Collision detection will only be performed for
+     * as they are reinserted in the {@link BroadPhase} each update. Collision detection will only be performed for
      * {@link Collidable} objects inside one or more area. Objects near the edges can be collided with but are not
      * updated. This is to avoid undetected collisions with objects past the edges. If the list of areas is empty,
-     * all objects in the quad tree will be updated and checked for collisions.
+     * all objects will be updated and checked for collisions.
      */
     public List<ActivationArea> getActivationAreas() {
         return activationAreas;
@@ -132,26 +394,39 @@ public class CollisionDetection {
      * Updates all registered objects and performs collision detection.
      *
      * @param deltaTime The time since the last update, in seconds.
-     * @return A list of updated objects.
+     * @return A list of updated objects, excluding bodies of {@link CollisionBodyBatch batches}.
      */
     public List<Collidable> update(float deltaTime) {
+        updating = true;
+        try {
+            return updateParticipants(deltaTime);
+        } finally {
+            updating = false;
+            for (int i = 0; i < pendingRemovals.size(); ++i) {
+                removeParticipant(pendingRemovals.get(i));
+            }
+            pendingRemovals.clear();
+        }
+    }
+
+    private List<Collidable> updateParticipants(float deltaTime) {
         updated.clear();
-        rootNode.clear();
-        nodePool.reset(0);
         updateList.clear();
+        prepareBroadPhase();
 
         if (deltaTime <= 0) {
             return updated;
         }
 
         for (int i = 0; i < activationAreas.size(); ++i) {
-            rootNode.insertActivationArea(activationAreas.get(i));
+            broadPhase.insertActivationArea(activationAreas.get(i));
         }
 
         if (!activationAreas.isEmpty()) {
             for (int i = 0; i < participants.size(); ++i) {
                 InternalCollidableWrapper<?> participant = participants.get(i);
-                InsertionResult result = rootNode.insert(participant);
+                participant.updateArea();
+                InsertionResult result = broadPhase.insert(participant);
                 if (result == InsertionResult.INSERTED_ACTIVE) {
                     updateList.add(participant);
                 }
@@ -159,16 +434,182 @@ public class CollisionDetection {
         } else {
             updateList.addAll(participants);
             for (int i = 0; i < updateList.size(); ++i) {
-                rootNode.insertWithoutActivation(updateList.get(i));
+                InternalCollidableWrapper<?> participant = updateList.get(i);
+                participant.updateArea();
+                broadPhase.insertWithoutActivation(participant);
+            }
+        }
+
+        for (int i = 0; i < batches.size(); ++i) {
+            batches.get(i).insert(broadPhase, dispatchTable, !activationAreas.isEmpty());
+        }
+
+        broadPhase.insertionFinished();
+
+        for (int i = 0; i < batches.size(); ++i) {
+            CollisionBodyBatch batch = batches.get(i);
+            batch.integrate(deltaTime);
+            batch.relocate(broadPhase, deltaTime);
+        }
+
+        if (forkJoinPool != null) {
+            updateParallel(deltaTime);
+        } else {
+            for (int i = 0; i < updateList.size(); ++i) {
+                InternalCollidableWrapper<?> obj = updateList.get(i);
+                update(obj, deltaTime);
+                updated.add(obj.collidable);
+            }
+        }
+
+        for (int i = 0; i < batches.size(); ++i) {
+            batches.get(i).handleCollisions(broadPhase, contactCache);
+        }
+
+        if (contactCache != null) {
+            contactCache.finishUpdate();
+        }
+
+        return updated;
+    }
+
+    private void prepareBroadPhase() {
+        if (clearBroadPhase) {
+            broadPhase.clear();
+            clearBroadPhase = false;
+        } else {
+            // Objects are removed from the broad-phase between updates, since a removal
+            // made by a collision handler could interfere with an ongoing search.
+            for (int i = 0; i < removedFromBroadPhase.size(); ++i) {
+                broadPhase.remove(removedFromBroadPhase.get(i));
+            }
+
+            for (int i = 0; i < removedBatches.size(); ++i) {
+                removedBatches.get(i).removeFrom(broadPhase);
+            }
+        }
+
+        removedFromBroadPhase.clear();
+        removedBatches.clear();
+        broadPhase.prepare();
+    }
+
+    private void update(InternalCollidableWrapper<?> obj, float deltaTime) {
+        obj.update(deltaTime);
+
+        if (obj.collidable.canCollide()) {
+            if (obj.updateBounds()) {
+                broadPhase.relocate(obj);
+            }
+
+            if (obj.isHandlingCollisions()) {
+                obj.initializeCollisionHandlers(contactCache);
+
+                broadPhase.handleCollisions(obj);
+
+                obj.finishCollisionHandlers();
+
+                if (obj.updateBounds()) {
+                    broadPhase.relocate(obj);
+                }
+            }
+        }
+    }
+
+    private void handleCandidateCollisions(InternalCollidableWrapper<?> obj) {
+        obj.initializeCollisionHandlers(contactCache);
+
+        ArrayList<InternalCollidableWrapper<?>> candidates = obj.candidates;
+        int size = candidates.size();
+        for (int i = 0; i < size; ++i) {
+            InternalCollidableWrapper<?> other = candidates.get(i);
+            if (other.collidable.canCollide() && obj.isColliding(other)) {
+                if (obj.handleCollision(other) != CollisionResult.CONTINUE) {
+                    break;
+                }
             }
         }
 
-        for (int i = 0; i < updateList.size(); ++i) {
+        obj.finishCollisionHandlers();
+
+        if (obj.updateBounds()) {
+            broadPhase.relocate(obj);
+        }
+    }
+
+    private void updateParallel(float deltaTime) {
+        int size = updateList.size();
+
+        invoke((from, to) -> {
+            for (int i = from; i < to; ++i) {
+                updateList.get(i).updateCollidable(deltaTime);
+            }
+        }, size);
+
+        for (int i = 0; i < size; ++i) {
             InternalCollidableWrapper<?> obj = updateList.get(i);
-            rootNode.update(obj, deltaTime);
+            obj.onUpdated();
+            if (obj.collidable.canCollide() && obj.updateBounds()) {
+                broadPhase.relocate(obj);
+            }
+        }
+
+        invoke((from, to) -> {
+            for (int i = from; i < to; ++i) {
+                InternalCollidableWrapper<?> obj = updateList.get(i);
+                if (obj.isHandlingCollisions()) {
+                    if (obj.candidates == null) {
+                        obj.candidates = new ArrayList<>();
+                    } else {
+                        obj.candidates.clear();
+                    }
+
+                    if (obj.collidable.canCollide()) {
+                        broadPhase.collectCandidates(obj, obj.candidates);
+                    }
+                }
+            }
+        }, size);
+
+        for (int i = 0; i < size; ++i) {
+            InternalCollidableWrapper<?> obj = updateList.get(i);
+            if (obj.isHandlingCollisions()) {
+                if (obj.collidable.canCollide()) {
+                    handleCandidateCollisions(obj);
+                }
+
+                obj.candidates.clear();
+            }
+
             updated.add(obj.collidable);
         }
+    }
 
-        return updated;
+    private void invoke(RangeTask.RangeAction action, int size) {
+        if (size < parallelThreshold) {
+            action.run(0, size);
+        } else {
+            int chunkSize = Math.max(MIN_PARALLEL_CHUNK_SIZE, size / (forkJoinPool.getParallelism() * 4));
+            forkJoinPool.invoke(new RangeTask(action, 0, size, chunkSize));
+        }
+    }
+
+    public interface ContactListener {
+
+        /**
+         * Invoked the first time the objects of the contact are found to collide, before the collision is handled.
+         */
+        void onContactBegin(Contact contact);
+
+        /**
+         * Invoked when the objects of the contact are found to collide in a subsequent update, before the collision
+         * is handled.
+         */
+        void onContactStay(Contact contact);
+
+        /**
+         * Invoked at the end of the first update in which the objects of the contact are no longer found to collide.
+         */
+        void onContactEnd(Contact contact);
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.gamelibrary2d.collision;
+
+/**
+ * Handle returned when a {@link Collidable} is registered to a {@link CollisionDetection}. The handle can be used to
+ * {@link CollisionDetection#remove(CollisionRegistration) unregister} the object in constant time.
+ *
+ * @param <T> The type of the registered object.
+ */
+public interface CollisionRegistration<T extends Collidable> {
+
+    /**
+     * @return The registered object.
+     */
+    T getCollidable();
+
+    /**
+     * @return True if the object is still registered, false if it has been removed.
+     */
+    boolean isRegistered();
+
+    /**
+     * @return True if collisions are detected continuously for the registered object.
+     * @see #setContinuous(boolean)
+     */
+    boolean isContinuous();
+
+    /**
+     * Determines if collisions are detected continuously for the registered object. By default, collisions are only
+     * detected if the bounds overlap after the object has been updated. A fast-moving object can then pass through a
+     * thin object without colliding. Continuous objects are instead swept from their previous to their current
+     * position, and the {@link CollidableInfo#getTimeOfImpact time of impact} is reported to their collision handlers.
+     * The change takes effect on the next update.
+     */
+    void setContinuous(boolean continuous);
+}
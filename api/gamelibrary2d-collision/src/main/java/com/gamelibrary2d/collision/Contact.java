@@ -0,0 +1,74 @@
+package com.gamelibrary2d.collision;
+
+/**
+ * A contact between an updated object and a collided object, tracked across updates when
+ * {@link CollisionDetection#setContactTracking contact tracking} is enabled. A contact begins the first time the
+ * collided object is passed to the collision handlers of the updated object, and ends after the first update in which
+ * it is not. Contacts are kept when collision handling of the updated object is aborted before the collided object
+ * was visited. The contact is reused for other pairs once it has ended.
+ */
+public final class Contact {
+    InternalCollidableWrapper<?> updated;
+    InternalCollidableWrapper<?> collided;
+    int lastUpdate;
+    private int updateCount;
+    private Object data;
+
+    Contact() {
+
+    }
+
+    void begin(InternalCollidableWrapper<?> updated, InternalCollidableWrapper<?> collided, int update) {
+        this.updated = updated;
+        this.collided = collided;
+        this.lastUpdate = update;
+        this.updateCount = 1;
+    }
+
+    void stay(int update) {
+        lastUpdate = update;
+        ++updateCount;
+    }
+
+    void end() {
+        updated = null;
+        collided = null;
+        data = null;
+    }
+
+    /**
+     * @return The updated object, whose collision handlers were invoked.
+     */
+    public Collidable getUpdated() {
+        return updated.collidable;
+    }
+
+    /**
+     * @return The collided object.
+     */
+    public Collidable getCollided() {
+        return collided.collidable;
+    }
+
+    /**
+     * @return The number of consecutive updates in which the objects have been in contact, starting at 1.
+     */
+    public int getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * @return The data set by {@link #setData}, or null.
+     */
+    public Object getData() {
+        return data;
+    }
+
+    /**
+     * Stores data for this pair of objects until the contact ends. Can be used by collision handlers to keep results
+     * between updates, rather than recomputing them while the contact persists.
+     */
+    public void setData(Object data) {
+        this.data = data;
+    }
+}
@@ -18,4 +18,35 @@ interface InternalArea {
      * Used together with the {@link #getBounds bounds} to determine collisions.
      */
     float getPosY();
+
+    /**
+     * The lower x-coordinate of the {@link #getBounds bounds}. Collision detection reads the bounds of a
+     * {@link Collidable} once per update. If this method is overridden, the bounds are read through it and the other
+     * coordinate methods, and otherwise through a single call to {@link #getBounds}. Override all four methods to
+     * avoid creating a new {@link Rectangle} for each read.
+     */
+    default float getLowerX() {
+        return getBounds().getLowerX();
+    }
+
+    /**
+     * The lower y-coordinate of the {@link #getBounds bounds}.
+     */
+    default float getLowerY() {
+        return getBounds().getLowerY();
+    }
+
+    /**
+     * The upper x-coordinate of the {@link #getBounds bounds}.
+     */
+    default float getUpperX() {
+        return getBounds().getUpperX();
+    }
+
+    /**
+     * The upper y-coordinate of the {@link #getBounds bounds}.
+     */
+    default float getUpperY() {
+        return getBounds().getUpperY();
+    }
 }
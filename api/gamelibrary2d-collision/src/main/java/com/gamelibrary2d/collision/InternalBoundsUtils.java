@@ -0,0 +1,114 @@
+package com.gamelibrary2d.collision;
+
+import com.gamelibrary2d.Rectangle;
+
+final class InternalBoundsUtils {
+    private static final ClassValue<Boolean> OVERRIDES_COORDINATES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return !type.getMethod("getLowerX").isDefault();
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private InternalBoundsUtils() {
+
+    }
+
+    /**
+     * @return True if the class overrides the default {@link InternalArea#getLowerX()} and, presumably, the other
+     * coordinate methods, which are then cheaper to invoke than {@link InternalArea#getBounds()}.
+     */
+    static boolean overridesCoordinates(Class<?> type) {
+        return OVERRIDES_COORDINATES.get(type);
+    }
+
+    /**
+     * Determines if the area overlaps the area of the object in the broad-phase.
+     */
+    static boolean isColliding(InternalArea area, InternalCollidableWrapper<?> obj) {
+        float posX = area.getPosX();
+        float posY = area.getPosY();
+        if (overridesCoordinates(area.getClass())) {
+            return !(area.getLowerX() + posX > obj.maxX
+                    || area.getLowerY() + posY > obj.maxY
+                    || area.getUpperX() + posX < obj.minX
+                    || area.getUpperY() + posY < obj.minY);
+        }
+
+        Rectangle bounds = area.getBounds();
+        return !(bounds.getLowerX() + posX > obj.maxX
+                || bounds.getLowerY() + posY > obj.maxY
+                || bounds.getUpperX() + posX < obj.minX
+                || bounds.getUpperY() + posY < obj.minY);
+    }
+
+    /**
+     * Determines if the objects overlap, using their current positions and the bounds read in the current update.
+     */
+    static boolean isColliding(CollidableInfo<?> updated, CollidableInfo<?> other) {
+        float xPos = updated.getX();
+        float yPos = updated.getY();
+        float xPos2 = other.getX();
+        float yPos2 = other.getY();
+        return !(updated.lowerX + xPos > other.upperX + xPos2
+                || updated.lowerY + yPos > other.upperY + yPos2
+                || updated.upperX + xPos < other.lowerX + xPos2
+                || updated.upperY + yPos < other.lowerY + yPos2);
+    }
+
+    /**
+     * Sweeps the previous bounds of the updated object along its movement and finds when it first overlaps the
+     * other object. The bounds at the end of the update are also tested, since the bounds may have changed.
+     *
+     * @return The time of impact, as a fraction of the movement from 0 to 1, or a negative value if the objects
+     * never overlap.
+     */
+    static float getTimeOfImpact(CollidableInfo<?> updated, CollidableInfo<?> other) {
+        float prevX = updated.getPrevX();
+        float prevY = updated.getPrevY();
+        float moveX = updated.getX() - prevX;
+        float moveY = updated.getY() - prevY;
+        float lowerX = updated.getPrevLowerX() + prevX;
+        float lowerY = updated.getPrevLowerY() + prevY;
+        float upperX = updated.getPrevUpperX() + prevX;
+        float upperY = updated.getPrevUpperY() + prevY;
+
+        float otherX = other.getX();
+        float otherY = other.getY();
+        float otherLowerX = other.lowerX + otherX;
+        float otherLowerY = other.lowerY + otherY;
+        float otherUpperX = other.upperX + otherX;
+        float otherUpperY = other.upperY + otherY;
+
+        float enter = 0f;
+        float exit = 1f;
+
+        if (moveX != 0f) {
+            float t0 = (otherLowerX - upperX) / moveX;
+            float t1 = (otherUpperX - lowerX) / moveX;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        } else if (lowerX > otherUpperX || upperX < otherLowerX) {
+            exit = -1f;
+        }
+
+        if (moveY != 0f) {
+            float t0 = (otherLowerY - upperY) / moveY;
+            float t1 = (otherUpperY - lowerY) / moveY;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        } else if (lowerY > otherUpperY || upperY < otherLowerY) {
+            exit = -1f;
+        }
+
+        if (enter <= exit) {
+            return enter;
+        }
+
+        return isColliding(updated, other) ? 1f : -1f;
+    }
+}
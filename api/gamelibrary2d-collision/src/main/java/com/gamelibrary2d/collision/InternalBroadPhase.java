@@ -0,0 +1,62 @@
+package com.gamelibrary2d.collision;
+
+import java.util.ArrayList;
+
+/**
+ * Broad-phase used by {@link CollisionDetection} to find overlapping {@link Collidable} objects.
+ */
+interface InternalBroadPhase {
+
+    /**
+     * Invoked in the beginning of each update, before activation areas and objects are inserted.
+     */
+    void prepare();
+
+    /**
+     * Removes all objects.
+     */
+    void clear();
+
+    /**
+     * Removes an object that is no longer registered for collision detection.
+     * Invoked in the beginning of the update following the removal.
+     */
+    void remove(InternalCollidableWrapper<?> obj);
+
+    /**
+     * Inserts an {@link ActivationArea}. Invoked each update, before any objects are inserted.
+     */
+    void insertActivationArea(ActivationArea area);
+
+    /**
+     * Detects if the object is activated by any {@link ActivationArea} and inserts it accordingly.
+     */
+    InsertionResult insert(InternalCollidableWrapper<?> obj);
+
+    /**
+     * Inserts the object. Invoked when there are no activation areas.
+     */
+    void insertWithoutActivation(InternalCollidableWrapper<?> obj);
+
+    /**
+     * Invoked after all activation areas and objects have been inserted, before any object is updated.
+     */
+    void insertionFinished();
+
+    /**
+     * Invoked when the position or bounds of an inserted object has changed during the update.
+     */
+    void relocate(InternalCollidableWrapper<?> obj);
+
+    /**
+     * Invokes the collision handlers of the object for all overlapping objects that {@link Collidable#canCollide can collide}.
+     */
+    CollisionResult handleCollisions(InternalCollidableWrapper<?> updated);
+
+    /**
+     * Adds all objects overlapping the specified object to the candidate list, in the same order as they would be
+     * passed to the collision handlers by {@link #handleCollisions}. Must not modify the broad-phase, since
+     * candidates can be collected for different objects concurrently.
+     */
+    void collectCandidates(InternalCollidableWrapper<?> updated, ArrayList<InternalCollidableWrapper<?>> candidates);
+}
@@ -1,53 +1,53 @@
 package com.gamelibrary2d.collision;
 
-import com.gamelibrary2d.Rectangle;
 import com.gamelibrary2d.collision.handlers.CollisionHandler;
 import com.gamelibrary2d.collision.handlers.UpdatedHandler;
 
 import java.util.ArrayList;
 
-class InternalCollidableWrapper<T1 extends Collidable> {
+class InternalCollidableWrapper<T1 extends Collidable> implements CollisionRegistration<T1> {
     final T1 collidable;
     final Class<?> collidableClass;
     final CollidableInfo<T1> info;
     private final UpdatedHandler<T1> updatedHandler;
     private final ArrayList<CollisionHandler<T1, ?>> collisionHandlers;
+    private InternalDispatchTable dispatchTable;
+    private int[] handlerClassIds;
+    int collidableClassId;
+    private boolean continuous;
+    private InternalContactCache contactCache;
+
+    // True if the area of the object in the broad-phase is swept from its previous position.
+    private boolean swept;
+
+    // The area of the object in the broad-phase, in absolute coordinates. Updated by updateBounds.
+    float minX;
+    float minY;
+    float maxX;
+    float maxY;
+
+    ArrayList<Contact> contacts;
+    InternalQuadTreeNode node;
+    int broadPhaseIndex = -1;
+    int participantIndex = -1;
+    boolean removalPending;
+    InternalCollidableWrapper<?> nextRegistration;
+    ArrayList<InternalCollidableWrapper<?>> candidates;
 
     InternalCollidableWrapper(T1 collidable, Class<?> collidableClass) {
-        this.collidable = collidable;
-        this.collidableClass = collidableClass;
-        this.updatedHandler = null;
-        this.collisionHandlers = null;
-        this.info = new CollidableInfo<>(collidable);
+        this(collidable, collidableClass, null, (ArrayList<CollisionHandler<T1, ?>>) null);
     }
 
     InternalCollidableWrapper(T1 collidable, Class<?> collidableClass, CollisionHandler<T1, ?> collisionHandler) {
-        this.collidable = collidable;
-        this.collidableClass = collidableClass;
-        if (collisionHandler != null) {
-            this.collisionHandlers = new ArrayList<>(1);
-            collisionHandlers.add(collisionHandler);
-        } else {
-            this.collisionHandlers = null;
-        }
-        this.info = new CollidableInfo<>(collidable);
-        updatedHandler = null;
+        this(collidable, collidableClass, null, collisionHandler);
     }
 
     InternalCollidableWrapper(T1 collidable, Class<?> collidableClass, ArrayList<CollisionHandler<T1, ?>> collisionHandlers) {
-        this.collidable = collidable;
-        this.collidableClass = collidableClass;
-        this.collisionHandlers = collisionHandlers;
-        this.info = new CollidableInfo<>(collidable);
-        updatedHandler = null;
+        this(collidable, collidableClass, null, collisionHandlers);
     }
 
     InternalCollidableWrapper(T1 collidable, Class<?> collidableClass, UpdatedHandler<T1> updatedHandler) {
-        this.collidable = collidable;
-        this.collidableClass = collidableClass;
-        this.updatedHandler = updatedHandler;
-        collisionHandlers = null;
-        this.info = new CollidableInfo<>(collidable);
+        this(collidable, collidableClass, updatedHandler, (ArrayList<CollisionHandler<T1, ?>>) null);
     }
 
     InternalCollidableWrapper(
@@ -55,16 +55,7 @@ class InternalCollidableWrapper<T1 extends Collidable> {
             Class<?> collidableClass,
             UpdatedHandler<T1> updatedHandler,
             CollisionHandler<T1, ?> collisionHandler) {
-        this.collidable = collidable;
-        this.collidableClass = collidableClass;
-        this.updatedHandler = updatedHandler;
-        if (collisionHandler != null) {
-            this.collisionHandlers = new ArrayList<>(1);
-            collisionHandlers.add(collisionHandler);
-        } else {
-            collisionHandlers = null;
-        }
-        this.info = new CollidableInfo<>(collidable);
+        this(collidable, collidableClass, updatedHandler, asList(collisionHandler));
     }
 
     InternalCollidableWrapper(
@@ -79,50 +70,202 @@ class InternalCollidableWrapper<T1 extends Collidable> {
         this.info = new CollidableInfo<>(collidable);
     }
 
+    private static <T1 extends Collidable> ArrayList<CollisionHandler<T1, ?>> asList(CollisionHandler<T1, ?> collisionHandler) {
+        if (collisionHandler == null) {
+            return null;
+        }
+
+        ArrayList<CollisionHandler<T1, ?>> collisionHandlers = new ArrayList<>(1);
+        collisionHandlers.add(collisionHandler);
+        return collisionHandlers;
+    }
+
+    /**
+     * Assigns the class ids of the collidable and of the collision handlers from the dispatch table of the
+     * {@link CollisionDetection} that the object is registered to.
+     */
+    void setDispatchTable(InternalDispatchTable dispatchTable) {
+        if (this.dispatchTable != dispatchTable) {
+            this.dispatchTable = dispatchTable;
+            collidableClassId = dispatchTable.getCollidableClassId(collidableClass);
+            handlerClassIds = dispatchTable.getHandlerClassIds(collisionHandlers);
+        }
+    }
+
+    @Override
+    public T1 getCollidable() {
+        return collidable;
+    }
+
+    @Override
+    public boolean isRegistered() {
+        return participantIndex >= 0 && !removalPending;
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    @Override
+    public void setContinuous(boolean continuous) {
+        this.continuous = continuous;
+    }
+
+    /**
+     * Applies changes to the {@link #isContinuous continuous} setting and {@link #updateBounds updates the bounds}.
+     * Invoked before the object is inserted into the broad-phase, so that the kind of area used by the broad-phase
+     * remains the same until the next insertion.
+     */
+    void updateArea() {
+        if (continuous && !swept) {
+            info.updateBounds();
+            info.reset(0f);
+        } else if (!continuous && swept) {
+            // The time of impact is only computed for swept objects.
+            info.setTimeOfImpact(1f);
+        }
+
+        swept = continuous;
+
+        updateBounds();
+    }
+
+    /**
+     * Reads the position and bounds of the collidable and updates the area used by the broad-phase. The bounds are
+     * read once, and the cached values are used for all collision checks until the next invocation. Invoked when the
+     * object is inserted, after it has been updated and after its collisions have been handled. The swept area of a
+     * continuous object contains both the previous and the current bounds.
+     *
+     * @return True if the area has changed, in which case the object must be relocated in the broad-phase.
+     */
+    boolean updateBounds() {
+        info.updateBounds();
+
+        float posX = collidable.getPosX();
+        float posY = collidable.getPosY();
+        float minX = info.lowerX + posX;
+        float minY = info.lowerY + posY;
+        float maxX = info.upperX + posX;
+        float maxY = info.upperY + posY;
+        if (swept) {
+            float prevX = info.getPrevX();
+            float prevY = info.getPrevY();
+            minX = Math.min(minX, info.getPrevLowerX() + prevX);
+            minY = Math.min(minY, info.getPrevLowerY() + prevY);
+            maxX = Math.max(maxX, info.getPrevUpperX() + prevX);
+            maxY = Math.max(maxY, info.getPrevUpperY() + prevY);
+        }
+
+        return setArea(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Sets the position and bounds of a collidable whose state is stored by collision detection, such as the bodies
+     * of a {@link CollisionBodyBatch}. Equivalent to {@link #updateBounds()}, without reading from the collidable.
+     *
+     * @return True if the area has changed, in which case the object must be relocated in the broad-phase.
+     */
+    boolean updateBounds(float posX, float posY, float lowerX, float lowerY, float upperX, float upperY) {
+        info.setBounds(lowerX, lowerY, upperX, upperY);
+        return setArea(lowerX + posX, lowerY + posY, upperX + posX, upperY + posY);
+    }
+
+    private boolean setArea(float minX, float minY, float maxX, float maxY) {
+        boolean changed = minX != this.minX || minY != this.minY || maxX != this.maxX || maxY != this.maxY;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        return changed;
+    }
+
+    /**
+     * Determines if this object collides with the other object. Continuous objects are swept from their previous
+     * position, while the other object is tested at its current position.
+     */
+    boolean isColliding(InternalCollidableWrapper<?> other) {
+        return !swept
+                ? InternalBoundsUtils.isColliding(info, other.info)
+                : InternalBoundsUtils.getTimeOfImpact(info, other.info) >= 0f;
+    }
+
     void update(float deltaTime) {
-        float xBeforeUpdate = collidable.getPosX();
-        float yBeforeUpdate = collidable.getPosY();
-        Rectangle boundsBeforeUpdate = collidable.getBounds();
+        updateCollidable(deltaTime);
+        onUpdated();
+    }
 
+    void updateCollidable(float deltaTime) {
+        info.reset(deltaTime);
         collidable.update(deltaTime);
+    }
 
-        info.reset(
-                deltaTime,
-                xBeforeUpdate,
-                yBeforeUpdate,
-                boundsBeforeUpdate);
-
+    void onUpdated() {
         if (updatedHandler != null) {
+            // The bounds are read before the handler, which can read them from the info.
+            info.updateBounds();
             updatedHandler.updated(info);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private CollisionResult onCollision(
-            CollisionHandler collisionHandler,
-            InternalCollidableWrapper other) {
-        Class<?> type = collisionHandler.getCollidableClass();
-        return type.isAssignableFrom(other.collidableClass)
-                ? collisionHandler.collision(other.info)
-                : CollisionResult.CONTINUE;
-    }
-
     boolean isHandlingCollisions() {
         return collisionHandlers != null && collisionHandlers.size() > 0;
     }
 
     CollisionResult handleCollision(InternalCollidableWrapper<?> other) {
+        if (swept) {
+            info.setTimeOfImpact(InternalBoundsUtils.getTimeOfImpact(info, other.info));
+        }
+
+        boolean[][] table = dispatchTable.getTable();
+        int otherClassId = other.collidableClassId;
+        boolean touched = false;
         for (int i = 0; i < collisionHandlers.size(); ++i) {
-            CollisionResult result = onCollision(collisionHandlers.get(i), other);
-            if (result == CollisionResult.ABORT || !collidable.canCollide()) {
-                return CollisionResult.ABORT;
+            if (table[handlerClassIds[i]][otherClassId]) {
+                // The contact begins when the first handler accepts the collided object.
+                if (!touched && contactCache != null) {
+                    info.setContact(contactCache.touch(this, other));
+                    touched = true;
+                }
+
+                if (collision(collisionHandlers.get(i), other.info) == CollisionResult.ABORT) {
+                    return abort();
+                }
+            }
+
+            if (!collidable.canCollide()) {
+                return abort();
             }
         }
 
         return CollisionResult.CONTINUE;
     }
 
-    void initializeCollisionHandlers() {
+    /**
+     * The remaining collision candidates are not visited after an abort. Their contacts are retained, so that they do
+     * not end and begin again between updates.
+     */
+    private CollisionResult abort() {
+        if (contactCache != null) {
+            contactCache.retain(this);
+        }
+
+        return CollisionResult.ABORT;
+    }
+
+    /**
+     * The dispatch table guarantees that the collided object is an instance of the handler's collidable class.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T2 extends Collidable> CollisionResult collision(
+            CollisionHandler<?, T2> collisionHandler,
+            CollidableInfo<?> collided) {
+        return collisionHandler.collision((CollidableInfo<T2>) collided);
+    }
+
+    void initializeCollisionHandlers(InternalContactCache contactCache) {
+        this.contactCache = contactCache;
+        info.setContact(null);
         for (int i = 0; i < collisionHandlers.size(); ++i) {
             collisionHandlers.get(i).initialize(info);
         }
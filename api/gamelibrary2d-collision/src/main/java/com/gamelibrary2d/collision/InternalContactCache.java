@@ -0,0 +1,117 @@
+package com.gamelibrary2d.collision;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps the contacts of each updated object in a list on the object itself. The lists are short, since an object is
+ * rarely in contact with more than a few other objects, and are searched linearly.
+ */
+final class InternalContactCache {
+    private final ArrayList<InternalCollidableWrapper<?>> objectsWithContacts = new ArrayList<>();
+    private final ArrayList<Contact> releasedContacts = new ArrayList<>();
+    private int update;
+
+    CollisionDetection.ContactListener listener;
+
+    Contact touch(InternalCollidableWrapper<?> updated, InternalCollidableWrapper<?> collided) {
+        ArrayList<Contact> contacts = updated.contacts;
+        if (contacts == null) {
+            contacts = new ArrayList<>(4);
+            updated.contacts = contacts;
+        }
+
+        for (int i = 0; i < contacts.size(); ++i) {
+            Contact contact = contacts.get(i);
+            if (contact.collided == collided) {
+                if (contact.lastUpdate != update) {
+                    contact.stay(update);
+                    if (listener != null) {
+                        listener.onContactStay(contact);
+                    }
+                }
+
+                return contact;
+            }
+        }
+
+        if (contacts.isEmpty()) {
+            objectsWithContacts.add(updated);
+        }
+
+        int released = releasedContacts.size();
+        Contact contact = released > 0 ? releasedContacts.remove(released - 1) : new Contact();
+        contact.begin(updated, collided, update);
+        contacts.add(contact);
+
+        if (listener != null) {
+            listener.onContactBegin(contact);
+        }
+
+        return contact;
+    }
+
+    /**
+     * Keeps the contacts of the updated object that have not been touched during the update, without notifying the
+     * listener. Invoked when collision handling of the object is aborted before all candidates were visited.
+     */
+    void retain(InternalCollidableWrapper<?> updated) {
+        ArrayList<Contact> contacts = updated.contacts;
+        if (contacts != null) {
+            for (int i = 0; i < contacts.size(); ++i) {
+                contacts.get(i).lastUpdate = update;
+            }
+        }
+    }
+
+    /**
+     * Ends all contacts that were not touched during the update.
+     */
+    void finishUpdate() {
+        int count = 0;
+        for (int i = 0; i < objectsWithContacts.size(); ++i) {
+            InternalCollidableWrapper<?> obj = objectsWithContacts.get(i);
+            endContacts(obj.contacts, false);
+            if (!obj.contacts.isEmpty()) {
+                objectsWithContacts.set(count++, obj);
+            }
+        }
+
+        for (int i = objectsWithContacts.size() - 1; i >= count; --i) {
+            objectsWithContacts.remove(i);
+        }
+
+        ++update;
+    }
+
+    /**
+     * Ends all contacts, without notifying the listener.
+     */
+    void clear() {
+        for (int i = 0; i < objectsWithContacts.size(); ++i) {
+            endContacts(objectsWithContacts.get(i).contacts, true);
+        }
+
+        objectsWithContacts.clear();
+    }
+
+    private void endContacts(ArrayList<Contact> contacts, boolean all) {
+        int count = 0;
+        for (int i = 0; i < contacts.size(); ++i) {
+            Contact contact = contacts.get(i);
+            if (all || contact.lastUpdate != update) {
+                if (!all && listener != null) {
+                    listener.onContactEnd(contact);
+                }
+
+                contact.end();
+                releasedContacts.add(contact);
+            } else {
+                contacts.set(count++, contact);
+            }
+        }
+
+        for (int i = contacts.size() - 1; i >= count; --i) {
+            contacts.remove(i);
+        }
+    }
+}
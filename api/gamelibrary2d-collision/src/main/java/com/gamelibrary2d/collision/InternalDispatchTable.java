@@ -0,0 +1,82 @@
+package com.gamelibrary2d.collision;
+
+import com.gamelibrary2d.collision.handlers.CollisionHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Determines which collision handlers apply to which collidable classes. Collidable classes and the classes handled
+ * by collision handlers are given integer ids when first registered. The result of {@link Class#isAssignableFrom} is
+ * computed once for each combination and stored in a table, which grows whenever a new class registers.
+ * Each {@link CollisionDetection} has its own table, so the classes are only referenced for as long as the
+ * {@link CollisionDetection} is.
+ */
+final class InternalDispatchTable {
+    private final HashMap<Class<?>, Integer> collidableClassIds = new HashMap<>();
+    private final HashMap<Class<?>, Integer> handlerClassIds = new HashMap<>();
+    private final ArrayList<Class<?>> collidableClasses = new ArrayList<>();
+    private final ArrayList<Class<?>> handlerClasses = new ArrayList<>();
+
+    /**
+     * Indexed by handler class id and collidable class id.
+     */
+    private boolean[][] table = new boolean[0][];
+
+    boolean[][] getTable() {
+        return table;
+    }
+
+    int getCollidableClassId(Class<?> collidableClass) {
+        Integer id = collidableClassIds.get(collidableClass);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = collidableClasses.size();
+        collidableClasses.add(collidableClass);
+        collidableClassIds.put(collidableClass, newId);
+
+        for (int i = 0; i < table.length; ++i) {
+            table[i] = Arrays.copyOf(table[i], newId + 1);
+            table[i][newId] = handlerClasses.get(i).isAssignableFrom(collidableClass);
+        }
+
+        return newId;
+    }
+
+    int getHandlerClassId(Class<?> handlerClass) {
+        Integer id = handlerClassIds.get(handlerClass);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = handlerClasses.size();
+        handlerClasses.add(handlerClass);
+        handlerClassIds.put(handlerClass, newId);
+
+        boolean[] row = new boolean[collidableClasses.size()];
+        for (int i = 0; i < row.length; ++i) {
+            row[i] = handlerClass.isAssignableFrom(collidableClasses.get(i));
+        }
+
+        table = Arrays.copyOf(table, newId + 1);
+        table[newId] = row;
+
+        return newId;
+    }
+
+    int[] getHandlerClassIds(ArrayList<? extends CollisionHandler<?, ?>> collisionHandlers) {
+        if (collisionHandlers == null) {
+            return null;
+        }
+
+        int[] ids = new int[collisionHandlers.size()];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = getHandlerClassId(collisionHandlers.get(i).getCollidableClass());
+        }
+
+        return ids;
+    }
+}
@@ -0,0 +1,79 @@
+package com.gamelibrary2d.collision;
+
+import com.gamelibrary2d.Rectangle;
+
+import java.util.ArrayList;
+
+class InternalQuadTree implements InternalBroadPhase {
+    private final InternalPool<InternalQuadTreeNode> nodePool = new InternalPool<>();
+    private final InternalQuadTreeNode rootNode;
+    private final boolean persistent;
+
+    InternalQuadTree(Rectangle bounds, float minNodeWidth, int nodeCapacity, boolean persistent) {
+        this.persistent = persistent;
+        rootNode = new InternalQuadTreeNode(nodePool);
+        rootNode.setBounds(bounds.getLowerX(), bounds.getLowerY(), bounds.getUpperX(), bounds.getUpperY());
+        rootNode.setMaxDepth((int) Math.round(Math.log(bounds.getWidth() / minNodeWidth) / Math.log(2)));
+        rootNode.setCapacity(nodeCapacity);
+        rootNode.setPersistent(persistent);
+    }
+
+    @Override
+    public void prepare() {
+        if (persistent) {
+            rootNode.prune();
+        } else {
+            clear();
+        }
+    }
+
+    @Override
+    public void clear() {
+        rootNode.clear();
+        nodePool.reset(0);
+    }
+
+    @Override
+    public void remove(InternalCollidableWrapper<?> obj) {
+        InternalQuadTreeNode.remove(obj);
+    }
+
+    @Override
+    public void insertActivationArea(ActivationArea area) {
+        rootNode.insertActivationArea(area);
+    }
+
+    @Override
+    public InsertionResult insert(InternalCollidableWrapper<?> obj) {
+        return persistent ? rootNode.place(obj) : rootNode.insert(obj);
+    }
+
+    @Override
+    public void insertWithoutActivation(InternalCollidableWrapper<?> obj) {
+        if (persistent) {
+            rootNode.placeWithoutActivation(obj);
+        } else {
+            rootNode.insertWithoutActivation(obj);
+        }
+    }
+
+    @Override
+    public void insertionFinished() {
+
+    }
+
+    @Override
+    public void relocate(InternalCollidableWrapper<?> obj) {
+        rootNode.relocate(obj);
+    }
+
+    @Override
+    public CollisionResult handleCollisions(InternalCollidableWrapper<?> updated) {
+        return rootNode.handleCollisions(updated);
+    }
+
+    @Override
+    public void collectCandidates(InternalCollidableWrapper<?> updated, ArrayList<InternalCollidableWrapper<?>> candidates) {
+        rootNode.collectCandidates(updated, candidates);
+    }
+}
@@ -1,7 +1,5 @@
 package com.gamelibrary2d.collision;
 
-import com.gamelibrary2d.Rectangle;
-
 import java.util.ArrayList;
 import java.util.Iterator;
 
@@ -21,35 +19,49 @@ class InternalQuadTreeNode {
     private static final int NOT_ACTIVATED = 0;
 
     private final InternalPool<InternalQuadTreeNode> nodePool;
-    private final ArrayList<InternalCollidableWrapper> objects;
+    private final ArrayList<InternalCollidableWrapper<?>> objects;
     private final ArrayList<ActivationArea> activationAreas;
     private final InternalQuadTreeNode[] nodes;
+    private final InternalQuadTreeNode[] releasedNodes;
+    private boolean persistent;
     private int depth;
     private int maxDepth;
     private int capacity;
     private float xMin, yMin, xMax, yMax;
 
+    // The region that an object must be inside of in order to belong to this node.
+    // Edges shared with the root node are unbounded, since objects outside the root are still placed in the tree.
+    private float regionMinX = Float.NEGATIVE_INFINITY;
+    private float regionMinY = Float.NEGATIVE_INFINITY;
+    private float regionMaxX = Float.POSITIVE_INFINITY;
+    private float regionMaxY = Float.POSITIVE_INFINITY;
+
     InternalQuadTreeNode(InternalPool<InternalQuadTreeNode> nodePool) {
         this.nodePool = nodePool;
         objects = new ArrayList<>();
         activationAreas = new ArrayList<>();
         nodes = new InternalQuadTreeNode[4];
+        releasedNodes = new InternalQuadTreeNode[4];
     }
 
-    private static boolean isColliding(Rectangle bounds, float xPos, float yPos, Rectangle bounds2, float xPos2, float yPos2) {
-        return !(bounds.getLowerX() + xPos > bounds2.getUpperX() + xPos2
-                || bounds.getLowerY() + yPos > bounds2.getUpperY() + yPos2
-                || bounds.getUpperX() + xPos < bounds2.getLowerX() + xPos2
-                || bounds.getUpperY() + yPos < bounds2.getLowerY() + yPos2);
-    }
-
-    private static boolean isColliding(InternalArea updated, InternalArea other) {
-        return isColliding(updated.getBounds(), updated.getPosX(), updated.getPosY(), other.getBounds(), other.getPosX(),
-                other.getPosY());
-    }
+    private InternalQuadTreeNode createNode(int index, int depth, float xMin, float yMin, float xMax, float yMax) {
+        InternalQuadTreeNode qt;
+        if (releasedNodes[index] != null) {
+            qt = releasedNodes[index];
+            releasedNodes[index] = null;
+        } else if (persistent) {
+            qt = new InternalQuadTreeNode(nodePool);
+        } else {
+            qt = nodePool.canGet() ? nodePool.get() : nodePool.store(new InternalQuadTreeNode(nodePool));
+        }
 
-    private InternalQuadTreeNode createNode(int depth, float xMin, float yMin, float xMax, float yMax) {
-        InternalQuadTreeNode qt = nodePool.canGet() ? nodePool.get() : nodePool.store(new InternalQuadTreeNode(nodePool));
+        boolean left = index == TOP_LEFT_NODE || index == BOTTOM_LEFT_NODE;
+        boolean top = index == TOP_LEFT_NODE || index == TOP_RIGHT_NODE;
+        qt.regionMinX = left ? regionMinX : xMin;
+        qt.regionMaxX = left ? xMax : regionMaxX;
+        qt.regionMinY = top ? yMin : regionMinY;
+        qt.regionMaxY = top ? regionMaxY : yMax;
+        qt.persistent = persistent;
         qt.depth = depth;
         qt.maxDepth = maxDepth;
         qt.capacity = capacity;
@@ -75,37 +87,59 @@ class InternalQuadTreeNode {
         this.maxDepth = maxDepth;
     }
 
+    /**
+     * Persistent nodes are kept between updates rather than returned to the node pool.
+     * Released child nodes are instead kept by their parent and reused if the parent splits again.
+     */
+    void setPersistent(boolean persistent) {
+        this.persistent = persistent;
+    }
+
     void clear() {
+        for (int i = 0; i < objects.size(); ++i) {
+            objects.get(i).node = null;
+        }
         objects.clear();
         activationAreas.clear();
         for (int i = 0; i < 4; ++i) {
             if (nodes[i] != null) {
                 nodes[i].clear();
+                if (persistent) {
+                    releasedNodes[i] = nodes[i];
+                }
                 nodes[i] = null;
             }
         }
     }
 
     private int getNodeIndex(InternalArea area) {
-        Rectangle bounds = area.getBounds();
-        float xMin = bounds.getLowerX();
-        float yMin = bounds.getLowerY();
-        float xMax = bounds.getUpperX();
-        float yMax = bounds.getUpperY();
+        float posX = area.getPosX();
+        float posY = area.getPosY();
+        return getNodeIndex(
+                area.getLowerX() + posX,
+                area.getLowerY() + posY,
+                area.getUpperX() + posX,
+                area.getUpperY() + posY);
+    }
 
-        float verticalMidpoint = (xMin + xMax) / 2 - area.getPosX();
-        float horizontalMidpoint = (yMin + yMax) / 2 - area.getPosY();
+    private int getNodeIndex(InternalCollidableWrapper<?> obj) {
+        return getNodeIndex(obj.minX, obj.minY, obj.maxX, obj.maxY);
+    }
+
+    private int getNodeIndex(float lowerX, float lowerY, float upperX, float upperY) {
+        float verticalMidpoint = (xMin + xMax) / 2;
+        float horizontalMidpoint = (yMin + yMax) / 2;
 
-        if (xMax < verticalMidpoint) {
-            if (yMin > horizontalMidpoint) {
+        if (upperX < verticalMidpoint) {
+            if (lowerY > horizontalMidpoint) {
                 return TOP_LEFT_NODE; // Top left node
-            } else if (yMax < horizontalMidpoint) {
+            } else if (upperY < horizontalMidpoint) {
                 return BOTTOM_LEFT_NODE; // Bottom left node
             }
-        } else if (xMin > verticalMidpoint) {
-            if (yMin > horizontalMidpoint) {
+        } else if (lowerX > verticalMidpoint) {
+            if (lowerY > horizontalMidpoint) {
                 return TOP_RIGHT_NODE; // Top right node
-            } else if (yMax < horizontalMidpoint) {
+            } else if (upperY < horizontalMidpoint) {
                 return BOTTOM_RIGHT_NODE; // Bottom right node
             }
         }
@@ -118,32 +152,34 @@ class InternalQuadTreeNode {
         float xMid = (xMin + xMax) / 2;
 
         int nextDepth = depth + 1;
-        nodes[0] = createNode(nextDepth, xMin, yMid, xMid, yMax);
-        nodes[1] = createNode(nextDepth, xMid, yMid, xMax, yMax);
-        nodes[2] = createNode(nextDepth, xMin, yMin, xMid, yMid);
-        nodes[3] = createNode(nextDepth, xMid, yMin, xMax, yMid);
+        nodes[0] = createNode(TOP_LEFT_NODE, nextDepth, xMin, yMid, xMid, yMax);
+        nodes[1] = createNode(TOP_RIGHT_NODE, nextDepth, xMid, yMid, xMax, yMax);
+        nodes[2] = createNode(BOTTOM_LEFT_NODE, nextDepth, xMin, yMin, xMid, yMid);
+        nodes[3] = createNode(BOTTOM_RIGHT_NODE, nextDepth, xMid, yMin, xMax, yMid);
 
         Iterator<?> it = objects.iterator();
         while (it.hasNext()) {
             Object next = it.next();
-            it.remove();
             if (activationAreas) {
                 ActivationArea activationArea = (ActivationArea) next;
                 int index = getNodeIndex(activationArea);
                 if (index == CROSSING_BOUNDARIES)
                     continue;
+                it.remove();
                 nodes[index].insertActivationAreaHere(activationArea);
             } else {
-                InternalCollidableWrapper obj = (InternalCollidableWrapper) next;
-                int index = getNodeIndex(obj.collidable);
+                InternalCollidableWrapper<?> obj = (InternalCollidableWrapper<?>) next;
+                int index = getNodeIndex(obj);
                 if (index == CROSSING_BOUNDARIES)
                     continue;
+                it.remove();
                 nodes[index].insertHere(obj);
             }
         }
     }
 
-    private void insertHere(InternalCollidableWrapper obj) {
+    private void insertHere(InternalCollidableWrapper<?> obj) {
+        obj.node = this;
         objects.add(obj);
         if (nodes[0] == null && objects.size() > capacity && depth < maxDepth) {
             split(objects, false);
@@ -166,13 +202,22 @@ class InternalQuadTreeNode {
         }
     }
 
-    private int detectInCurrentNode(Collidable obj) {
+    private InternalQuadTreeNode getNode(InternalCollidableWrapper<?> obj) {
+        if (hasNodes()) {
+            int index = getNodeIndex(obj);
+            return index != CROSSING_BOUNDARIES ? nodes[index].getNode(obj) : this;
+        } else {
+            return this;
+        }
+    }
+
+    private int detectInCurrentNode(InternalCollidableWrapper<?> obj) {
         int result = NOT_ACTIVATED;
         int size = activationAreas.size();
         for (int i = 0; i < size; ++i) {
             ActivationArea activationArea = activationAreas.get(i);
-            if (isColliding(activationArea, obj)) {
-                ActivationResult activationResult = activationArea.onActivation(obj);
+            if (InternalBoundsUtils.isColliding(activationArea, obj)) {
+                ActivationResult activationResult = activationArea.onActivation(obj.collidable);
                 switch (activationResult) {
                     case ACTIVATED:
                         return ACTIVATED_STOP_SEARCH;
@@ -189,39 +234,59 @@ class InternalQuadTreeNode {
         return result;
     }
 
-    private int insertHelper(InternalCollidableWrapper obj, int detectionResult, boolean nodeFound) {
+    private int insertHelper(InternalCollidableWrapper<?> obj, int detectionResult, boolean nodeFound, boolean insert) {
         detectionResult = detectionResult == ACTIVATED_STOP_SEARCH
                 ? ACTIVATED_STOP_SEARCH
-                : Math.max(detectionResult, detectInCurrentNode(obj.collidable));
+                : Math.max(detectionResult, detectInCurrentNode(obj));
 
         if (hasNodes()) {
-            int nodeIndex = nodeFound ? CROSSING_BOUNDARIES : getNodeIndex(obj.collidable);
+            int nodeIndex = nodeFound ? CROSSING_BOUNDARIES : getNodeIndex(obj);
             if (nodeIndex != CROSSING_BOUNDARIES) {
                 return nodes[nodeIndex].insertHelper(
                         obj,
                         detectionResult,
-                        false);
+                        false,
+                        insert);
             } else {
                 int index = 0;
                 while (detectionResult != ACTIVATED_STOP_SEARCH && index < 4) {
                     detectionResult = nodes[index].insertHelper(
                             obj,
                             detectionResult,
-                            true);
+                            true,
+                            insert);
                     ++index;
                 }
             }
         }
 
-        if (detectionResult != NOT_ACTIVATED && !nodeFound) {
+        if (insert && detectionResult != NOT_ACTIVATED && !nodeFound) {
             insertHere(obj);
         }
 
         return detectionResult;
     }
 
-    InsertionResult insert(InternalCollidableWrapper obj) {
-        int result = insertHelper(obj, NOT_ACTIVATED, false);
+    InsertionResult insert(InternalCollidableWrapper<?> obj) {
+        return getInsertionResult(insertHelper(obj, NOT_ACTIVATED, false, true));
+    }
+
+    /**
+     * Detects if the object is activated and places it in the persistent tree. Objects that are already in the tree
+     * are only moved if they have left their current node. Objects that are not activated are removed from the tree.
+     */
+    InsertionResult place(InternalCollidableWrapper<?> obj) {
+        int result = insertHelper(obj, NOT_ACTIVATED, false, false);
+        if (result == NOT_ACTIVATED) {
+            remove(obj);
+        } else {
+            placeWithoutActivation(obj);
+        }
+
+        return getInsertionResult(result);
+    }
+
+    private static InsertionResult getInsertionResult(int result) {
         if (result == ACTIVATED || result == ACTIVATED_STOP_SEARCH) {
             return InsertionResult.INSERTED_ACTIVE;
         } else if (result == NEAR_EDGE) {
@@ -233,68 +298,117 @@ class InternalQuadTreeNode {
         }
     }
 
-    void insertWithoutActivation(InternalCollidableWrapper obj) {
-        getNode(obj.collidable).insertHere(obj);
+    void insertWithoutActivation(InternalCollidableWrapper<?> obj) {
+        getNode(obj).insertHere(obj);
     }
 
-    void insertActivationArea(ActivationArea obj) {
-        getNode(obj).insertActivationAreaHere(obj);
+    void placeWithoutActivation(InternalCollidableWrapper<?> obj) {
+        if (obj.node == null) {
+            insertWithoutActivation(obj);
+        } else {
+            relocate(obj);
+        }
     }
 
-    private boolean hasMoved(Collidable obj, Rectangle prevBounds, float prevX, float prevY) {
-        return prevX != obj.getPosX()
-                || prevY != obj.getPosY()
-                || !prevBounds.equals(obj.getBounds());
+    static void remove(InternalCollidableWrapper<?> obj) {
+        if (obj.node != null) {
+            obj.node.objects.remove(obj);
+            obj.node = null;
+        }
     }
 
-    private InternalQuadTreeNode updateNode(
-            InternalCollidableWrapper obj,
-            InternalQuadTreeNode prevNode,
-            Rectangle prevBounds,
-            float prevX,
-            float prevY) {
-        if (hasMoved(obj.collidable, prevBounds, prevX, prevY)) {
-            InternalQuadTreeNode newNode = getNode(obj.collidable);
-            if (prevNode != newNode) {
-                prevNode.objects.remove(obj);
-                newNode.insertHere(obj);
+    /**
+     * Prepares a persistent tree for the next update by removing all activation areas and merging child nodes
+     * whose combined content no longer exceeds the node capacity.
+     *
+     * @return The number of objects in this node and its child nodes.
+     */
+    int prune() {
+        activationAreas.clear();
+        int count = objects.size();
+        if (hasNodes()) {
+            boolean mergeable = true;
+            for (int i = 0; i < 4; ++i) {
+                count += nodes[i].prune();
+                mergeable &= !nodes[i].hasNodes();
+            }
+
+            if (mergeable && count <= capacity) {
+                merge();
             }
-            return newNode;
         }
 
-        return prevNode;
+        return count;
     }
 
-    public void update(InternalCollidableWrapper obj, float deltaTime) {
-        InternalQuadTreeNode nodeBeforeUpdate = getNode(obj.collidable);
-
-        obj.update(deltaTime);
+    private void merge() {
+        for (int i = 0; i < 4; ++i) {
+            InternalQuadTreeNode node = nodes[i];
+            for (int j = 0; j < node.objects.size(); ++j) {
+                InternalCollidableWrapper<?> obj = node.objects.get(j);
+                obj.node = this;
+                objects.add(obj);
+            }
 
-        if (obj.collidable.canCollide()) {
-            InternalQuadTreeNode nodeAfterUpdate = updateNode(
-                    obj,
-                    nodeBeforeUpdate,
-                    obj.info.getPrevBounds(),
-                    obj.info.getPrevX(),
-                    obj.info.getPrevY());
+            node.objects.clear();
+            releasedNodes[i] = node;
+            nodes[i] = null;
+        }
+    }
 
-            if (obj.isHandlingCollisions()) {
-                obj.initializeCollisionHandlers();
+    void insertActivationArea(ActivationArea obj) {
+        getNode(obj).insertActivationAreaHere(obj);
+    }
 
-                Rectangle boundsAfterUpdate = obj.collidable.getBounds();
-                float posXAfterUpdate = obj.collidable.getPosX();
-                float posYAfterUpdate = obj.collidable.getPosY();
+    /**
+     * Moves the object to the node matching its current position and bounds. The object keeps its place as long as it
+     * remains inside its current node and doesn't fit into any of the child nodes. Must be invoked on the root node.
+     */
+    void relocate(InternalCollidableWrapper<?> obj) {
+        InternalQuadTreeNode node = obj.node;
+        if (node.contains(obj)) {
+            if (node.hasNodes()) {
+                int index = node.getNodeIndex(obj);
+                if (index != CROSSING_BOUNDARIES) {
+                    node.objects.remove(obj);
+                    node.nodes[index].getNode(obj).insertHere(obj);
+                }
+            }
+        } else {
+            node.objects.remove(obj);
+            getNode(obj).insertHere(obj);
+        }
+    }
 
-                nodeAfterUpdate.handleCollisions(obj);
+    private boolean contains(InternalCollidableWrapper<?> obj) {
+        return obj.minX > regionMinX
+                && obj.minY > regionMinY
+                && obj.maxX < regionMaxX
+                && obj.maxY < regionMaxY;
+    }
 
-                updateNode(
-                        obj,
-                        nodeAfterUpdate,
-                        boundsAfterUpdate,
-                        posXAfterUpdate,
-                        posYAfterUpdate);
+    /**
+     * Adds all objects overlapping the specified object to the candidate list, in the same order as they would be
+     * passed to the collision handlers by {@link #update}. The tree is only read, which makes it safe to collect
+     * candidates for different objects concurrently. Must be invoked on the root node.
+     */
+    void collectCandidates(InternalCollidableWrapper<?> updated, ArrayList<InternalCollidableWrapper<?>> candidates) {
+        int size = objects.size();
+        for (int i = 0; i < size; ++i) {
+            InternalCollidableWrapper<?> other = objects.get(i);
+            if (updated.collidable != other.collidable && updated.isColliding(other)) {
+                candidates.add(other);
+            }
+        }
 
-                obj.finishCollisionHandlers();
+        if (hasNodes()) {
+            int nodeIndex = getNodeIndex(updated);
+            if (nodeIndex == CROSSING_BOUNDARIES) {
+                for (int i = 0; i < 4; ++i) {
+                    nodes[i].collectCandidates(updated, candidates);
+                }
+            } else {
+                nodes[nodeIndex].collectCandidates(updated, candidates);
             }
         }
     }
@@ -303,12 +417,12 @@ class InternalQuadTreeNode {
         return nodes[0] != null;
     }
 
-    private CollisionResult handleCollisions(InternalCollidableWrapper updated) {
+    CollisionResult handleCollisions(InternalCollidableWrapper<?> updated) {
         int size = objects.size();
         for (int i = 0; i < size; ++i) {
-            InternalCollidableWrapper other = objects.get(i);
+            InternalCollidableWrapper<?> other = objects.get(i);
             Collidable collidable = other.collidable;
-            if (updated.collidable != collidable && collidable.canCollide() && isColliding(updated.collidable, collidable)) {
+            if (updated.collidable != collidable && collidable.canCollide() && updated.isColliding(other)) {
                 CollisionResult result = updated.handleCollision(other);
                 if (result != CollisionResult.CONTINUE) {
                     return result;
@@ -317,7 +431,7 @@ class InternalQuadTreeNode {
         }
 
         if (hasNodes()) {
-            int nodeIndex = getNodeIndex(updated.collidable);
+            int nodeIndex = getNodeIndex(updated);
             if (nodeIndex == CROSSING_BOUNDARIES) {
                 for (int i = 0; i < 4; ++i) {
                     CollisionResult result = nodes[i].handleCollisions(updated);
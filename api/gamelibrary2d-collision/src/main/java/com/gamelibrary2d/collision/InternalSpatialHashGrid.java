@@ -0,0 +1,422 @@
+package com.gamelibrary2d.collision;
+
+import com.gamelibrary2d.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Uniform grid where each cell holds a doubly linked list of entries. The lists are stored in primitive arrays rather
+ * than in per-cell collections. An object has one entry for each overlapped cell, and keeps its entries as long as it
+ * overlaps the same cells.
+ */
+class InternalSpatialHashGrid implements InternalBroadPhase {
+
+    private static final int NONE = -1;
+
+    // Activation constants
+    private static final int ACTIVATED_STOP_SEARCH = 3;
+    private static final int ACTIVATED = 2;
+    private static final int NEAR_EDGE = 1;
+    private static final int NOT_ACTIVATED = 0;
+
+    // Range constants
+    private static final int RANGE_STRIDE = 4;
+    private static final int MIN_COLUMN = 0;
+    private static final int MIN_ROW = 1;
+    private static final int MAX_COLUMN = 2;
+    private static final int MAX_ROW = 3;
+
+    private final float xMin, yMin;
+    private final float cellSize;
+    private final int columns, rows;
+    private final int[] cellHeads;
+
+    // Objects are stored in slots, which are reused after removal.
+    private InternalCollidableWrapper<?>[] slotObjects = new InternalCollidableWrapper<?>[64];
+    private int[] slotRanges = new int[64 * RANGE_STRIDE];
+    private int[] slotEntries = new int[64];
+    private int[] freeSlots = new int[64];
+    private int freeSlotCount;
+    private int slotCount;
+
+    // Each entry links an object slot to a cell.
+    private int[] entrySlots = new int[256];
+    private int[] entryPrev = new int[256];
+    private int[] entryNext = new int[256];
+    private int[] entryNextOfSlot = new int[256];
+    private int[] entryCells = new int[256];
+    private int entryCount;
+    private int freeEntry = NONE;
+
+    // Activation areas are indexed once per update, after all areas have been inserted.
+    private final ArrayList<ActivationArea> activationAreas = new ArrayList<>();
+    private final int[] areaCellStarts;
+    private int[] areaRanges = new int[16 * RANGE_STRIDE];
+    private int[] areaEntries = new int[16];
+    private boolean areasIndexed;
+
+    InternalSpatialHashGrid(Rectangle bounds, float cellSize) {
+        this.xMin = bounds.getLowerX();
+        this.yMin = bounds.getLowerY();
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(bounds.getWidth() / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(bounds.getHeight() / cellSize));
+        cellHeads = new int[columns * rows];
+        areaCellStarts = new int[columns * rows + 1];
+        Arrays.fill(cellHeads, NONE);
+    }
+
+    private int getColumn(float x) {
+        int column = (int) Math.floor((x - xMin) / cellSize);
+        return column < 0 ? 0 : Math.min(column, columns - 1);
+    }
+
+    private int getRow(float y) {
+        int row = (int) Math.floor((y - yMin) / cellSize);
+        return row < 0 ? 0 : Math.min(row, rows - 1);
+    }
+
+    private void getRange(InternalArea area, int[] ranges, int index) {
+        float posX = area.getPosX();
+        float posY = area.getPosY();
+        int offset = index * RANGE_STRIDE;
+        ranges[offset + MIN_COLUMN] = getColumn(area.getLowerX() + posX);
+        ranges[offset + MIN_ROW] = getRow(area.getLowerY() + posY);
+        ranges[offset + MAX_COLUMN] = getColumn(area.getUpperX() + posX);
+        ranges[offset + MAX_ROW] = getRow(area.getUpperY() + posY);
+    }
+
+    private void getRange(InternalCollidableWrapper<?> obj, int[] ranges, int index) {
+        int offset = index * RANGE_STRIDE;
+        ranges[offset + MIN_COLUMN] = getColumn(obj.minX);
+        ranges[offset + MIN_ROW] = getRow(obj.minY);
+        ranges[offset + MAX_COLUMN] = getColumn(obj.maxX);
+        ranges[offset + MAX_ROW] = getRow(obj.maxY);
+    }
+
+    @Override
+    public void prepare() {
+        activationAreas.clear();
+        areasIndexed = false;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < slotCount; ++i) {
+            if (slotObjects[i] != null) {
+                slotObjects[i].broadPhaseIndex = NONE;
+                slotObjects[i] = null;
+            }
+        }
+
+        Arrays.fill(cellHeads, NONE);
+        slotCount = 0;
+        freeSlotCount = 0;
+        entryCount = 0;
+        freeEntry = NONE;
+    }
+
+    @Override
+    public void remove(InternalCollidableWrapper<?> obj) {
+        int slot = obj.broadPhaseIndex;
+        if (slot != NONE) {
+            unlink(slot);
+            slotObjects[slot] = null;
+            obj.broadPhaseIndex = NONE;
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        }
+    }
+
+    @Override
+    public void insertActivationArea(ActivationArea area) {
+        activationAreas.add(area);
+        areasIndexed = false;
+    }
+
+    @Override
+    public InsertionResult insert(InternalCollidableWrapper<?> obj) {
+        if (!areasIndexed) {
+            indexActivationAreas();
+        }
+
+        int result = detectActivation(obj);
+        if (result == NOT_ACTIVATED) {
+            remove(obj);
+            return InsertionResult.NOT_INSERTED;
+        }
+
+        insertWithoutActivation(obj);
+
+        return result == NEAR_EDGE
+                ? InsertionResult.INSERTED_NEAR_EDGE
+                : InsertionResult.INSERTED_ACTIVE;
+    }
+
+    @Override
+    public void insertWithoutActivation(InternalCollidableWrapper<?> obj) {
+        if (obj.broadPhaseIndex == NONE) {
+            int slot = allocateSlot();
+            slotObjects[slot] = obj;
+            obj.broadPhaseIndex = slot;
+            getRange(obj, slotRanges, slot);
+            link(slot);
+        } else {
+            relocate(obj);
+        }
+    }
+
+    @Override
+    public void insertionFinished() {
+
+    }
+
+    @Override
+    public void relocate(InternalCollidableWrapper<?> obj) {
+        int slot = obj.broadPhaseIndex;
+        int offset = slot * RANGE_STRIDE;
+        int minColumn = slotRanges[offset + MIN_COLUMN];
+        int minRow = slotRanges[offset + MIN_ROW];
+        int maxColumn = slotRanges[offset + MAX_COLUMN];
+        int maxRow = slotRanges[offset + MAX_ROW];
+
+        getRange(obj, slotRanges, slot);
+
+        if (minColumn != slotRanges[offset + MIN_COLUMN]
+                || minRow != slotRanges[offset + MIN_ROW]
+                || maxColumn != slotRanges[offset + MAX_COLUMN]
+                || maxRow != slotRanges[offset + MAX_ROW]) {
+            unlink(slot);
+            link(slot);
+        }
+    }
+
+    @Override
+    public CollisionResult handleCollisions(InternalCollidableWrapper<?> updated) {
+        return search(updated, null);
+    }
+
+    @Override
+    public void collectCandidates(InternalCollidableWrapper<?> updated, ArrayList<InternalCollidableWrapper<?>> candidates) {
+        search(updated, candidates);
+    }
+
+    /**
+     * Searches the cells overlapped by the updated object. An object overlapping several of the same cells is only
+     * considered in the first of the shared cells, i.e. the cell with the lowest column and row in both ranges.
+     * If a candidate list is specified, overlapping objects are added to it. Otherwise, collisions are handled.
+     */
+    private CollisionResult search(InternalCollidableWrapper<?> updated, ArrayList<InternalCollidableWrapper<?>> candidates) {
+        int minColumn = getColumn(updated.minX);
+        int minRow = getRow(updated.minY);
+        int maxColumn = getColumn(updated.maxX);
+        int maxRow = getRow(updated.maxY);
+
+        for (int row = minRow; row <= maxRow; ++row) {
+            for (int column = minColumn; column <= maxColumn; ++column) {
+                int entry = cellHeads[row * columns + column];
+                while (entry != NONE) {
+                    int slot = entrySlots[entry];
+                    entry = entryNext[entry];
+
+                    InternalCollidableWrapper<?> other = slotObjects[slot];
+                    if (other.collidable == updated.collidable) {
+                        continue;
+                    }
+
+                    int offset = slot * RANGE_STRIDE;
+                    if (column != Math.max(minColumn, slotRanges[offset + MIN_COLUMN])
+                            || row != Math.max(minRow, slotRanges[offset + MIN_ROW])) {
+                        continue;
+                    }
+
+                    if (candidates != null) {
+                        if (updated.isColliding(other)) {
+                            candidates.add(other);
+                        }
+                    } else if (other.collidable.canCollide() && updated.isColliding(other)) {
+                        CollisionResult result = updated.handleCollision(other);
+                        if (result != CollisionResult.CONTINUE) {
+                            return result;
+                        }
+                    }
+                }
+            }
+        }
+
+        return CollisionResult.CONTINUE;
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+
+        if (slotCount == slotObjects.length) {
+            int capacity = slotCount * 2;
+            slotObjects = Arrays.copyOf(slotObjects, capacity);
+            slotRanges = Arrays.copyOf(slotRanges, capacity * RANGE_STRIDE);
+            slotEntries = Arrays.copyOf(slotEntries, capacity);
+        }
+
+        return slotCount++;
+    }
+
+    private int allocateEntry() {
+        if (freeEntry != NONE) {
+            int entry = freeEntry;
+            freeEntry = entryNext[entry];
+            return entry;
+        }
+
+        if (entryCount == entrySlots.length) {
+            int capacity = entryCount * 2;
+            entrySlots = Arrays.copyOf(entrySlots, capacity);
+            entryPrev = Arrays.copyOf(entryPrev, capacity);
+            entryNext = Arrays.copyOf(entryNext, capacity);
+            entryNextOfSlot = Arrays.copyOf(entryNextOfSlot, capacity);
+            entryCells = Arrays.copyOf(entryCells, capacity);
+        }
+
+        return entryCount++;
+    }
+
+    private void link(int slot) {
+        int offset = slot * RANGE_STRIDE;
+        int minColumn = slotRanges[offset + MIN_COLUMN];
+        int maxColumn = slotRanges[offset + MAX_COLUMN];
+        int maxRow = slotRanges[offset + MAX_ROW];
+
+        int slotEntry = NONE;
+        for (int row = slotRanges[offset + MIN_ROW]; row <= maxRow; ++row) {
+            for (int column = minColumn; column <= maxColumn; ++column) {
+                int cell = row * columns + column;
+                int entry = allocateEntry();
+                int head = cellHeads[cell];
+                entrySlots[entry] = slot;
+                entryCells[entry] = cell;
+                entryPrev[entry] = NONE;
+                entryNext[entry] = head;
+                if (head != NONE) {
+                    entryPrev[head] = entry;
+                }
+                cellHeads[cell] = entry;
+                entryNextOfSlot[entry] = slotEntry;
+                slotEntry = entry;
+            }
+        }
+
+        slotEntries[slot] = slotEntry;
+    }
+
+    private void unlink(int slot) {
+        int entry = slotEntries[slot];
+        while (entry != NONE) {
+            int prev = entryPrev[entry];
+            int next = entryNext[entry];
+            if (prev == NONE) {
+                cellHeads[entryCells[entry]] = next;
+            } else {
+                entryNext[prev] = next;
+            }
+
+            if (next != NONE) {
+                entryPrev[next] = prev;
+            }
+
+            int nextOfSlot = entryNextOfSlot[entry];
+            entryNext[entry] = freeEntry;
+            freeEntry = entry;
+            entry = nextOfSlot;
+        }
+
+        slotEntries[slot] = NONE;
+    }
+
+    private void indexActivationAreas() {
+        int areaCount = activationAreas.size();
+        if (areaRanges.length < areaCount * RANGE_STRIDE) {
+            areaRanges = new int[areaCount * RANGE_STRIDE * 2];
+        }
+
+        int cellCount = cellHeads.length;
+        Arrays.fill(areaCellStarts, 0);
+
+        // Count the areas of each cell
+        for (int i = 0; i < areaCount; ++i) {
+            getRange(activationAreas.get(i), areaRanges, i);
+            int offset = i * RANGE_STRIDE;
+            for (int row = areaRanges[offset + MIN_ROW]; row <= areaRanges[offset + MAX_ROW]; ++row) {
+                for (int column = areaRanges[offset + MIN_COLUMN]; column <= areaRanges[offset + MAX_COLUMN]; ++column) {
+                    ++areaCellStarts[row * columns + column];
+                }
+            }
+        }
+
+        // Accumulate counts to get the end of each cell
+        int total = 0;
+        for (int i = 0; i < cellCount; ++i) {
+            total += areaCellStarts[i];
+            areaCellStarts[i] = total;
+        }
+        areaCellStarts[cellCount] = total;
+
+        if (areaEntries.length < total) {
+            areaEntries = new int[total * 2];
+        }
+
+        // Fill cells backwards, leaving each cell start at its first entry
+        for (int i = areaCount - 1; i >= 0; --i) {
+            int offset = i * RANGE_STRIDE;
+            for (int row = areaRanges[offset + MAX_ROW]; row >= areaRanges[offset + MIN_ROW]; --row) {
+                for (int column = areaRanges[offset + MAX_COLUMN]; column >= areaRanges[offset + MIN_COLUMN]; --column) {
+                    areaEntries[--areaCellStarts[row * columns + column]] = i;
+                }
+            }
+        }
+
+        areasIndexed = true;
+    }
+
+    private int detectActivation(InternalCollidableWrapper<?> obj) {
+        int minColumn = getColumn(obj.minX);
+        int minRow = getRow(obj.minY);
+        int maxColumn = getColumn(obj.maxX);
+        int maxRow = getRow(obj.maxY);
+
+        int result = NOT_ACTIVATED;
+        for (int row = minRow; row <= maxRow; ++row) {
+            for (int column = minColumn; column <= maxColumn; ++column) {
+                int cell = row * columns + column;
+                int end = areaCellStarts[cell + 1];
+                for (int i = areaCellStarts[cell]; i < end; ++i) {
+                    int area = areaEntries[i];
+                    int offset = area * RANGE_STRIDE;
+                    if (column != Math.max(minColumn, areaRanges[offset + MIN_COLUMN])
+                            || row != Math.max(minRow, areaRanges[offset + MIN_ROW])) {
+                        continue;
+                    }
+
+                    ActivationArea activationArea = activationAreas.get(area);
+                    if (InternalBoundsUtils.isColliding(activationArea, obj)) {
+                        switch (activationArea.onActivation(obj.collidable)) {
+                            case ACTIVATED:
+                                return ACTIVATED_STOP_SEARCH;
+                            case ACTIVATED_CONTINUE_SEARCH:
+                                result = ACTIVATED;
+                                break;
+                            default:
+                                result = Math.max(result, NEAR_EDGE);
+                                break;
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,573 @@
+package com.gamelibrary2d.collision;
+
+import com.gamelibrary2d.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Keeps the lower and upper ends of the intervals of all objects sorted along both axes, together with the pairs of
+ * objects whose intervals overlap along both axes. The sorted ends are kept between updates and each relocated object
+ * is moved into place with insertion sort. Every time a lower end passes an upper end, an overlap along that axis
+ * starts or ends, and the pair is added or removed if the objects overlap along the other axis as well. The
+ * overlapping objects are thereby known without searching, and the cost of relocating an object depends on how far
+ * it moves rather than on the size of the other objects. Many new objects, such as when the broad-phase is first
+ * filled, are sorted at once instead of one by one.
+ */
+class InternalSweepAndPrune implements InternalBroadPhase {
+
+    private static final int NONE = -1;
+
+    // Activation constants
+    private static final int ACTIVATED_STOP_SEARCH = 3;
+    private static final int ACTIVATED = 2;
+    private static final int NEAR_EDGE = 1;
+    private static final int NOT_ACTIVATED = 0;
+
+    private final boolean horizontal;
+    private final Axis xAxis = new Axis();
+    private final Axis yAxis = new Axis();
+
+    // Objects are stored in slots. The slots of removed objects are reused after the sorted ends have been compacted.
+    private InternalCollidableWrapper<?>[] objects = new InternalCollidableWrapper<?>[64];
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private int[] removedSlots = new int[16];
+    private int removedCount;
+
+    // New objects are added to the sorted ends when insertion has finished.
+    private int[] pendingSlots = new int[16];
+    private int pendingCount;
+
+    // The slots of the overlapping objects of each slot.
+    private int[][] pairs = new int[64][];
+    private int[] pairCounts = new int[64];
+
+    // Used when all objects are sorted at once.
+    private int[] active = new int[64];
+    private int[] activeIndices = new int[64];
+
+    // Activation areas are sorted once per update, after all areas have been inserted.
+    private final ArrayList<ActivationArea> activationAreas = new ArrayList<>();
+    private int[] sortedAreas = new int[16];
+    private float[] areaLower = new float[16];
+    private float[] areaUpper = new float[16];
+    private boolean areasSorted;
+
+    InternalSweepAndPrune(Rectangle bounds) {
+        this.horizontal = bounds.getWidth() >= bounds.getHeight();
+        xAxis.other = yAxis;
+        yAxis.other = xAxis;
+    }
+
+    private float getLower(InternalCollidableWrapper<?> obj) {
+        return horizontal ? obj.minX : obj.minY;
+    }
+
+    private float getUpper(InternalCollidableWrapper<?> obj) {
+        return horizontal ? obj.maxX : obj.maxY;
+    }
+
+    @Override
+    public void prepare() {
+        activationAreas.clear();
+        areasSorted = false;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < slotCount; ++i) {
+            if (objects[i] != null) {
+                objects[i].broadPhaseIndex = NONE;
+                objects[i] = null;
+            }
+
+            pairCounts[i] = 0;
+        }
+
+        slotCount = 0;
+        freeSlotCount = 0;
+        removedCount = 0;
+        pendingCount = 0;
+        xAxis.size = 0;
+        yAxis.size = 0;
+    }
+
+    @Override
+    public void remove(InternalCollidableWrapper<?> obj) {
+        int slot = obj.broadPhaseIndex;
+        if (slot != NONE) {
+            int[] slotPairs = pairs[slot];
+            for (int i = 0; i < pairCounts[slot]; ++i) {
+                removePairEntry(slotPairs[i], slot);
+            }
+
+            pairCounts[slot] = 0;
+            objects[slot] = null;
+            obj.broadPhaseIndex = NONE;
+
+            // The ends of removed objects are compacted when insertion has finished
+            if (removedCount == removedSlots.length) {
+                removedSlots = Arrays.copyOf(removedSlots, removedCount * 2);
+            }
+
+            removedSlots[removedCount++] = slot;
+        }
+    }
+
+    @Override
+    public void insertActivationArea(ActivationArea area) {
+        activationAreas.add(area);
+        areasSorted = false;
+    }
+
+    @Override
+    public InsertionResult insert(InternalCollidableWrapper<?> obj) {
+        if (!areasSorted) {
+            sortActivationAreas();
+        }
+
+        int result = detectActivation(obj);
+        if (result == NOT_ACTIVATED) {
+            remove(obj);
+            return InsertionResult.NOT_INSERTED;
+        }
+
+        insertWithoutActivation(obj);
+
+        return result == NEAR_EDGE
+                ? InsertionResult.INSERTED_NEAR_EDGE
+                : InsertionResult.INSERTED_ACTIVE;
+    }
+
+    @Override
+    public void insertWithoutActivation(InternalCollidableWrapper<?> obj) {
+        if (obj.broadPhaseIndex == NONE) {
+            int slot = allocateSlot();
+            objects[slot] = obj;
+            obj.broadPhaseIndex = slot;
+
+            if (pendingCount == pendingSlots.length) {
+                pendingSlots = Arrays.copyOf(pendingSlots, pendingCount * 2);
+            }
+
+            pendingSlots[pendingCount++] = slot;
+        } else {
+            relocate(obj);
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+
+        if (slotCount == objects.length) {
+            int capacity = slotCount * 2;
+            objects = Arrays.copyOf(objects, capacity);
+            pairs = Arrays.copyOf(pairs, capacity);
+            pairCounts = Arrays.copyOf(pairCounts, capacity);
+            activeIndices = Arrays.copyOf(activeIndices, capacity);
+            xAxis.ensureCapacity(capacity);
+            yAxis.ensureCapacity(capacity);
+        }
+
+        return slotCount++;
+    }
+
+    @Override
+    public void insertionFinished() {
+        if (removedCount > 0) {
+            compact();
+        }
+
+        if (pendingCount > 0) {
+            // Each new object inserted on its own is moved past the ends of all objects above it.
+            // Beyond a few objects, it is cheaper to sort all objects at once.
+            if (pendingCount > 32 - Integer.numberOfLeadingZeros(xAxis.size)) {
+                sortAll();
+            } else {
+                for (int i = 0; i < pendingCount; ++i) {
+                    int slot = pendingSlots[i];
+                    if (objects[slot] != null) {
+                        xAxis.append(slot);
+                        yAxis.append(slot);
+                        relocate(objects[slot]);
+                    }
+                }
+            }
+
+            pendingCount = 0;
+        }
+    }
+
+    private void compact() {
+        xAxis.compact();
+        yAxis.compact();
+
+        if (freeSlotCount + removedCount > freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, (freeSlotCount + removedCount) * 2);
+        }
+
+        System.arraycopy(removedSlots, 0, freeSlots, freeSlotCount, removedCount);
+        freeSlotCount += removedCount;
+        removedCount = 0;
+    }
+
+    /**
+     * Sorts the ends of all objects and finds the overlapping pairs by sweeping the sorted ends along the x-axis.
+     */
+    private void sortAll() {
+        int count = 0;
+        int[] slots = active;
+        for (int slot = 0; slot < slotCount; ++slot) {
+            InternalCollidableWrapper<?> obj = objects[slot];
+            if (obj != null) {
+                xAxis.lower[slot] = obj.minX;
+                xAxis.upper[slot] = obj.maxX;
+                yAxis.lower[slot] = obj.minY;
+                yAxis.upper[slot] = obj.maxY;
+                pairCounts[slot] = 0;
+                if (count == slots.length) {
+                    slots = Arrays.copyOf(slots, count * 2);
+                }
+
+                slots[count++] = slot;
+            }
+        }
+
+        active = slots;
+        xAxis.sort(slots, count);
+        yAxis.sort(slots, count);
+
+        int activeCount = 0;
+        for (int i = 0; i < xAxis.size; ++i) {
+            int end = xAxis.ends[i];
+            int slot = end >> 1;
+            if ((end & 1) == 0) {
+                for (int j = 0; j < activeCount; ++j) {
+                    int other = active[j];
+                    if (yAxis.overlaps(slot, other)) {
+                        addPair(slot, other);
+                    }
+                }
+
+                activeIndices[slot] = activeCount;
+                active[activeCount++] = slot;
+            } else {
+                int last = active[--activeCount];
+                int index = activeIndices[slot];
+                active[index] = last;
+                activeIndices[last] = index;
+            }
+        }
+    }
+
+    private void addPair(int slot, int other) {
+        addPairEntry(slot, other);
+        addPairEntry(other, slot);
+    }
+
+    private void addPairEntry(int slot, int other) {
+        int[] slotPairs = pairs[slot];
+        int count = pairCounts[slot];
+        if (slotPairs == null) {
+            slotPairs = new int[4];
+            pairs[slot] = slotPairs;
+        } else if (count == slotPairs.length) {
+            slotPairs = Arrays.copyOf(slotPairs, count * 2);
+            pairs[slot] = slotPairs;
+        }
+
+        slotPairs[count] = other;
+        pairCounts[slot] = count + 1;
+    }
+
+    private void removePair(int slot, int other) {
+        removePairEntry(slot, other);
+        removePairEntry(other, slot);
+    }
+
+    private void removePairEntry(int slot, int other) {
+        int[] slotPairs = pairs[slot];
+        int last = pairCounts[slot] - 1;
+        for (int i = 0; i <= last; ++i) {
+            if (slotPairs[i] == other) {
+                slotPairs[i] = slotPairs[last];
+                pairCounts[slot] = last;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void relocate(InternalCollidableWrapper<?> obj) {
+        int slot = obj.broadPhaseIndex;
+        xAxis.move(slot, obj.minX, obj.maxX);
+        yAxis.move(slot, obj.minY, obj.maxY);
+    }
+
+    @Override
+    public CollisionResult handleCollisions(InternalCollidableWrapper<?> updated) {
+        return search(updated, null);
+    }
+
+    @Override
+    public void collectCandidates(InternalCollidableWrapper<?> updated, ArrayList<InternalCollidableWrapper<?>> candidates) {
+        search(updated, candidates);
+    }
+
+    /**
+     * Visits the objects that overlap the updated object along both axes. If a candidate list is specified,
+     * overlapping objects are added to it. Otherwise, collisions are handled.
+     */
+    private CollisionResult search(InternalCollidableWrapper<?> updated, ArrayList<InternalCollidableWrapper<?>> candidates) {
+        int slot = updated.broadPhaseIndex;
+        int[] slotPairs = pairs[slot];
+        int count = pairCounts[slot];
+        for (int i = 0; i < count; ++i) {
+            InternalCollidableWrapper<?> other = objects[slotPairs[i]];
+            if (other.collidable == updated.collidable) {
+                continue;
+            }
+
+            if (candidates != null) {
+                if (updated.isColliding(other)) {
+                    candidates.add(other);
+                }
+            } else if (other.collidable.canCollide() && updated.isColliding(other)) {
+                CollisionResult result = updated.handleCollision(other);
+                if (result != CollisionResult.CONTINUE) {
+                    return result;
+                }
+            }
+        }
+
+        return CollisionResult.CONTINUE;
+    }
+
+    private void sortActivationAreas() {
+        int areaCount = activationAreas.size();
+        if (sortedAreas.length < areaCount) {
+            sortedAreas = new int[areaCount * 2];
+            areaLower = new float[areaCount * 2];
+            areaUpper = new float[areaCount * 2];
+        }
+
+        for (int i = 0; i < areaCount; ++i) {
+            ActivationArea area = activationAreas.get(i);
+            float position = horizontal ? area.getPosX() : area.getPosY();
+            float areaLowerValue;
+            float areaUpperValue;
+            if (InternalBoundsUtils.overridesCoordinates(area.getClass())) {
+                areaLowerValue = horizontal ? area.getLowerX() : area.getLowerY();
+                areaUpperValue = horizontal ? area.getUpperX() : area.getUpperY();
+            } else {
+                Rectangle bounds = area.getBounds();
+                areaLowerValue = horizontal ? bounds.getLowerX() : bounds.getLowerY();
+                areaUpperValue = horizontal ? bounds.getUpperX() : bounds.getUpperY();
+            }
+
+            areaLowerValue += position;
+            int index = i;
+            while (index > 0 && areaLower[index - 1] > areaLowerValue) {
+                sortedAreas[index] = sortedAreas[index - 1];
+                areaLower[index] = areaLower[index - 1];
+                areaUpper[index] = areaUpper[index - 1];
+                --index;
+            }
+            sortedAreas[index] = i;
+            areaLower[index] = areaLowerValue;
+            areaUpper[index] = areaUpperValue + position;
+        }
+
+        areasSorted = true;
+    }
+
+    private int detectActivation(InternalCollidableWrapper<?> obj) {
+        float objLower = getLower(obj);
+        float objUpper = getUpper(obj);
+
+        int result = NOT_ACTIVATED;
+        int areaCount = activationAreas.size();
+        for (int i = 0; i < areaCount && areaLower[i] <= objUpper; ++i) {
+            if (areaUpper[i] < objLower) {
+                continue;
+            }
+
+            ActivationArea activationArea = activationAreas.get(sortedAreas[i]);
+            if (InternalBoundsUtils.isColliding(activationArea, obj)) {
+                switch (activationArea.onActivation(obj.collidable)) {
+                    case ACTIVATED:
+                        return ACTIVATED_STOP_SEARCH;
+                    case ACTIVATED_CONTINUE_SEARCH:
+                        result = ACTIVATED;
+                        break;
+                    default:
+                        result = Math.max(result, NEAR_EDGE);
+                        break;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The sorted ends of the intervals along one axis. An end is identified by the slot of its object times two, plus
+     * one for the upper end. Ends of the same value are sorted with lower ends first, so that touching intervals
+     * overlap, as in {@link InternalBoundsUtils#isColliding}.
+     */
+    private final class Axis {
+        private float[] values = new float[128];
+        private int[] ends = new int[128];
+        private int size;
+
+        // The position of each end in the sorted ends.
+        private int[] positions = new int[128];
+
+        // The interval of each slot, as of the last time it was moved.
+        private float[] lower = new float[64];
+        private float[] upper = new float[64];
+
+        private Axis other;
+
+        private void ensureCapacity(int slotCapacity) {
+            values = Arrays.copyOf(values, slotCapacity * 2);
+            ends = Arrays.copyOf(ends, slotCapacity * 2);
+            positions = Arrays.copyOf(positions, slotCapacity * 2);
+            lower = Arrays.copyOf(lower, slotCapacity);
+            upper = Arrays.copyOf(upper, slotCapacity);
+        }
+
+        private boolean overlaps(int slot, int otherSlot) {
+            return lower[slot] <= upper[otherSlot] && lower[otherSlot] <= upper[slot];
+        }
+
+        private void setEnd(int position, int end, float value) {
+            values[position] = value;
+            ends[position] = end;
+            positions[end] = position;
+        }
+
+        /**
+         * Adds the ends of a new object above all other ends. The object does not overlap any other object until
+         * it is {@link #move moved} to its interval.
+         */
+        private void append(int slot) {
+            lower[slot] = Float.POSITIVE_INFINITY;
+            upper[slot] = Float.POSITIVE_INFINITY;
+            setEnd(size++, slot << 1, Float.POSITIVE_INFINITY);
+            setEnd(size++, (slot << 1) | 1, Float.POSITIVE_INFINITY);
+        }
+
+        /**
+         * Moves the interval of the object. The end in the direction of the movement is moved first, so that the
+         * lower end is never sorted above the upper end.
+         */
+        private void move(int slot, float lowerValue, float upperValue) {
+            if (lowerValue < lower[slot]) {
+                lower[slot] = lowerValue;
+                moveEnd(slot << 1, lowerValue);
+                upper[slot] = upperValue;
+                moveEnd((slot << 1) | 1, upperValue);
+            } else {
+                upper[slot] = upperValue;
+                moveEnd((slot << 1) | 1, upperValue);
+                lower[slot] = lowerValue;
+                moveEnd(slot << 1, lowerValue);
+            }
+        }
+
+        private void moveEnd(int end, float value) {
+            int position = positions[end];
+            float previous = values[position];
+            if (value < previous) {
+                while (position > 0 && isAbove(values[position - 1], ends[position - 1], value, end)) {
+                    int passed = ends[position - 1];
+                    if ((passed & 1) != (end & 1)) {
+                        // A lower end passing below an upper end starts an overlap, and an upper end passing
+                        // below a lower end ends it.
+                        overlapChanged(end >> 1, passed >> 1, (end & 1) == 0);
+                    }
+
+                    setEnd(position, passed, values[position - 1]);
+                    --position;
+                }
+            } else if (value > previous) {
+                int last = size - 1;
+                while (position < last && isAbove(value, end, values[position + 1], ends[position + 1])) {
+                    int passed = ends[position + 1];
+                    if ((passed & 1) != (end & 1)) {
+                        // An upper end passing above a lower end starts an overlap, and a lower end passing
+                        // above an upper end ends it.
+                        overlapChanged(end >> 1, passed >> 1, (end & 1) != 0);
+                    }
+
+                    setEnd(position, passed, values[position + 1]);
+                    ++position;
+                }
+            }
+
+            setEnd(position, end, value);
+        }
+
+        private void overlapChanged(int slot, int otherSlot, boolean started) {
+            if (slot != otherSlot && objects[otherSlot] != null && other.overlaps(slot, otherSlot)) {
+                if (started) {
+                    addPair(slot, otherSlot);
+                } else {
+                    removePair(slot, otherSlot);
+                }
+            }
+        }
+
+        private void compact() {
+            int count = 0;
+            for (int i = 0; i < size; ++i) {
+                int end = ends[i];
+                if (objects[end >> 1] != null) {
+                    setEnd(count++, end, values[i]);
+                }
+            }
+
+            size = count;
+        }
+
+        private void sort(int[] slots, int count) {
+            long[] keys = new long[count * 2];
+            for (int i = 0; i < count; ++i) {
+                int slot = slots[i];
+                keys[i * 2] = getSortKey(lower[slot], slot << 1);
+                keys[i * 2 + 1] = getSortKey(upper[slot], (slot << 1) | 1);
+            }
+
+            Arrays.sort(keys);
+
+            size = keys.length;
+            for (int i = 0; i < size; ++i) {
+                int slot = (int) (keys[i] & 0x7fffffffL);
+                int end = (slot << 1) | (int) ((keys[i] >>> 31) & 1L);
+                setEnd(i, end, (end & 1) == 0 ? lower[slot] : upper[slot]);
+            }
+        }
+    }
+
+    /**
+     * @return True if the first end is sorted above the second end.
+     */
+    private static boolean isAbove(float value, int end, float otherValue, int otherEnd) {
+        return value > otherValue || value == otherValue && (end & 1) > (otherEnd & 1);
+    }
+
+    /**
+     * Creates a key that sorts ends in the same order as {@link #isAbove}. The value is stored in the upper half, with
+     * its bits arranged to sort as an integer, followed by the kind of end and the slot.
+     */
+    private static long getSortKey(float value, int end) {
+        int bits = Float.floatToIntBits(value + 0f);
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) bits << 32) | ((long) (end & 1) << 31) | (end >> 1);
+    }
+}
@@ -45,8 +45,8 @@ public class BounceHandler<T1 extends Obstacle, T2 extends Obstacle> implements
         float distY = collided.getY() - updated.getY();
         double dist = Math.sqrt(distX * distX + distY * distY);
 
-        float diameter = updated.getCollidable().getBounds().getWidth();
-        float otherDiameter = collided.getCollidable().getBounds().getWidth();
+        float diameter = updated.getUpperX() - updated.getLowerX();
+        float otherDiameter = collided.getUpperX() - collided.getLowerX();
         boolean isCollision = dist * 2 <= diameter + otherDiameter;
         if (isCollision) {
             double u1 = getSpeedTowardsCollision(updated, collided);
@@ -17,15 +17,13 @@ public class RestrictedAreaHandler<T extends Collidable> implements UpdatedHandl
     public void updated(CollidableInfo<T> info) {
         T obj = info.getCollidable();
 
-        Rectangle bounds = obj.getBounds();
-
         boolean horizontalBounce =
-                obj.getPosX() + bounds.getUpperX() > area.getUpperX()
-                        || obj.getPosX() + bounds.getLowerX() < area.getLowerX();
+                obj.getPosX() + info.getUpperX() > area.getUpperX()
+                        || obj.getPosX() + info.getLowerX() < area.getLowerX();
 
         boolean verticalBounce =
-                obj.getPosY() + bounds.getUpperY() > area.getUpperY()
-                        || obj.getPosY() + bounds.getLowerY() < area.getLowerY();
+                obj.getPosY() + info.getUpperY() > area.getUpperY()
+                        || obj.getPosY() + info.getLowerY() < area.getLowerY();
 
         if (horizontalBounce || verticalBounce) {
             collisionListener.onCollision(
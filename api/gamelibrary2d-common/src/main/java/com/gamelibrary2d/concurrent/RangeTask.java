@@ -0,0 +1,50 @@
+package com.gamelibrary2d.concurrent;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Processes an index range in a {@link java.util.concurrent.ForkJoinPool}. The range is split in halves until it is
+ * no larger than the threshold, and each chunk is then processed by the {@link RangeAction}.
+ */
+public class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final RangeAction action;
+    private final int from;
+    private final int to;
+    private final int threshold;
+
+    /**
+     * @param action    The action invoked for each chunk of the range.
+     * @param from      The first index of the range (inclusive).
+     * @param to        The last index of the range (exclusive).
+     * @param threshold The maximum size of a chunk.
+     */
+    public RangeTask(RangeAction action, int from, int to, int threshold) {
+        this.action = action;
+        this.from = from;
+        this.to = to;
+        this.threshold = Math.max(1, threshold);
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= threshold) {
+            action.run(from, to);
+        } else {
+            int mid = (from + to) >>> 1;
+            invokeAll(
+                    new RangeTask(action, from, mid, threshold),
+                    new RangeTask(action, mid, to, threshold));
+        }
+    }
+
+    public interface RangeAction {
+
+        /**
+         * Processes the indices from (inclusive) and to (exclusive). Chunks may be processed concurrently, and the
+         * action must only write to state belonging to its own chunk.
+         */
+        void run(int from, int to);
+    }
+}
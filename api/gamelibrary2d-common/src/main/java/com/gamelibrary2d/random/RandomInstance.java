@@ -57,7 +57,14 @@ public class RandomInstance {
      * Creates a random float in the interval [-1, 1]
      */
     public static float random11() {
-        return 2 * get().nextFloat() - 1;
+        return random11(get());
+    }
+
+    /**
+     * Creates a random float in the interval [-1, 1], using the specified random generator.
+     */
+    public static float random11(RandomGenerator random) {
+        return 2 * random.nextFloat() - 1;
     }
 
     public static <E> List<E> pickNRandomElements(List<E> list, int n) {
@@ -0,0 +1,177 @@
+package com.gamelibrary2d.random;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link RandomGenerator} which generates the same values as the {@link java.util.SplittableRandom} class. Unlike
+ * {@link JavaRandomGenerator}, the seed is not updated atomically, which makes this generator faster but not
+ * threadsafe. It is intended to be used as a seedable stream by a single owner, such as a particle system.
+ * Independent streams for other owners can be created with {@link #split}.
+ * <p>
+ * The state of the generator can be copied with {@link #copy} and {@link #setState}, in order to repeat a sequence
+ * of values.
+ * </p>
+ */
+public class SplittableRandomGenerator implements RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final AtomicLong defaultSeeds = new AtomicLong(
+            mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+    private long seed;
+    private long gamma;
+    private double nextGaussian;
+    private boolean hasNextGaussian;
+
+    public SplittableRandomGenerator() {
+        long s = defaultSeeds.getAndAdd(2 * GOLDEN_GAMMA);
+        seed = mix64(s);
+        gamma = mixGamma(s + GOLDEN_GAMMA);
+    }
+
+    public SplittableRandomGenerator(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private SplittableRandomGenerator(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return n < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+
+    private long nextSeed() {
+        return seed += gamma;
+    }
+
+    /**
+     * Creates a new generator with a stream that is independent of the stream of this generator.
+     * The new stream is determined by the current state of this generator.
+     */
+    public SplittableRandomGenerator split() {
+        return new SplittableRandomGenerator(nextLong(), mixGamma(nextSeed()));
+    }
+
+    /**
+     * Creates a new generator with the same state as this generator. Both generators produce the same values.
+     */
+    public SplittableRandomGenerator copy() {
+        SplittableRandomGenerator copy = new SplittableRandomGenerator(seed, gamma);
+        copy.nextGaussian = nextGaussian;
+        copy.hasNextGaussian = hasNextGaussian;
+        return copy;
+    }
+
+    /**
+     * Sets the state of this generator to the state of the specified generator. Both generators then produce the
+     * same values.
+     */
+    public void setState(SplittableRandomGenerator other) {
+        seed = other.seed;
+        gamma = other.gamma;
+        nextGaussian = other.nextGaussian;
+        hasNextGaussian = other.hasNextGaussian;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return mix32(nextSeed()) < 0;
+    }
+
+    @Override
+    public void nextBytes(byte[] bytes) {
+        int i = 0;
+        while (i < bytes.length) {
+            long value = nextLong();
+            for (int n = Math.min(bytes.length - i, Long.BYTES); n > 0; --n, value >>>= Byte.SIZE) {
+                bytes[i++] = (byte) value;
+            }
+        }
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextInt() >>> 8) * 0x1.0p-24f;
+    }
+
+    /**
+     * Generates normally distributed values using the polar method, in the same way as {@link java.util.Random}.
+     */
+    @Override
+    public double nextGaussian() {
+        if (hasNextGaussian) {
+            hasNextGaussian = false;
+            return nextGaussian;
+        }
+
+        double v1, v2, s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+        nextGaussian = v2 * multiplier;
+        hasNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    @Override
+    public int nextInt() {
+        return mix32(nextSeed());
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        int r = mix32(nextSeed());
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return r & m;
+        }
+
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextSeed()) >>> 1) {
+
+        }
+
+        return r;
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.gamma = GOLDEN_GAMMA;
+        hasNextGaussian = false;
+    }
+}
@@ -166,6 +166,15 @@ public abstract class AbstractGame extends AbstractDisposer implements Game {
         pointParticleShaderProgram.initializeMvp(window.getWidth(), window.getHeight());
         OpenGLState.setPointParticleShaderProgram(pointParticleShaderProgram);
 
+        DefaultShaderProgram instancedParticleShaderProgram = DefaultShaderProgram.create(this);
+        instancedParticleShaderProgram
+                .attachShader(loadShader("shaders/InstancedParticle.vertex", ShaderType.VERTEX));
+        instancedParticleShaderProgram
+                .attachShader(loadShader("shaders/Default.fragment", ShaderType.FRAGMENT));
+        instancedParticleShaderProgram.initialize();
+        instancedParticleShaderProgram.initializeMvp(window.getWidth(), window.getHeight());
+        OpenGLState.setInstancedParticleShaderProgram(instancedParticleShaderProgram);
+
         DefaultShaderProgram pointShaderProgram = DefaultShaderProgram.create(this);
         pointShaderProgram
                 .attachShader(loadShader("shaders/Point.vertex", ShaderType.VERTEX));
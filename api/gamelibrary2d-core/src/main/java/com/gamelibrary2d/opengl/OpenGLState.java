@@ -15,6 +15,7 @@ public class OpenGLState {
     private static ShaderProgram primaryParticleUpdaterProgram;
     private static ShaderProgram pointParticleShaderProgram;
     private static ShaderProgram quadParticleShaderProgram;
+    private static ShaderProgram instancedParticleShaderProgram;
     private static ShaderProgram pointShaderProgram;
     private static ShaderProgram quadShaderProgram;
 
@@ -65,6 +66,14 @@ public class OpenGLState {
         quadParticleShaderProgram = shaderProgram;
     }
 
+    public static ShaderProgram getInstancedParticleShaderProgram() {
+        return instancedParticleShaderProgram;
+    }
+
+    public static void setInstancedParticleShaderProgram(ShaderProgram shaderProgram) {
+        instancedParticleShaderProgram = shaderProgram;
+    }
+
     public static ShaderProgram getPointShaderProgram() {
         return pointShaderProgram;
     }
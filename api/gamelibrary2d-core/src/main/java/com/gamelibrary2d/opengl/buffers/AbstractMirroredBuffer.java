@@ -8,6 +8,10 @@ public abstract class AbstractMirroredBuffer extends AbstractOpenGLBuffer implem
         this.target = target;
     }
 
+    protected int getTarget() {
+        return target;
+    }
+
     public void updateCPU(int offset, int len) {
         boolean isBound = isBound();
 
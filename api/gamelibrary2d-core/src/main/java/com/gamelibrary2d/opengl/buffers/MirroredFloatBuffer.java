@@ -65,6 +65,34 @@ public class MirroredFloatBuffer extends AbstractMirroredBuffer {
         }
     }
 
+    /**
+     * Uploads the first elements to the GPU, after replacing the storage of the GPU buffer. The previous storage is
+     * orphaned rather than overwritten, which lets the driver allocate new storage instead of waiting for pending
+     * draw calls that still use it. The GPU content after the uploaded elements is undefined.
+     *
+     * @param len The number of elements to upload.
+     */
+    public void streamGPU(int len) {
+        boolean isBound = isBound();
+
+        if (!isBound) {
+            bind();
+        }
+
+        OpenGL openGL = OpenGL.instance();
+        openGL.glBufferData(getTarget(), (long) data.length * Float.BYTES, usage);
+        if (len > 0) {
+            ioBuffer.clear();
+            ioBuffer.put(data, 0, len);
+            ioBuffer.flip();
+            openGL.glBufferSubData(getTarget(), 0, ioBuffer);
+        }
+
+        if (!isBound) {
+            unbind();
+        }
+    }
+
     @Override
     protected void onUpdateGPU(int target, int offset, int len) {
         if (len > 0) {
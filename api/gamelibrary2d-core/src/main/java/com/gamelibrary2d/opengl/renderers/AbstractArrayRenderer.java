@@ -50,24 +50,57 @@ public abstract class AbstractArrayRenderer<T extends OpenGLBuffer> extends Abst
 
     @Override
     public void render(float alpha, OpenGLBuffer array, int offset, int len) {
+        render(alpha, array, null, offset, len);
+    }
+
+    /**
+     * Renders the vertices specified by a draw command stored in a buffer, see {@link OpenGL#glDrawArraysIndirect}.
+     * This allows the number of vertices to be decided on the GPU, without reading it back to the CPU.
+     *
+     * @param alpha         The alpha.
+     * @param array         The vertex array.
+     * @param commandBuffer The buffer containing the draw command, at offset 0.
+     */
+    public void renderIndirect(float alpha, OpenGLBuffer array, OpenGLBuffer commandBuffer) {
+        render(alpha, array, commandBuffer, 0, 0);
+    }
+
+    private void render(float alpha, OpenGLBuffer array, OpenGLBuffer commandBuffer, int offset, int len) {
         ShaderProgram shaderProgram = prepareShaderProgram(alpha);
 
         array.bind();
         renderPrepare(shaderProgram);
 
+        OpenGL openGL = OpenGL.instance();
+        if (commandBuffer != null) {
+            openGL.glBindBuffer(OpenGL.GL_DRAW_INDIRECT_BUFFER, commandBuffer.getBufferId());
+        }
+
         BlendMode blendMode = getBlendMode();
         int drawMode = getOpenGlDrawMode();
         if (blendMode != BlendMode.NONE && isMaskingOutBackground()) {
             OpenGLState.setBlendMode(BlendMode.MASKED);
-            OpenGL.instance().glDrawArrays(drawMode, offset, len);
+            draw(drawMode, commandBuffer, offset, len);
         }
 
         OpenGLState.setBlendMode(blendMode);
-        OpenGL.instance().glDrawArrays(drawMode, offset, len);
+        draw(drawMode, commandBuffer, offset, len);
+
+        if (commandBuffer != null) {
+            openGL.glBindBuffer(OpenGL.GL_DRAW_INDIRECT_BUFFER, 0);
+        }
 
         array.unbind();
     }
 
+    private static void draw(int drawMode, OpenGLBuffer commandBuffer, int offset, int len) {
+        if (commandBuffer != null) {
+            OpenGL.instance().glDrawArraysIndirect(drawMode, 0L);
+        } else {
+            OpenGL.instance().glDrawArrays(drawMode, offset, len);
+        }
+    }
+
     protected abstract int getOpenGlDrawMode();
 
     protected abstract void renderPrepare(ShaderProgram shaderProgram);
@@ -110,16 +110,24 @@ public class MutableQuad extends InternalAbstractQuad implements Surface {
 
     @Override
     public void render(ShaderProgram shaderProgram) {
-        OpenGL openGL = OpenGL.instance();
+        prepareRender(shaderProgram);
+        OpenGL.instance().glDrawElements(OpenGL.GL_TRIANGLES, 6, OpenGL.GL_UNSIGNED_BYTE, 0);
+    }
+
+    @Override
+    public void renderInstanced(ShaderProgram shaderProgram, int instanceCount) {
+        prepareRender(shaderProgram);
+        OpenGL.instance().glDrawElementsInstanced(OpenGL.GL_TRIANGLES, 6, OpenGL.GL_UNSIGNED_BYTE, 0, instanceCount);
+    }
+
+    private void prepareRender(ShaderProgram shaderProgram) {
         bind();
         setShapeBeforeRender(shape, shaderProgram);
         setAttributePointersBeforeRender(shaderProgram);
 
         if (verticesChanged) {
-            openGL.glBufferData(OpenGL.GL_ARRAY_BUFFER, verticeBuffer, OpenGL.GL_DYNAMIC_DRAW);
+            OpenGL.instance().glBufferData(OpenGL.GL_ARRAY_BUFFER, verticeBuffer, OpenGL.GL_DYNAMIC_DRAW);
             verticesChanged = false;
         }
-
-        openGL.glDrawElements(OpenGL.GL_TRIANGLES, 6, OpenGL.GL_UNSIGNED_BYTE, 0);
     }
 }
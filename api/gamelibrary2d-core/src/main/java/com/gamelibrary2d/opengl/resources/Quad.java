@@ -89,10 +89,19 @@ public class Quad extends InternalAbstractQuad implements Surface {
 
     @Override
     public void render(ShaderProgram shaderProgram) {
-        OpenGL openGL = OpenGL.instance();
+        prepareRender(shaderProgram);
+        OpenGL.instance().glDrawElements(OpenGL.GL_TRIANGLES, 6, OpenGL.GL_UNSIGNED_BYTE, 0);
+    }
+
+    @Override
+    public void renderInstanced(ShaderProgram shaderProgram, int instanceCount) {
+        prepareRender(shaderProgram);
+        OpenGL.instance().glDrawElementsInstanced(OpenGL.GL_TRIANGLES, 6, OpenGL.GL_UNSIGNED_BYTE, 0, instanceCount);
+    }
+
+    private void prepareRender(ShaderProgram shaderProgram) {
         bind();
         setShapeBeforeRender(shape, shaderProgram);
         setAttributePointersBeforeRender(shaderProgram);
-        openGL.glDrawElements(OpenGL.GL_TRIANGLES, 6, OpenGL.GL_UNSIGNED_BYTE, 0);
     }
 }
\ No newline at end of file
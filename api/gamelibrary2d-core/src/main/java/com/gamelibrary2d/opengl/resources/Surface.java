@@ -9,4 +9,17 @@ public interface Surface extends Disposable {
     Rectangle getBounds();
 
     void render(ShaderProgram shaderProgram);
+
+    /**
+     * Renders the surface once for each instance, with a single draw call. Per-instance attributes must be set up
+     * before invoking this method. The default implementation {@link #render renders} the surface once per instance.
+     *
+     * @param shaderProgram The shader program.
+     * @param instanceCount The number of instances.
+     */
+    default void renderInstanced(ShaderProgram shaderProgram, int instanceCount) {
+        for (int i = 0; i < instanceCount; ++i) {
+            render(shaderProgram);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.gamelibrary2d.particles;
+
+import com.gamelibrary2d.Point;
+import com.gamelibrary2d.random.RandomInstance;
+
+/**
+ * An emitter of an {@link AcceleratedParticleWorld}. Emitted particles are spawned and updated on the GPU, together
+ * with the particles of all other emitters in the world.
+ */
+public class AcceleratedParticleEmitter {
+    private final AcceleratedParticleWorld world;
+
+    private ParticleSystemParameters parameters;
+    private float posX, posY;
+    private float externalAccelerationX, externalAccelerationY;
+
+    /**
+     * The index of the emitter in the buffers of the world, or -1 if it has been removed.
+     */
+    int slot;
+    int pendingEmissions;
+    ParticleSystemParameters packedParameters;
+    int packedSpawnCounter;
+    int packedUpdateCounter;
+
+    AcceleratedParticleEmitter(AcceleratedParticleWorld world, ParticleSystemParameters parameters, int slot) {
+        this.world = world;
+        this.parameters = parameters;
+        this.slot = slot;
+    }
+
+    public AcceleratedParticleWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * @return True until the emitter is {@link AcceleratedParticleWorld#remove removed} from the world.
+     */
+    public boolean isActive() {
+        return slot >= 0;
+    }
+
+    public ParticleSystemParameters getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(ParticleSystemParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    public float getPosX() {
+        return posX;
+    }
+
+    public float getPosY() {
+        return posY;
+    }
+
+    public void setPosition(Point position) {
+        setPosition(position.getX(), position.getY());
+    }
+
+    public void setPosition(float x, float y) {
+        posX = x;
+        posY = y;
+    }
+
+    public float getExternalAccelerationX() {
+        return externalAccelerationX;
+    }
+
+    public float getExternalAccelerationY() {
+        return externalAccelerationY;
+    }
+
+    public void setExternalAcceleration(float x, float y) {
+        externalAccelerationX = x;
+        externalAccelerationY = y;
+    }
+
+    /**
+     * Emits all particles.
+     * The number of particles is decided by the count-parameters of the emitter's {@link ParticleEmissionParameters}.
+     */
+    public void emit() {
+        ParticleEmissionParameters emissionParameters = parameters.getEmissionParameters();
+        emit(Math.round(emissionParameters.getParticleCount() + emissionParameters.getParticleCountVar() * RandomInstance.random11(world.getRandom())));
+    }
+
+    /**
+     * Emits particles. The particles are spawned in the next update of the world.
+     *
+     * @param count The number of particles to emit. Limited by the remaining capacity of the world.
+     */
+    public void emit(int count) {
+        if (isActive()) {
+            world.emit(this, count);
+        }
+    }
+
+    /**
+     * Emits particles.
+     * The number of particles is decided by the deltaTime parameter
+     * in conjunction with the emission rate of the emitter's {@link ParticleEmissionParameters}.
+     *
+     * @param deltaTime The time, in seconds, since the last particle was emitted.
+     * @return The time, in seconds, since the last particle was emitted.
+     * If no particles were emitted, this will be the same as the deltaTime parameter.
+     * This value should be added to the update cycle's deltaTime the next time this method is invoked.
+     */
+    public float emit(float deltaTime) {
+        float rate = parameters.getEmissionParameters().getEmissionRate();
+        if (rate > 0) {
+            int numberOfEmissions = (int) (deltaTime * rate);
+            for (int i = 0; i < numberOfEmissions; ++i) {
+                emit();
+            }
+
+            return deltaTime - numberOfEmissions / rate;
+        } else {
+            return 0f; // No particles will ever be emitted
+        }
+    }
+}
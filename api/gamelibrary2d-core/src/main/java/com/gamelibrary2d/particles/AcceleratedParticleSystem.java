@@ -14,20 +14,30 @@ import com.gamelibrary2d.opengl.buffers.DefaultVertexArrayBuffer;
 import com.gamelibrary2d.opengl.buffers.MirroredFloatBuffer;
 import com.gamelibrary2d.opengl.buffers.MirroredIntBuffer;
 import com.gamelibrary2d.opengl.shaders.ShaderProgram;
+import com.gamelibrary2d.random.RandomGenerator;
 import com.gamelibrary2d.random.RandomInstance;
 
 import java.nio.FloatBuffer;
 
 public class AcceleratedParticleSystem implements Updatable, Renderable, Clearable {
     private final static int WORK_GROUP_SIZE = 512;
+    private final static int DEFAULT_READBACK_INTERVAL = 10;
     private final int glUniformDeltaTime;
     private final int glUniformParticleCount;
+    private final int glUniformEmittedCount;
+    private final int glUniformCountFromBuffer;
+    private final int glUniformEmitterCount;
     private final ShaderProgram updateProgram;
 
     private final float[] position = new float[2];
     private final FloatBuffer externalAcceleration = BufferUtils.createFloatBuffer(2);
 
-    private final MirroredIntBuffer atomicBuffer;
+    /**
+     * Draw commands for the render buffers. The vertex count of each command is used as atomic counter when
+     * particles are written to the corresponding render buffer.
+     */
+    private final MirroredIntBuffer[] commandBuffer;
+    private final MirroredIntBuffer readbackBuffer;
     private final MirroredFloatBuffer parametersBuffer;
     private final MirroredFloatBuffer positionBuffer;
 
@@ -49,8 +59,16 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
 
     private EfficientParticleRenderer renderer;
     private ParticleSystemParameters parameters;
+    private RandomGenerator randomGenerator;
 
     private int particlesInGpuBuffer;
+    private int emittedCount;
+
+    private boolean indirectDrawing;
+    private int readbackInterval = DEFAULT_READBACK_INTERVAL;
+    private int updatesSinceReadback;
+    private int emittedSinceReadback;
+    private long readbackFence;
 
     private AcceleratedParticleSystem(ShaderProgram updateProgram,
                                       MirroredFloatBuffer positionBuffer,
@@ -68,13 +86,24 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
         // Cache uniforms
         glUniformDeltaTime = updateProgram.getUniformLocation("deltaTime");
         glUniformParticleCount = updateProgram.getUniformLocation("particleCount");
+        glUniformEmittedCount = updateProgram.getUniformLocation("emittedCount");
+        glUniformCountFromBuffer = updateProgram.getUniformLocation("countFromBuffer");
+        glUniformEmitterCount = updateProgram.getUniformLocation("emitterCount");
 
         this.updateBuffer = updateBuffer;
         this.renderBuffer = renderBuffer;
         this.parameters = parameters;
         this.renderer = renderer;
         this.capacity = capacity;
-        atomicBuffer = MirroredIntBuffer.create(new int[1], OpenGL.GL_ATOMIC_COUNTER_BUFFER, OpenGL.GL_DYNAMIC_DRAW, disposer);
+
+        commandBuffer = new MirroredIntBuffer[2];
+        for (int i = 0; i < 2; ++i) {
+            // Vertex count, instance count, first vertex and a reserved value
+            int[] command = new int[]{0, 1, 0, 0};
+            commandBuffer[i] = MirroredIntBuffer.create(command, OpenGL.GL_ATOMIC_COUNTER_BUFFER, OpenGL.GL_DYNAMIC_DRAW, disposer);
+        }
+
+        readbackBuffer = MirroredIntBuffer.create(new int[1], OpenGL.GL_COPY_WRITE_BUFFER, OpenGL.GL_DYNAMIC_READ, disposer);
 
         this.positionBuffer = positionBuffer;
         positionUpdateCounter = parameters.getSpawnParameters().getUpdateCounter();
@@ -153,6 +182,52 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
         externalAcceleration.flip();
     }
 
+    /**
+     * @return True if the particle count is kept on the GPU, see {@link #setIndirectDrawing}.
+     */
+    public boolean isIndirectDrawing() {
+        return indirectDrawing;
+    }
+
+    /**
+     * By default, the number of surviving particles is read back to the CPU after each update, which waits for
+     * the update to finish on the GPU. When indirect drawing is enabled, the count is kept on the GPU and used
+     * directly by the update and draw commands. It is then read back without waiting, at most once per
+     * {@link #getReadbackInterval readback interval}, and {@link #getParticleCount} returns an upper bound. Emitted
+     * particles are not limited by the upper bound, but discarded on the GPU if they exceed the capacity.
+     *
+     * @param indirectDrawing True to keep the particle count on the GPU.
+     */
+    public void setIndirectDrawing(boolean indirectDrawing) {
+        if (this.indirectDrawing != indirectDrawing) {
+            this.indirectDrawing = indirectDrawing;
+            if (!indirectDrawing) {
+                cancelReadback();
+                MirroredIntBuffer command = commandBuffer[activeBuffer];
+                command.updateCPU(0, 1);
+                particlesInGpuBuffer = command.getData()[0];
+                emittedCount = Math.min(emittedCount, capacity - particlesInGpuBuffer);
+                particleCount = particlesInGpuBuffer + emittedCount;
+            }
+        }
+    }
+
+    /**
+     * @return The number of updates between each readback of the particle count when
+     * {@link #setIndirectDrawing indirect drawing} is enabled.
+     */
+    public int getReadbackInterval() {
+        return readbackInterval;
+    }
+
+    /**
+     * Sets the number of updates between each readback of the particle count when
+     * {@link #setIndirectDrawing indirect drawing} is enabled. A readback is not requested while another is pending.
+     */
+    public void setReadbackInterval(int readbackInterval) {
+        this.readbackInterval = Math.max(1, readbackInterval);
+    }
+
     public Point getPositionTransformation() {
         return positionTransformation;
     }
@@ -161,27 +236,54 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
         this.positionTransformation = positionTransformation;
     }
 
+    /**
+     * @return The random generator used when emitting particles, or null if {@link RandomInstance#get} is used.
+     */
+    public RandomGenerator getRandomGenerator() {
+        return randomGenerator;
+    }
+
+    /**
+     * Sets the random generator used when emitting particles, and for the random seed of the particle update shader.
+     *
+     * @param randomGenerator The random generator, or null to use {@link RandomInstance#get}.
+     */
+    public void setRandomGenerator(RandomGenerator randomGenerator) {
+        this.randomGenerator = randomGenerator;
+    }
+
     /**
      * Emits all particles.
      * The number of particles is decided by the count-parameters of the particle system's {@link ParticleEmissionParameters}.
      */
     public void emit() {
         ParticleEmissionParameters emissionParameters = parameters.getEmissionParameters();
-        emit(Math.round(emissionParameters.getParticleCount() + emissionParameters.getParticleCountVar() * RandomInstance.random11()));
+        emit(Math.round(emissionParameters.getParticleCount() + emissionParameters.getParticleCountVar() * RandomInstance.random11(getRandom())));
     }
 
     /**
-     * Emits particles.
+     * Emits particles. Particles exceeding the capacity are discarded. When {@link #setIndirectDrawing indirect
+     * drawing} is enabled, this is done by the next update on the GPU, where the particle count is known.
      *
      * @param count The number of particles to emit.
      */
     public void emit(int count) {
-        int remaining = capacity - particleCount;
-        if (remaining < count) {
-            count = remaining;
+        if (indirectDrawing) {
+            // The particle count is an upper bound. The update clamps the emitted particles to the capacity,
+            // using the particle count in the atomic counter.
+            count = Math.min(count, capacity - emittedCount);
+            particleCount = Math.min(capacity, particleCount + count);
+        } else {
+            int remaining = capacity - particleCount;
+            if (remaining < count) {
+                count = remaining;
+            }
+
+            particleCount += count;
         }
 
-        particleCount += count;
+        emittedCount += count;
+        emittedSinceReadback += count;
     }
 
     /**
@@ -211,9 +313,12 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
     @Override
     public void update(float deltaTime) {
         if (particleCount > 0) {
+            int outputBuffer = activeBuffer == 1 ? 0 : 1;
+
             // Reset atomic counter
-            atomicBuffer.getData()[0] = 0;
-            atomicBuffer.updateGPU(0, 1);
+            MirroredIntBuffer outputCommand = commandBuffer[outputBuffer];
+            outputCommand.getData()[0] = 0;
+            outputCommand.updateGPU(0, 1);
 
             OpenGL openGL = OpenGL.instance();
 
@@ -221,6 +326,11 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
 
             openGL.glUniform1f(glUniformDeltaTime, deltaTime);
             openGL.glUniform1i(glUniformParticleCount, particleCount);
+            openGL.glUniform1i(glUniformEmittedCount, emittedCount);
+            openGL.glUniform1i(glUniformCountFromBuffer, indirectDrawing ? 1 : 0);
+
+            // The update program is shared with AcceleratedParticleWorld, which uses an emitter buffer
+            openGL.glUniform1i(glUniformEmitterCount, 0);
 
             bindUpdateBuffers();
 
@@ -230,19 +340,67 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
 
             updateProgram.unbind();
 
+            emittedCount = 0;
+            activeBuffer = outputBuffer;
+
             // Update particle count
-            atomicBuffer.updateCPU(0, 1);
-            particlesInGpuBuffer = atomicBuffer.getData()[0];
-            particleCount = particlesInGpuBuffer;
+            if (indirectDrawing) {
+                updateReadback();
+            } else {
+                outputCommand.updateCPU(0, 1);
+                particlesInGpuBuffer = outputCommand.getData()[0];
+                particleCount = particlesInGpuBuffer;
+            }
+        }
+    }
 
-            activeBuffer = activeBuffer == 1 ? 0 : 1;
+    /**
+     * Refines the particle count when a pending readback has completed, or requests a new readback.
+     */
+    private void updateReadback() {
+        if (readbackFence != 0L) {
+            OpenGL openGL = OpenGL.instance();
+            if (openGL.glClientWaitSync(readbackFence, 0, 0L) != OpenGL.GL_TIMEOUT_EXPIRED) {
+                openGL.glDeleteSync(readbackFence);
+                readbackFence = 0L;
+                readbackBuffer.updateCPU(0, 1);
+                particlesInGpuBuffer = readbackBuffer.getData()[0];
+                particleCount = Math.min(capacity, particlesInGpuBuffer + emittedSinceReadback);
+            }
+        } else if (++updatesSinceReadback >= readbackInterval) {
+            updatesSinceReadback = 0;
+            requestReadback();
         }
     }
 
+    /**
+     * Copies the current particle count to the readback buffer, and creates a fence that is signaled when the copy
+     * has completed. Particles emitted after this point are added to the count once it has been read back.
+     */
+    private void requestReadback() {
+        OpenGL openGL = OpenGL.instance();
+        openGL.glBindBuffer(OpenGL.GL_COPY_READ_BUFFER, commandBuffer[activeBuffer].getBufferId());
+        openGL.glBindBuffer(OpenGL.GL_COPY_WRITE_BUFFER, readbackBuffer.getBufferId());
+        openGL.glCopyBufferSubData(OpenGL.GL_COPY_READ_BUFFER, OpenGL.GL_COPY_WRITE_BUFFER, 0, 0, Integer.BYTES);
+        openGL.glBindBuffer(OpenGL.GL_COPY_READ_BUFFER, 0);
+        openGL.glBindBuffer(OpenGL.GL_COPY_WRITE_BUFFER, 0);
+        readbackFence = openGL.glFenceSync(OpenGL.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        emittedSinceReadback = 0;
+    }
+
+    private void cancelReadback() {
+        if (readbackFence != 0L) {
+            OpenGL.instance().glDeleteSync(readbackFence);
+            readbackFence = 0L;
+        }
+
+        updatesSinceReadback = 0;
+    }
+
     private void bindUpdateBuffers() {
         OpenGL openGL = OpenGL.instance();
 
-        openGL.glUniform1i(glUniformRandomSeed, RandomInstance.get().nextInt());
+        openGL.glUniform1i(glUniformRandomSeed, getRandom().nextInt());
 
         openGL.glUniform1i(glUniformParticlesInGpu, particlesInGpuBuffer);
 
@@ -269,7 +427,8 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
             }
         }
 
-        openGL.glBindBufferBase(OpenGL.GL_ATOMIC_COUNTER_BUFFER, 0, atomicBuffer.getBufferId());
+        openGL.glBindBufferBase(OpenGL.GL_ATOMIC_COUNTER_BUFFER, 0,
+                commandBuffer[activeBuffer == 1 ? 0 : 1].getBufferId());
         openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 1, positionBuffer.getBufferId());
         openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 2, parametersBuffer.getBufferId());
         openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 3, renderBuffer[activeBuffer].getBufferId());
@@ -278,6 +437,7 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
                 renderBuffer[activeBuffer == 1 ? 0 : 1].getBufferId());
         openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 6,
                 updateBuffer[activeBuffer == 1 ? 0 : 1].getBufferId());
+        openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 7, commandBuffer[activeBuffer].getBufferId());
     }
 
     private boolean isTransformingPosition() {
@@ -286,21 +446,36 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
 
     @Override
     public void render(float alpha) {
-        if (particlesInGpuBuffer > 0) {
+        if (indirectDrawing ? particleCount > 0 : particlesInGpuBuffer > 0) {
             if (isTransformingPosition()) {
                 ModelMatrix.instance().pushMatrix();
                 ModelMatrix.instance().translatef(positionTransformation.getX(), positionTransformation.getY(), 0);
-                renderer.render(this, renderBuffer[activeBuffer], false, 0, particlesInGpuBuffer, alpha);
+                onRender(alpha);
                 ModelMatrix.instance().popMatrix();
             } else {
-                renderer.render(this, renderBuffer[activeBuffer], false, 0, particlesInGpuBuffer, alpha);
+                onRender(alpha);
             }
         }
     }
 
+    private void onRender(float alpha) {
+        if (indirectDrawing) {
+            renderer.renderIndirect(alpha, renderBuffer[activeBuffer], commandBuffer[activeBuffer]);
+        } else {
+            renderer.render(this, renderBuffer[activeBuffer], false, 0, particlesInGpuBuffer, alpha);
+        }
+    }
+
     @Override
     public void clear() {
         particleCount = 0;
+        particlesInGpuBuffer = 0;
+        emittedCount = 0;
+        cancelReadback();
+
+        MirroredIntBuffer command = commandBuffer[activeBuffer];
+        command.getData()[0] = 0;
+        command.updateGPU(0, 1);
     }
 
     @Override
@@ -308,6 +483,10 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
         return true;
     }
 
+    /**
+     * @return The number of particles. When {@link #setIndirectDrawing indirect drawing} is enabled, this is an upper
+     * bound, which is refined whenever the particle count has been read back from the GPU.
+     */
     public int getParticleCount() {
         return particleCount;
     }
@@ -329,8 +508,18 @@ public class AcceleratedParticleSystem implements Updatable, Renderable, Clearab
     }
 
     private void applyMemoryBarriers() {
-        OpenGL.instance().glMemoryBarrier(
-                OpenGL.GL_SHADER_STORAGE_BARRIER_BIT |
-                        OpenGL.GL_VERTEX_ATTRIB_ARRAY_BARRIER_BIT);
+        int barriers = OpenGL.GL_SHADER_STORAGE_BARRIER_BIT | OpenGL.GL_VERTEX_ATTRIB_ARRAY_BARRIER_BIT;
+        if (indirectDrawing) {
+            // The atomic counter is used by the next update, the draw command and the readback
+            barriers |= OpenGL.GL_ATOMIC_COUNTER_BARRIER_BIT
+                    | OpenGL.GL_COMMAND_BARRIER_BIT
+                    | OpenGL.GL_BUFFER_UPDATE_BARRIER_BIT;
+        }
+
+        OpenGL.instance().glMemoryBarrier(barriers);
+    }
+
+    private RandomGenerator getRandom() {
+        return randomGenerator != null ? randomGenerator : RandomInstance.get();
     }
 }
\ No newline at end of file
@@ -0,0 +1,426 @@
+package com.gamelibrary2d.particles;
+
+import com.gamelibrary2d.OpenGL;
+import com.gamelibrary2d.denotations.Clearable;
+import com.gamelibrary2d.denotations.Renderable;
+import com.gamelibrary2d.denotations.Updatable;
+import com.gamelibrary2d.disposal.Disposer;
+import com.gamelibrary2d.opengl.OpenGLState;
+import com.gamelibrary2d.opengl.buffers.DefaultOpenGLBuffer;
+import com.gamelibrary2d.opengl.buffers.DefaultVertexArrayBuffer;
+import com.gamelibrary2d.opengl.buffers.MirroredFloatBuffer;
+import com.gamelibrary2d.opengl.buffers.MirroredIntBuffer;
+import com.gamelibrary2d.opengl.shaders.ShaderProgram;
+import com.gamelibrary2d.random.RandomGenerator;
+import com.gamelibrary2d.random.RandomInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Updates the particles of many {@link AcceleratedParticleEmitter emitters} on the GPU, in a single dispatch.
+ * The parameters of all emitters are packed into shared buffers, and each particle stores the index of its emitter.
+ * All particles are rendered in a single draw call by the renderer of the world. Emitters that require a different
+ * renderer, for example with another blend mode or texture, should be added to another world.
+ */
+public class AcceleratedParticleWorld implements Updatable, Renderable, Clearable {
+    private final static int WORK_GROUP_SIZE = 512;
+    private final static int INITIAL_EMITTER_CAPACITY = 16;
+
+    private final static int EMITTER_STRIDE = 8;
+    private final static int EMITTER_POS_X = 0;
+    private final static int EMITTER_POS_Y = 1;
+    private final static int EMITTER_ACCELERATION_X = 2;
+    private final static int EMITTER_ACCELERATION_Y = 3;
+    private final static int EMITTER_REMOVED = 4;
+    private final static int EMITTER_EMISSION_END = 5;
+
+    private final ShaderProgram updateProgram;
+    private final int glUniformDeltaTime;
+    private final int glUniformParticleCount;
+    private final int glUniformParticlesInGpu;
+    private final int glUniformEmittedCount;
+    private final int glUniformCountFromBuffer;
+    private final int glUniformEmitterCount;
+    private final int glUniformRandomSeed;
+
+    private final MirroredIntBuffer atomicBuffer;
+    private final MirroredFloatBuffer emitterBuffer;
+    private final MirroredFloatBuffer spawnParametersBuffer;
+    private final MirroredFloatBuffer updateParametersBuffer;
+
+    private final DefaultOpenGLBuffer[] updateBuffer;
+    private final DefaultVertexArrayBuffer<?>[] renderBuffer;
+
+    private final int capacity;
+
+    /**
+     * The emitter of each slot in the emitter buffers. Null if the slot is free or its emitter has been removed.
+     */
+    private final ArrayList<AcceleratedParticleEmitter> slots = new ArrayList<>();
+    private final ArrayList<Integer> freeSlots = new ArrayList<>();
+
+    /**
+     * Slots of removed emitters whose particles are discarded in the next update, after which the slots are free.
+     */
+    private final ArrayList<Integer> removedSlots = new ArrayList<>();
+
+    private float[] emitterData;
+    private float[] spawnParametersData;
+    private float[] updateParametersData;
+
+    private int particleCount;
+    private int particlesInGpuBuffer;
+    private int emittedCount;
+    private int activeBuffer;
+
+    private EfficientParticleRenderer renderer;
+    private RandomGenerator randomGenerator;
+
+    private AcceleratedParticleWorld(ShaderProgram updateProgram,
+                                     DefaultOpenGLBuffer[] updateBuffer,
+                                     DefaultVertexArrayBuffer<?>[] renderBuffer,
+                                     EfficientParticleRenderer renderer,
+                                     int capacity,
+                                     Disposer disposer) {
+        updateProgram.bind();
+
+        this.updateProgram = updateProgram;
+        this.updateBuffer = updateBuffer;
+        this.renderBuffer = renderBuffer;
+        this.renderer = renderer;
+        this.capacity = capacity;
+
+        glUniformDeltaTime = updateProgram.getUniformLocation("deltaTime");
+        glUniformParticleCount = updateProgram.getUniformLocation("particleCount");
+        glUniformParticlesInGpu = updateProgram.getUniformLocation("particlesInGpu");
+        glUniformEmittedCount = updateProgram.getUniformLocation("emittedCount");
+        glUniformCountFromBuffer = updateProgram.getUniformLocation("countFromBuffer");
+        glUniformEmitterCount = updateProgram.getUniformLocation("emitterCount");
+        glUniformRandomSeed = updateProgram.getUniformLocation("randomSeed");
+
+        emitterData = new float[INITIAL_EMITTER_CAPACITY * EMITTER_STRIDE];
+        spawnParametersData = new float[INITIAL_EMITTER_CAPACITY * ParticleSpawnParameters.STRIDE];
+        updateParametersData = new float[INITIAL_EMITTER_CAPACITY * ParticleUpdateParameters.STRIDE];
+
+        atomicBuffer = MirroredIntBuffer.create(
+                new int[1], OpenGL.GL_ATOMIC_COUNTER_BUFFER, OpenGL.GL_DYNAMIC_DRAW, disposer);
+        emitterBuffer = MirroredFloatBuffer.create(
+                emitterData, OpenGL.GL_SHADER_STORAGE_BUFFER, OpenGL.GL_DYNAMIC_DRAW, disposer);
+        spawnParametersBuffer = MirroredFloatBuffer.create(
+                spawnParametersData, OpenGL.GL_SHADER_STORAGE_BUFFER, OpenGL.GL_DYNAMIC_DRAW, disposer);
+        updateParametersBuffer = MirroredFloatBuffer.create(
+                updateParametersData, OpenGL.GL_SHADER_STORAGE_BUFFER, OpenGL.GL_DYNAMIC_DRAW, disposer);
+    }
+
+    /**
+     * Creates a new particle world.
+     *
+     * @param renderer The renderer of all particles in the world.
+     * @param capacity The maximum number of particles, for all emitters.
+     * @param disposer The disposer of the GPU buffers.
+     */
+    public static AcceleratedParticleWorld create(EfficientParticleRenderer renderer, int capacity, Disposer disposer) {
+        DefaultVertexArrayBuffer<?>[] renderBuffer = new DefaultVertexArrayBuffer<?>[2];
+        for (int i = 0; i < 2; ++i) {
+            DefaultOpenGLBuffer buffer = DefaultOpenGLBuffer.create(
+                    OpenGL.GL_ARRAY_BUFFER,
+                    OpenGL.GL_DYNAMIC_DRAW,
+                    disposer);
+
+            buffer.allocate(capacity * ParticleRenderBuffer.STRIDE);
+
+            renderBuffer[i] = new DefaultVertexArrayBuffer<>(
+                    buffer,
+                    ParticleRenderBuffer.STRIDE,
+                    4);
+        }
+
+        DefaultOpenGLBuffer[] updateBuffer = new DefaultOpenGLBuffer[2];
+        for (int i = 0; i < 2; ++i) {
+            DefaultOpenGLBuffer buffer = DefaultOpenGLBuffer.create(
+                    OpenGL.GL_SHADER_STORAGE_BUFFER,
+                    OpenGL.GL_DYNAMIC_DRAW,
+                    disposer);
+
+            buffer.allocate(capacity * ParticleUpdateBuffer.STRIDE);
+
+            updateBuffer[i] = buffer;
+        }
+
+        return new AcceleratedParticleWorld(OpenGLState.getPrimaryParticleUpdaterProgram(),
+                updateBuffer, renderBuffer, renderer, capacity, disposer);
+    }
+
+    /**
+     * Adds a new emitter to the world.
+     *
+     * @param parameters The parameters of the emitted particles.
+     * @return The emitter.
+     */
+    public AcceleratedParticleEmitter addEmitter(ParticleSystemParameters parameters) {
+        int slot;
+        if (freeSlots.isEmpty()) {
+            slot = slots.size();
+            slots.add(null);
+            ensureEmitterCapacity(slots.size());
+        } else {
+            slot = freeSlots.remove(freeSlots.size() - 1);
+        }
+
+        AcceleratedParticleEmitter emitter = new AcceleratedParticleEmitter(this, parameters, slot);
+        slots.set(slot, emitter);
+        return emitter;
+    }
+
+    /**
+     * Removes the emitter and all of its particles from the world.
+     */
+    public void remove(AcceleratedParticleEmitter emitter) {
+        if (emitter.getWorld() != this || !emitter.isActive()) {
+            return;
+        }
+
+        int slot = emitter.slot;
+        emitter.slot = -1;
+        slots.set(slot, null);
+
+        particleCount -= emitter.pendingEmissions;
+        emittedCount -= emitter.pendingEmissions;
+        emitter.pendingEmissions = 0;
+
+        if (particlesInGpuBuffer > 0) {
+            removedSlots.add(slot);
+        } else {
+            freeSlots.add(slot);
+        }
+    }
+
+    /**
+     * @return The number of active emitters.
+     */
+    public int getEmitterCount() {
+        return slots.size() - freeSlots.size() - removedSlots.size();
+    }
+
+    /**
+     * @return The random generator used when the emitters of the world emit particles, or null if
+     * {@link RandomInstance#get} is used.
+     */
+    public RandomGenerator getRandomGenerator() {
+        return randomGenerator;
+    }
+
+    /**
+     * Sets the random generator used when the emitters of the world emit particles, and for the random seed of the
+     * particle update shader.
+     *
+     * @param randomGenerator The random generator, or null to use {@link RandomInstance#get}.
+     */
+    public void setRandomGenerator(RandomGenerator randomGenerator) {
+        this.randomGenerator = randomGenerator;
+    }
+
+    RandomGenerator getRandom() {
+        return randomGenerator != null ? randomGenerator : RandomInstance.get();
+    }
+
+    void emit(AcceleratedParticleEmitter emitter, int count) {
+        int remaining = capacity - particleCount;
+        if (remaining < count) {
+            count = remaining;
+        }
+
+        emitter.pendingEmissions += count;
+        emittedCount += count;
+        particleCount += count;
+    }
+
+    private void ensureEmitterCapacity(int emitterCapacity) {
+        int currentCapacity = emitterData.length / EMITTER_STRIDE;
+        if (currentCapacity < emitterCapacity) {
+            int newCapacity = Math.max(currentCapacity * 2, emitterCapacity);
+            emitterData = Arrays.copyOf(emitterData, newCapacity * EMITTER_STRIDE);
+            spawnParametersData = Arrays.copyOf(
+                    spawnParametersData, newCapacity * ParticleSpawnParameters.STRIDE);
+            updateParametersData = Arrays.copyOf(
+                    updateParametersData, newCapacity * ParticleUpdateParameters.STRIDE);
+            emitterBuffer.allocate(emitterData);
+            spawnParametersBuffer.allocate(spawnParametersData);
+            updateParametersBuffer.allocate(updateParametersData);
+        }
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        if (particleCount > 0) {
+            // Reset atomic counter
+            atomicBuffer.getData()[0] = 0;
+            atomicBuffer.updateGPU(0, 1);
+
+            packEmitters();
+
+            OpenGL openGL = OpenGL.instance();
+
+            updateProgram.bind();
+
+            openGL.glUniform1f(glUniformDeltaTime, deltaTime);
+            openGL.glUniform1i(glUniformParticleCount, particleCount);
+            openGL.glUniform1i(glUniformParticlesInGpu, particlesInGpuBuffer);
+            openGL.glUniform1i(glUniformEmittedCount, emittedCount);
+            openGL.glUniform1i(glUniformCountFromBuffer, 0);
+            openGL.glUniform1i(glUniformEmitterCount, slots.size());
+            openGL.glUniform1i(glUniformRandomSeed, getRandom().nextInt());
+
+            bindUpdateBuffers();
+
+            openGL.glDispatchCompute((int) Math.ceil((double) particleCount / WORK_GROUP_SIZE), 1, 1);
+
+            openGL.glMemoryBarrier(
+                    OpenGL.GL_SHADER_STORAGE_BARRIER_BIT |
+                            OpenGL.GL_VERTEX_ATTRIB_ARRAY_BARRIER_BIT);
+
+            updateProgram.unbind();
+
+            // Update particle count
+            atomicBuffer.updateCPU(0, 1);
+            particlesInGpuBuffer = atomicBuffer.getData()[0];
+            particleCount = particlesInGpuBuffer;
+            emittedCount = 0;
+
+            activeBuffer = activeBuffer == 1 ? 0 : 1;
+
+            // The particles of removed emitters were discarded by the update
+            freeSlots.addAll(removedSlots);
+            removedSlots.clear();
+        }
+    }
+
+    /**
+     * Writes the position, acceleration and emissions of all emitters to the emitter buffer. The parameters of each
+     * emitter are only written when they have changed. The emission end of each emitter is the number of particles
+     * emitted by it and all emitters in lower slots, which the shader uses to find the emitter of new particles.
+     */
+    private void packEmitters() {
+        int slotCount = slots.size();
+        int changedStart = slotCount;
+        int changedEnd = 0;
+        int emissionEnd = 0;
+        for (int i = 0; i < slotCount; ++i) {
+            int offset = i * EMITTER_STRIDE;
+            AcceleratedParticleEmitter emitter = slots.get(i);
+            if (emitter == null) {
+                emitterData[offset + EMITTER_REMOVED] = 1f;
+                emitterData[offset + EMITTER_EMISSION_END] = emissionEnd;
+                continue;
+            }
+
+            ParticleSystemParameters parameters = emitter.getParameters();
+            ParticleSpawnParameters spawnParameters = parameters.getSpawnParameters();
+            ParticleUpdateParameters updateParameters = parameters.getUpdateParameters();
+            if (emitter.packedParameters != parameters
+                    || emitter.packedSpawnCounter != spawnParameters.getUpdateCounter()
+                    || emitter.packedUpdateCounter != updateParameters.getUpdateCounter()) {
+                emitter.packedParameters = parameters;
+                emitter.packedSpawnCounter = spawnParameters.getUpdateCounter();
+                emitter.packedUpdateCounter = updateParameters.getUpdateCounter();
+                System.arraycopy(
+                        spawnParameters.getInternalStateArray(), 0,
+                        spawnParametersData, i * ParticleSpawnParameters.STRIDE,
+                        ParticleSpawnParameters.STRIDE);
+                System.arraycopy(
+                        updateParameters.getInternalStateArray(), 0,
+                        updateParametersData, i * ParticleUpdateParameters.STRIDE,
+                        ParticleUpdateParameters.STRIDE);
+                changedStart = Math.min(changedStart, i);
+                changedEnd = i + 1;
+            }
+
+            emissionEnd += emitter.pendingEmissions;
+            emitter.pendingEmissions = 0;
+
+            emitterData[offset + EMITTER_POS_X] = emitter.getPosX() + spawnParameters.getOffsetX();
+            emitterData[offset + EMITTER_POS_Y] = emitter.getPosY() + spawnParameters.getOffsetY();
+            emitterData[offset + EMITTER_ACCELERATION_X] = emitter.getExternalAccelerationX();
+            emitterData[offset + EMITTER_ACCELERATION_Y] = emitter.getExternalAccelerationY();
+            emitterData[offset + EMITTER_REMOVED] = 0f;
+            emitterData[offset + EMITTER_EMISSION_END] = emissionEnd;
+        }
+
+        if (changedStart < changedEnd) {
+            int changedCount = changedEnd - changedStart;
+            spawnParametersBuffer.updateGPU(
+                    changedStart * ParticleSpawnParameters.STRIDE,
+                    changedCount * ParticleSpawnParameters.STRIDE);
+            updateParametersBuffer.updateGPU(
+                    changedStart * ParticleUpdateParameters.STRIDE,
+                    changedCount * ParticleUpdateParameters.STRIDE);
+        }
+
+        emitterBuffer.updateGPU(0, slotCount * EMITTER_STRIDE);
+    }
+
+    private void bindUpdateBuffers() {
+        OpenGL openGL = OpenGL.instance();
+        openGL.glBindBufferBase(OpenGL.GL_ATOMIC_COUNTER_BUFFER, 0, atomicBuffer.getBufferId());
+        openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 1, spawnParametersBuffer.getBufferId());
+        openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 2, updateParametersBuffer.getBufferId());
+        openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 3, renderBuffer[activeBuffer].getBufferId());
+        openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 4, updateBuffer[activeBuffer].getBufferId());
+        openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 5,
+                renderBuffer[activeBuffer == 1 ? 0 : 1].getBufferId());
+        openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 6,
+                updateBuffer[activeBuffer == 1 ? 0 : 1].getBufferId());
+        openGL.glBindBufferBase(OpenGL.GL_SHADER_STORAGE_BUFFER, 8, emitterBuffer.getBufferId());
+    }
+
+    @Override
+    public void render(float alpha) {
+        if (particlesInGpuBuffer > 0) {
+            renderer.render(this, renderBuffer[activeBuffer], false, 0, particlesInGpuBuffer, alpha);
+        }
+    }
+
+    /**
+     * Removes all particles. The emitters remain in the world.
+     */
+    @Override
+    public void clear() {
+        particleCount = 0;
+        particlesInGpuBuffer = 0;
+        emittedCount = 0;
+        for (int i = 0; i < slots.size(); ++i) {
+            AcceleratedParticleEmitter emitter = slots.get(i);
+            if (emitter != null) {
+                emitter.pendingEmissions = 0;
+            }
+        }
+
+        freeSlots.addAll(removedSlots);
+        removedSlots.clear();
+    }
+
+    @Override
+    public boolean isAutoClearing() {
+        return true;
+    }
+
+    /**
+     * @return The number of particles, for all emitters.
+     */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public EfficientParticleRenderer getRenderer() {
+        return renderer;
+    }
+
+    public void setRenderer(EfficientParticleRenderer renderer) {
+        this.renderer = renderer;
+    }
+}
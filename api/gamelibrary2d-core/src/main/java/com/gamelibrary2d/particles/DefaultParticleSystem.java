@@ -1,38 +1,55 @@
 package com.gamelibrary2d.particles;
 
 import com.gamelibrary2d.Point;
+import com.gamelibrary2d.concurrent.RangeTask;
 import com.gamelibrary2d.denotations.Renderable;
 import com.gamelibrary2d.denotations.Clearable;
 import com.gamelibrary2d.denotations.Updatable;
 import com.gamelibrary2d.disposal.Disposer;
 import com.gamelibrary2d.opengl.ModelMatrix;
+import com.gamelibrary2d.random.RandomGenerator;
 import com.gamelibrary2d.random.RandomInstance;
+import com.gamelibrary2d.random.SplittableRandomGenerator;
+
+import java.util.concurrent.ForkJoinPool;
 
 public class DefaultParticleSystem implements Updatable, Renderable, Clearable {
+    private static final int MIN_PARALLEL_CHUNK_SIZE = 1024;
+
     private final float[] externalSpeed = new float[2];
     private final float[] externalAcceleration = new float[2];
     private final ParticleRenderBuffer renderBuffer;
     private final ParticleUpdateBuffer updateBuffer;
+    private final InternalParticleArrays arrays;
     private final Particle particle;
 
     private int particleCount;
-    private boolean gpuOutdated = true;
+    private int dirtyStart;
+    private int dirtyEnd;
+    private long uploadedBytes;
     private ParticleSystemParameters parameters;
     private ParticleRenderer renderer;
     private Point positionTransformation;
     private ParticleUpdateListener updateListener;
+    private ForkJoinPool forkJoinPool;
+    private RandomGenerator randomGenerator;
+    private boolean trigonometryLookup;
 
     private DefaultParticleSystem(
             ParticleSystemParameters parameters,
             ParticleRenderer renderer,
             ParticleRenderBuffer renderBuffer,
-            ParticleUpdateBuffer updateBuffer) {
+            ParticleUpdateBuffer updateBuffer,
+            InternalParticleArrays arrays) {
 
         this.parameters = parameters;
         this.renderer = renderer;
         this.renderBuffer = renderBuffer;
         this.updateBuffer = updateBuffer;
-        this.particle = new Particle(renderBuffer, updateBuffer, 0);
+        this.arrays = arrays;
+        this.particle = arrays != null
+                ? new InternalArraysParticle(arrays, 0)
+                : new Particle(renderBuffer, updateBuffer, 0);
     }
 
     public static DefaultParticleSystem create(ParticleSystemParameters parameters, Disposer disposer) {
@@ -58,16 +75,53 @@ public class DefaultParticleSystem implements Updatable, Renderable, Clearable {
             ParticleRenderer renderer,
             int initialCapacity,
             Disposer disposer) {
+        return create(parameters, renderer, initialCapacity, ParticleLayout.INTERLEAVED, disposer);
+    }
+
+    /**
+     * Creates a new particle system.
+     *
+     * @param parameters      The particle system parameters.
+     * @param renderer        The particle renderer.
+     * @param initialCapacity The initial particle capacity. The capacity grows when exceeded.
+     * @param layout          Determines how the state of the particles is stored in memory.
+     * @param disposer        Used to dispose the render and update buffers.
+     */
+    public static DefaultParticleSystem create(
+            ParticleSystemParameters parameters,
+            ParticleRenderer renderer,
+            int initialCapacity,
+            ParticleLayout layout,
+            Disposer disposer) {
+
+        if (layout == ParticleLayout.STRUCT_OF_ARRAYS) {
+            return new DefaultParticleSystem(
+                    parameters,
+                    renderer,
+                    ParticleRenderBuffer.create(initialCapacity, disposer),
+                    null,
+                    new InternalParticleArrays(initialCapacity));
+        }
 
         return new DefaultParticleSystem(
                 parameters,
                 renderer,
                 ParticleRenderBuffer.create(initialCapacity, disposer),
-                ParticleUpdateBuffer.create(initialCapacity, disposer));
+                ParticleUpdateBuffer.create(initialCapacity, disposer),
+                null);
     }
 
     public float getParticleTime(int index) {
-        return updateBuffer.getTime(index * updateBuffer.getStride());
+        return arrays != null
+                ? arrays.time[index]
+                : updateBuffer.getTime(index * updateBuffer.getStride());
+    }
+
+    /**
+     * @return The layout used to store the state of the particles.
+     */
+    public ParticleLayout getLayout() {
+        return arrays != null ? ParticleLayout.STRUCT_OF_ARRAYS : ParticleLayout.INTERLEAVED;
     }
 
     public void setExternalSpeed(float x, float y) {
@@ -114,6 +168,57 @@ public class DefaultParticleSystem implements Updatable, Renderable, Clearable {
         updateListener = listener;
     }
 
+    /**
+     * @return The {@link ForkJoinPool} used for parallel updates, or null if particles are updated on the calling thread.
+     */
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    /**
+     * Enables parallel updates using the specified {@link ForkJoinPool}. The particles are split into chunks that are
+     * updated in parallel. Expired particles are then removed in a separate pass on the calling thread, where the
+     * {@link ParticleUpdateListener} is also invoked. Systems with few particles are always updated on the calling thread.
+     *
+     * @param forkJoinPool The pool used for parallel updates, or null to update on the calling thread.
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * @return The random generator used when emitting particles, or null if {@link RandomInstance#get} is used.
+     */
+    public RandomGenerator getRandomGenerator() {
+        return randomGenerator;
+    }
+
+    /**
+     * Sets the random generator used when emitting particles. A seeded generator per particle system, such as a
+     * {@link com.gamelibrary2d.random.SplittableRandomGenerator}, gives reproducible emissions for replays and avoids
+     * contention on the shared {@link RandomInstance}.
+     *
+     * @param randomGenerator The random generator, or null to use {@link RandomInstance#get}.
+     */
+    public void setRandomGenerator(RandomGenerator randomGenerator) {
+        this.randomGenerator = randomGenerator;
+    }
+
+    /**
+     * @return True if the directions of emitted particles are computed with {@link com.gamelibrary2d.SinCosTable}.
+     */
+    public boolean isTrigonometryLookup() {
+        return trigonometryLookup;
+    }
+
+    /**
+     * Enables a lookup table for the sine and cosine of the directions of emitted particles. This is faster but less
+     * accurate, see {@link com.gamelibrary2d.SinCosTable}.
+     */
+    public void setTrigonometryLookup(boolean trigonometryLookup) {
+        this.trigonometryLookup = trigonometryLookup;
+    }
+
     public Point getPositionTransformation() {
         return positionTransformation;
     }
@@ -131,11 +236,18 @@ public class DefaultParticleSystem implements Updatable, Renderable, Clearable {
      */
     public void emit(float x, float y, int count) {
         int updatedParticleCount = particleCount + count;
-        renderBuffer.ensureCapacity(updatedParticleCount * renderBuffer.getStride());
-        updateBuffer.ensureCapacity(updatedParticleCount * updateBuffer.getStride());
+        if (arrays != null) {
+            arrays.ensureCapacity(updatedParticleCount);
+        } else {
+            renderBuffer.ensureCapacity(updatedParticleCount * renderBuffer.getStride());
+            updateBuffer.ensureCapacity(updatedParticleCount * updateBuffer.getStride());
+        }
+        int firstIndex = particleCount;
+        RandomGenerator random = getRandom();
         for (int i = 0; i < count; ++i) {
-            onEmit(x, y);
+            onEmit(x, y, random);
         }
+        markDirty(firstIndex, particleCount);
     }
 
     /**
@@ -157,7 +269,7 @@ public class DefaultParticleSystem implements Updatable, Renderable, Clearable {
      */
     public void emit(float x, float y) {
         ParticleEmissionParameters emissionParameters = parameters.getEmissionParameters();
-        int count = Math.round(emissionParameters.getParticleCount() + emissionParameters.getParticleCountVar() * RandomInstance.random11());
+        int count = Math.round(emissionParameters.getParticleCount() + emissionParameters.getParticleCountVar() * RandomInstance.random11(getRandom()));
         emit(x, y, count);
     }
 
@@ -195,12 +307,16 @@ public class DefaultParticleSystem implements Updatable, Renderable, Clearable {
         return emit(position.getX(), position.getY(), deltaTime);
     }
 
-    private void onEmit(float x, float y) {
+    RandomGenerator getRandom() {
+        return randomGenerator != null ? randomGenerator : RandomInstance.get();
+    }
+
+    private void onEmit(float x, float y, RandomGenerator random) {
         particle.setIndex(particleCount++);
 
         particle.setInitialized(false);
-        double spawnAngle = parameters.getSpawnParameters().apply(particle, x, y);
-        parameters.getUpdateParameters().apply(particle, x, y, spawnAngle);
+        double spawnAngle = parameters.getSpawnParameters().apply(particle, x, y, random, trigonometryLookup);
+        parameters.getUpdateParameters().apply(particle, x, y, spawnAngle, random, trigonometryLookup);
 
         particle.setExternalSpeedX(externalSpeed[0]);
         particle.setExternalSpeedY(externalSpeed[1]);
@@ -212,59 +328,237 @@ public class DefaultParticleSystem implements Updatable, Renderable, Clearable {
 
     public void update(float deltaTime) {
         if (particleCount > 0) {
-            int index = 0;
-            while (index != particleCount) {
-                particle.setIndex(index);
-                particle.update(externalAcceleration, deltaTime);
-
-                if (particle.hasExpired()) {
-                    destroyParticle(index);
-                    continue;
-                }
-
-                if (updateListener != null) {
-                    final boolean compensateForPosTransform = isTransformingPosition();
-                    if (compensateForPosTransform) {
-                        particle.setPosition(particle.getPosX() + positionTransformation.getX(),
-                                particle.getPosY() + positionTransformation.getY());
-                    }
-
-                    if (!updateListener.updated(this, particle)) {
+            if (forkJoinPool != null && particleCount > MIN_PARALLEL_CHUNK_SIZE) {
+                updateParallel(deltaTime);
+            } else if (arrays != null) {
+                arrays.update(0, particleCount, externalAcceleration[0], externalAcceleration[1], deltaTime);
+                removeExpiredParticles();
+            } else {
+                int index = 0;
+                while (index != particleCount) {
+                    particle.setIndex(index);
+                    particle.update(externalAcceleration, deltaTime);
+                    if (particle.hasExpired() || !onUpdated(particle)) {
                         destroyParticle(index);
-                        continue;
+                    } else {
+                        ++index;
                     }
+                }
+            }
 
-                    if (compensateForPosTransform) {
-                        particle.setPosition(particle.getPosX() - positionTransformation.getX(),
-                                particle.getPosY() - positionTransformation.getY());
-                    }
+            markDirty(0, particleCount);
+        }
+    }
+
+    private void updateParallel(float deltaTime) {
+        RangeTask.RangeAction updater;
+        if (arrays != null) {
+            float externalAccelerationX = externalAcceleration[0];
+            float externalAccelerationY = externalAcceleration[1];
+            updater = (from, to) -> arrays.update(from, to, externalAccelerationX, externalAccelerationY, deltaTime);
+        } else {
+            updater = (from, to) -> {
+                Particle particle = new Particle(renderBuffer, updateBuffer, from);
+                for (int i = from; i < to; ++i) {
+                    particle.setIndex(i);
+                    particle.update(externalAcceleration, deltaTime);
                 }
+            };
+        }
+
+        int threshold = Math.max(MIN_PARALLEL_CHUNK_SIZE, particleCount / (forkJoinPool.getParallelism() * 4));
+        forkJoinPool.invoke(new RangeTask(updater, 0, particleCount, threshold));
 
+        removeExpiredParticles();
+    }
+
+    /**
+     * Removes expired particles after all particles have been updated. Removing a particle moves the last particle
+     * into its place, which is why this is done in a separate pass when particles are updated in chunks.
+     */
+    private void removeExpiredParticles() {
+        int index = 0;
+        while (index != particleCount) {
+            particle.setIndex(index);
+            if (particle.hasExpired() || !onUpdated(particle)) {
+                destroyParticle(index);
+            } else {
                 ++index;
             }
+        }
+    }
+
+    /**
+     * Invokes the update listener.
+     *
+     * @return False if the particle should be destroyed.
+     */
+    private boolean onUpdated(Particle particle) {
+        if (updateListener == null) {
+            return true;
+        }
+
+        final boolean compensateForPosTransform = isTransformingPosition();
+        if (compensateForPosTransform) {
+            particle.setPosition(particle.getPosX() + positionTransformation.getX(),
+                    particle.getPosY() + positionTransformation.getY());
+        }
+
+        if (!updateListener.updated(this, particle)) {
+            return false;
+        }
 
-            gpuOutdated = true;
+        if (compensateForPosTransform) {
+            particle.setPosition(particle.getPosX() - positionTransformation.getX(),
+                    particle.getPosY() - positionTransformation.getY());
+        }
+
+        return true;
+    }
+
+    /**
+     * Extends the range of particles that have changed since they were last rendered.
+     */
+    private void markDirty(int from, int to) {
+        if (dirtyStart == dirtyEnd) {
+            dirtyStart = from;
+            dirtyEnd = to;
+        } else {
+            dirtyStart = Math.min(dirtyStart, from);
+            dirtyEnd = Math.max(dirtyEnd, to);
         }
     }
 
     public void render(float alpha) {
+        long uploadedBytesBefore = renderBuffer.getUploadedBytes();
         if (particleCount > 0) {
+            int dirtyEnd = Math.min(this.dirtyEnd, particleCount);
+            int dirtyLen = Math.max(0, dirtyEnd - dirtyStart);
+            if (arrays != null && dirtyLen > 0) {
+                arrays.writeTo(renderBuffer, dirtyStart, dirtyEnd);
+            }
+
             if (isTransformingPosition()) {
                 ModelMatrix.instance().pushMatrix();
                 ModelMatrix.instance().translatef(positionTransformation.getX(), positionTransformation.getY(), 0);
-                renderer.render(this, renderBuffer, gpuOutdated, 0, particleCount, alpha);
+                renderer.render(this, renderBuffer, dirtyStart, dirtyLen, 0, particleCount, alpha);
                 ModelMatrix.instance().popMatrix();
             } else {
-                renderer.render(this, renderBuffer, gpuOutdated, 0, particleCount, alpha);
+                renderer.render(this, renderBuffer, dirtyStart, dirtyLen, 0, particleCount, alpha);
+            }
+
+            dirtyStart = 0;
+            this.dirtyEnd = 0;
+        }
+        uploadedBytes = renderBuffer.getUploadedBytes() - uploadedBytesBefore;
+    }
+
+    /**
+     * Only particles that have been emitted or updated since the last render are uploaded to the GPU.
+     * Particles emitted since the last update are uploaded on their own, without uploading the other particles.
+     *
+     * @return The number of bytes uploaded to the GPU by the last invocation of {@link #render}.
+     */
+    public long getUploadedBytes() {
+        return uploadedBytes;
+    }
+
+    /**
+     * Creates a snapshot with room for the current capacity of the particle system.
+     * The snapshot is empty until it is passed to {@link #snapshot}.
+     */
+    public ParticleSystemSnapshot createSnapshot() {
+        int capacity = arrays != null ? arrays.getCapacity() : renderBuffer.getCapacity();
+        return new ParticleSystemSnapshot(getLayout(), capacity);
+    }
+
+    /**
+     * Copies the particles and the external speed and acceleration into the snapshot. No memory is allocated unless
+     * the snapshot is too small to hold the particles.
+     * <p>
+     * The state of the {@link #setRandomGenerator random generator} is part of the snapshot if it is a
+     * {@link SplittableRandomGenerator}, so that emissions after {@link #restore} are repeated exactly. The state
+     * of other generators, including the shared {@link RandomInstance}, is not captured.
+     * </p>
+     *
+     * @param snapshot A snapshot with the same {@link #getLayout layout} as the particle system.
+     */
+    public void snapshot(ParticleSystemSnapshot snapshot) {
+        validateLayout(snapshot);
+        snapshot.ensureCapacity(particleCount);
+        snapshot.particleCount = particleCount;
+        if (arrays != null) {
+            arrays.copyTo(snapshot.updateState, snapshot.flags, particleCount);
+        } else {
+            renderBuffer.copyTo(snapshot.renderState, particleCount);
+            updateBuffer.copyTo(snapshot.updateState, particleCount);
+        }
+
+        snapshot.externalSpeed[0] = externalSpeed[0];
+        snapshot.externalSpeed[1] = externalSpeed[1];
+        snapshot.externalAcceleration[0] = externalAcceleration[0];
+        snapshot.externalAcceleration[1] = externalAcceleration[1];
+
+        snapshot.hasRandomState = randomGenerator instanceof SplittableRandomGenerator;
+        if (snapshot.hasRandomState) {
+            SplittableRandomGenerator random = (SplittableRandomGenerator) randomGenerator;
+            if (snapshot.randomState == null) {
+                snapshot.randomState = random.copy();
+            } else {
+                snapshot.randomState.setState(random);
             }
+        }
+    }
 
-            gpuOutdated = false;
+    /**
+     * Replaces the particles and the external speed and acceleration with the content of the snapshot.
+     * All particles are uploaded to the GPU on the next render. The state of the random generator is restored if it
+     * is part of the snapshot and the particle system has a {@link SplittableRandomGenerator}.
+     *
+     * @param snapshot A snapshot with the same {@link #getLayout layout} as the particle system.
+     */
+    public void restore(ParticleSystemSnapshot snapshot) {
+        validateLayout(snapshot);
+        int count = snapshot.particleCount;
+        if (arrays != null) {
+            arrays.ensureCapacity(count);
+            arrays.copyFrom(snapshot.updateState, snapshot.flags, count);
+        } else {
+            renderBuffer.ensureCapacity(count * renderBuffer.getStride());
+            updateBuffer.ensureCapacity(count * updateBuffer.getStride());
+            renderBuffer.copyFrom(snapshot.renderState, count);
+            updateBuffer.copyFrom(snapshot.updateState, count);
+        }
+
+        externalSpeed[0] = snapshot.externalSpeed[0];
+        externalSpeed[1] = snapshot.externalSpeed[1];
+        externalAcceleration[0] = snapshot.externalAcceleration[0];
+        externalAcceleration[1] = snapshot.externalAcceleration[1];
+
+        if (snapshot.hasRandomState && randomGenerator instanceof SplittableRandomGenerator) {
+            ((SplittableRandomGenerator) randomGenerator).setState(snapshot.randomState);
+        }
+
+        particleCount = count;
+        dirtyStart = 0;
+        dirtyEnd = 0;
+        markDirty(0, count);
+    }
+
+    private void validateLayout(ParticleSystemSnapshot snapshot) {
+        if (snapshot.getLayout() != getLayout()) {
+            throw new IllegalArgumentException(String.format(
+                    "Snapshot layout %s does not match particle system layout %s",
+                    snapshot.getLayout(),
+                    getLayout()));
         }
     }
 
     @Override
     public void clear() {
         particleCount = 0;
+        dirtyStart = 0;
+        dirtyEnd = 0;
     }
 
     @Override
@@ -281,8 +575,12 @@ public class DefaultParticleSystem implements Updatable, Renderable, Clearable {
 
         if (particleCount > 0) {
             int lastIndex = particleCount;
-            renderBuffer.copy(lastIndex, index, 1);
-            updateBuffer.copy(lastIndex, index, 1);
+            if (arrays != null) {
+                arrays.copy(lastIndex, index);
+            } else {
+                renderBuffer.copy(lastIndex, index, 1);
+                updateBuffer.copy(lastIndex, index, 1);
+            }
         }
     }
 
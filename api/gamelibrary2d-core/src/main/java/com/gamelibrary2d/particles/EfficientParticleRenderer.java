@@ -90,9 +90,29 @@ public class EfficientParticleRenderer extends AbstractArrayRenderer<OpenGLBuffe
 
     @Override
     public void render(Object particleSystem, OpenGLBuffer buffer, boolean gpuOutdated, int offset, int len, float alpha) {
-        if (gpuOutdated && buffer instanceof MirroredBuffer) {
+        render(particleSystem, buffer, offset, gpuOutdated ? len : 0, offset, len, alpha);
+    }
+
+    /**
+     * Uploads the changed particles before rendering. If all particles from the start of the buffer have changed,
+     * the previous GPU storage is orphaned rather than overwritten, to avoid waiting for pending draw calls.
+     */
+    @Override
+    public void render(
+            Object particleSystem,
+            OpenGLBuffer buffer,
+            int dirtyOffset,
+            int dirtyLen,
+            int offset,
+            int len,
+            float alpha) {
+        if (dirtyLen > 0 && buffer instanceof MirroredBuffer) {
             buffer.bind();
-            ((MirroredBuffer) buffer).updateGPU(offset, len);
+            if (dirtyOffset == 0 && dirtyLen >= offset + len && buffer instanceof ParticleRenderBuffer) {
+                ((ParticleRenderBuffer) buffer).streamGPU(dirtyLen);
+            } else {
+                ((MirroredBuffer) buffer).updateGPU(dirtyOffset, dirtyLen);
+            }
         }
 
         super.render(alpha, buffer, offset, len);
@@ -0,0 +1,279 @@
+package com.gamelibrary2d.particles;
+
+/**
+ * Accesses a particle stored in {@link InternalParticleArrays}. Used in place of the buffer backed {@link Particle}
+ * by systems with the struct-of-arrays layout.
+ */
+class InternalArraysParticle extends Particle {
+    private final InternalParticleArrays arrays;
+    private int index;
+
+    InternalArraysParticle(InternalParticleArrays arrays, int index) {
+        this.arrays = arrays;
+        this.index = index;
+    }
+
+    @Override
+    public float getTime() {
+        return arrays.time[index];
+    }
+
+    @Override
+    public void setTime(float time) {
+        arrays.time[index] = time;
+    }
+
+    @Override
+    public float getDelay() {
+        return arrays.delay[index];
+    }
+
+    @Override
+    public void setDelay(float delay) {
+        arrays.delay[index] = delay;
+    }
+
+    @Override
+    public float getLife() {
+        return arrays.life[index];
+    }
+
+    @Override
+    public void setLife(float life) {
+        arrays.life[index] = life;
+    }
+
+    @Override
+    public float getPosX() {
+        return arrays.posX[index];
+    }
+
+    @Override
+    public float getPosY() {
+        return arrays.posY[index];
+    }
+
+    @Override
+    public float getGravityCenterX() {
+        return arrays.gravityCenterX[index];
+    }
+
+    @Override
+    public float getGravityCenterY() {
+        return arrays.gravityCenterY[index];
+    }
+
+    @Override
+    public float getAccelerationX() {
+        return arrays.accelerationX[index];
+    }
+
+    @Override
+    public void setAccelerationX(float accelerationX) {
+        arrays.accelerationX[index] = accelerationX;
+    }
+
+    @Override
+    public float getAccelerationY() {
+        return arrays.accelerationY[index];
+    }
+
+    @Override
+    public void setAccelerationY(float accelerationY) {
+        arrays.accelerationY[index] = accelerationY;
+    }
+
+    @Override
+    public float getCentripetalAcceleration() {
+        return arrays.centripetalAcceleration[index];
+    }
+
+    @Override
+    public void setCentripetalAcceleration(float centripetalAcc) {
+        arrays.centripetalAcceleration[index] = centripetalAcc;
+    }
+
+    @Override
+    public float getTangentialAcceleration() {
+        return arrays.tangentialAcceleration[index];
+    }
+
+    @Override
+    public void setTangentialAcceleration(float tangentialAcc) {
+        arrays.tangentialAcceleration[index] = tangentialAcc;
+    }
+
+    @Override
+    public float getColorR() {
+        return arrays.colorR[index];
+    }
+
+    @Override
+    public float getColorG() {
+        return arrays.colorG[index];
+    }
+
+    @Override
+    public float getColorB() {
+        return arrays.colorB[index];
+    }
+
+    @Override
+    public float getColorA() {
+        return arrays.colorA[index];
+    }
+
+    @Override
+    public float getDeltaColorR() {
+        return arrays.deltaColorR[index];
+    }
+
+    @Override
+    public float getDeltaColorG() {
+        return arrays.deltaColorG[index];
+    }
+
+    @Override
+    public float getDeltaColorB() {
+        return arrays.deltaColorB[index];
+    }
+
+    @Override
+    public float getDeltaColorA() {
+        return arrays.deltaColorA[index];
+    }
+
+    @Override
+    public float getScale() {
+        return arrays.scale[index];
+    }
+
+    @Override
+    public void setScale(float scale) {
+        arrays.scale[index] = scale;
+    }
+
+    @Override
+    public float getDeltaScale() {
+        return arrays.deltaScale[index];
+    }
+
+    @Override
+    public void setDeltaScale(float deltaScale) {
+        arrays.deltaScale[index] = deltaScale;
+    }
+
+    @Override
+    public float getRotation() {
+        return arrays.rotation[index];
+    }
+
+    @Override
+    public void setRotation(float rotation) {
+        arrays.rotation[index] = rotation;
+    }
+
+    @Override
+    public float getRotationSpeed() {
+        return arrays.deltaRotation[index];
+    }
+
+    @Override
+    public void setRotationSpeed(float rotationSpeed) {
+        arrays.deltaRotation[index] = rotationSpeed;
+    }
+
+    @Override
+    public float getRotationAcceleration() {
+        return arrays.rotationAcceleration[index];
+    }
+
+    @Override
+    public void setRotationAcceleration(float rotationAcc) {
+        arrays.rotationAcceleration[index] = rotationAcc;
+    }
+
+    @Override
+    public boolean isRotatedForward() {
+        return arrays.rotatedForward[index];
+    }
+
+    @Override
+    public void setRotatedForward(boolean rotatedForward) {
+        arrays.rotatedForward[index] = rotatedForward;
+    }
+
+    @Override
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    @Override
+    public void setPosition(float x, float y) {
+        arrays.posX[index] = x;
+        arrays.posY[index] = y;
+    }
+
+    @Override
+    public void setGravityCenter(float x, float y) {
+        arrays.gravityCenterX[index] = x;
+        arrays.gravityCenterY[index] = y;
+    }
+
+    @Override
+    public void setColor(float r, float g, float b, float a) {
+        arrays.colorR[index] = r;
+        arrays.colorG[index] = g;
+        arrays.colorB[index] = b;
+        arrays.colorA[index] = a;
+    }
+
+    @Override
+    public void setDeltaColor(float deltaR, float deltaG, float deltaB, float deltaA) {
+        arrays.deltaColorR[index] = deltaR;
+        arrays.deltaColorG[index] = deltaG;
+        arrays.deltaColorB[index] = deltaB;
+        arrays.deltaColorA[index] = deltaA;
+    }
+
+    @Override
+    public void setVelocity(float deltaX, float deltaY) {
+        arrays.deltaX[index] = deltaX;
+        arrays.deltaY[index] = deltaY;
+    }
+
+    @Override
+    public float getEndSpeedFactor() {
+        return arrays.endSpeedFactor[index];
+    }
+
+    @Override
+    public void setEndSpeedFactor(float endSpeedFactor) {
+        arrays.endSpeedFactor[index] = endSpeedFactor;
+    }
+
+    @Override
+    boolean isInitialized() {
+        return arrays.initialized[index];
+    }
+
+    @Override
+    void setInitialized(boolean initialized) {
+        arrays.initialized[index] = initialized;
+    }
+
+    @Override
+    void setExternalSpeedX(float externalSpeedX) {
+        arrays.externalSpeedX[index] = externalSpeedX;
+    }
+
+    @Override
+    void setExternalSpeedY(float externalSpeedY) {
+        arrays.externalSpeedY[index] = externalSpeedY;
+    }
+
+    @Override
+    void update(float[] externalAcceleration, float deltaTime) {
+        arrays.update(index, index + 1, externalAcceleration[0], externalAcceleration[1], deltaTime);
+    }
+}
@@ -0,0 +1,321 @@
+package com.gamelibrary2d.particles;
+
+import java.util.Arrays;
+
+/**
+ * Stores the state of all particles with one array per attribute. The particles are updated in plain loops over the
+ * arrays, rather than through a {@link Particle} flyweight, and the attributes needed for rendering are interleaved
+ * into a {@link ParticleRenderBuffer} before the particles are rendered.
+ */
+class InternalParticleArrays {
+    static final int FLOAT_ATTRIBUTES = 29;
+    static final int BOOLEAN_ATTRIBUTES = 2;
+
+    float[] posX, posY, scale, rotation;
+    float[] colorR, colorG, colorB, colorA;
+
+    boolean[] initialized, rotatedForward;
+    float[] gravityCenterX, gravityCenterY;
+    float[] delay, life, time, endSpeedFactor;
+    float[] deltaX, deltaY;
+    float[] accelerationX, accelerationY;
+    float[] centripetalAcceleration, tangentialAcceleration;
+    float[] deltaRotation, rotationAcceleration, deltaScale;
+    float[] deltaColorR, deltaColorG, deltaColorB, deltaColorA;
+    float[] externalSpeedX, externalSpeedY;
+
+    /**
+     * The time each particle is updated by in the current update. Zero for particles that are still delayed.
+     */
+    private float[] step;
+
+    private float[][] floatAttributes;
+    private boolean[][] booleanAttributes;
+    private int capacity;
+
+    InternalParticleArrays(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    private void allocate(int capacity) {
+        this.capacity = capacity;
+        posX = resize(posX, capacity);
+        posY = resize(posY, capacity);
+        scale = resize(scale, capacity);
+        rotation = resize(rotation, capacity);
+        colorR = resize(colorR, capacity);
+        colorG = resize(colorG, capacity);
+        colorB = resize(colorB, capacity);
+        colorA = resize(colorA, capacity);
+        initialized = resize(initialized, capacity);
+        rotatedForward = resize(rotatedForward, capacity);
+        gravityCenterX = resize(gravityCenterX, capacity);
+        gravityCenterY = resize(gravityCenterY, capacity);
+        delay = resize(delay, capacity);
+        life = resize(life, capacity);
+        time = resize(time, capacity);
+        endSpeedFactor = resize(endSpeedFactor, capacity);
+        deltaX = resize(deltaX, capacity);
+        deltaY = resize(deltaY, capacity);
+        accelerationX = resize(accelerationX, capacity);
+        accelerationY = resize(accelerationY, capacity);
+        centripetalAcceleration = resize(centripetalAcceleration, capacity);
+        tangentialAcceleration = resize(tangentialAcceleration, capacity);
+        deltaRotation = resize(deltaRotation, capacity);
+        rotationAcceleration = resize(rotationAcceleration, capacity);
+        deltaScale = resize(deltaScale, capacity);
+        deltaColorR = resize(deltaColorR, capacity);
+        deltaColorG = resize(deltaColorG, capacity);
+        deltaColorB = resize(deltaColorB, capacity);
+        deltaColorA = resize(deltaColorA, capacity);
+        externalSpeedX = resize(externalSpeedX, capacity);
+        externalSpeedY = resize(externalSpeedY, capacity);
+        step = resize(step, capacity);
+
+        floatAttributes = new float[][]{
+                posX, posY, scale, rotation,
+                colorR, colorG, colorB, colorA,
+                gravityCenterX, gravityCenterY,
+                delay, life, time, endSpeedFactor,
+                deltaX, deltaY,
+                accelerationX, accelerationY,
+                centripetalAcceleration, tangentialAcceleration,
+                deltaRotation, rotationAcceleration, deltaScale,
+                deltaColorR, deltaColorG, deltaColorB, deltaColorA,
+                externalSpeedX, externalSpeedY};
+
+        booleanAttributes = new boolean[][]{initialized, rotatedForward};
+    }
+
+    private static float[] resize(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static boolean[] resize(boolean[] array, int capacity) {
+        return array == null ? new boolean[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    void ensureCapacity(int minCapacity) {
+        if (capacity < minCapacity) {
+            allocate(Math.max(capacity * 2, minCapacity));
+        }
+    }
+
+    /**
+     * Copies the attributes of the first particles to the destination arrays, one attribute after another.
+     * The destination arrays must hold {@link #FLOAT_ATTRIBUTES} and {@link #BOOLEAN_ATTRIBUTES} times the length.
+     */
+    void copyTo(float[] floats, boolean[] booleans, int len) {
+        for (int i = 0; i < floatAttributes.length; ++i) {
+            System.arraycopy(floatAttributes[i], 0, floats, i * len, len);
+        }
+
+        for (int i = 0; i < booleanAttributes.length; ++i) {
+            System.arraycopy(booleanAttributes[i], 0, booleans, i * len, len);
+        }
+    }
+
+    /**
+     * Replaces the attributes of the first particles with the source arrays, see {@link #copyTo}.
+     * The capacity must be sufficient.
+     */
+    void copyFrom(float[] floats, boolean[] booleans, int len) {
+        for (int i = 0; i < floatAttributes.length; ++i) {
+            System.arraycopy(floats, i * len, floatAttributes[i], 0, len);
+        }
+
+        for (int i = 0; i < booleanAttributes.length; ++i) {
+            System.arraycopy(booleans, i * len, booleanAttributes[i], 0, len);
+        }
+    }
+
+    void copy(int source, int destination) {
+        posX[destination] = posX[source];
+        posY[destination] = posY[source];
+        scale[destination] = scale[source];
+        rotation[destination] = rotation[source];
+        colorR[destination] = colorR[source];
+        colorG[destination] = colorG[source];
+        colorB[destination] = colorB[source];
+        colorA[destination] = colorA[source];
+        initialized[destination] = initialized[source];
+        rotatedForward[destination] = rotatedForward[source];
+        gravityCenterX[destination] = gravityCenterX[source];
+        gravityCenterY[destination] = gravityCenterY[source];
+        delay[destination] = delay[source];
+        life[destination] = life[source];
+        time[destination] = time[source];
+        endSpeedFactor[destination] = endSpeedFactor[source];
+        deltaX[destination] = deltaX[source];
+        deltaY[destination] = deltaY[source];
+        accelerationX[destination] = accelerationX[source];
+        accelerationY[destination] = accelerationY[source];
+        centripetalAcceleration[destination] = centripetalAcceleration[source];
+        tangentialAcceleration[destination] = tangentialAcceleration[source];
+        deltaRotation[destination] = deltaRotation[source];
+        rotationAcceleration[destination] = rotationAcceleration[source];
+        deltaScale[destination] = deltaScale[source];
+        deltaColorR[destination] = deltaColorR[source];
+        deltaColorG[destination] = deltaColorG[source];
+        deltaColorB[destination] = deltaColorB[source];
+        deltaColorA[destination] = deltaColorA[source];
+        externalSpeedX[destination] = externalSpeedX[source];
+        externalSpeedY[destination] = externalSpeedY[source];
+    }
+
+    boolean hasExpired(int index) {
+        return initialized[index] && time[index] >= life[index];
+    }
+
+    /**
+     * Updates the particles in the specified range. Performs the same computations as {@link Particle#update}.
+     */
+    void update(int from, int to, float externalAccelerationX, float externalAccelerationY, float deltaTime) {
+        updateDelayed(from, to, externalAccelerationX, externalAccelerationY, deltaTime);
+        updateMovement(from, to, externalAccelerationX, externalAccelerationY, deltaTime);
+
+        // Scale and color change linearly, which is done in separate loops without branches
+        float[] step = this.step;
+        float[] scale = this.scale;
+        float[] deltaScale = this.deltaScale;
+        for (int i = from; i < to; ++i) {
+            scale[i] += deltaScale[i] * step[i];
+        }
+
+        updateColor(colorR, deltaColorR, from, to);
+        updateColor(colorG, deltaColorG, from, to);
+        updateColor(colorB, deltaColorB, from, to);
+        updateColor(colorA, deltaColorA, from, to);
+    }
+
+    private void updateColor(float[] color, float[] deltaColor, int from, int to) {
+        float[] step = this.step;
+        for (int i = from; i < to; ++i) {
+            color[i] += deltaColor[i] * step[i];
+        }
+    }
+
+    /**
+     * Moves particles that are still delayed by their external speed, and initializes particles whose delay has passed.
+     */
+    private void updateDelayed(int from, int to, float externalAccelerationX, float externalAccelerationY, float deltaTime) {
+        for (int i = from; i < to; ++i) {
+            if (initialized[i]) {
+                step[i] = deltaTime;
+                continue;
+            }
+
+            float time = this.time[i];
+            if (time < delay[i]) {
+                this.time[i] = time + deltaTime;
+                float speedX = externalSpeedX[i] + externalAccelerationX * deltaTime;
+                float speedY = externalSpeedY[i] + externalAccelerationY * deltaTime;
+                externalSpeedX[i] = speedX;
+                externalSpeedY[i] = speedY;
+                posX[i] += speedX * deltaTime;
+                posY[i] += speedY * deltaTime;
+
+                if (rotatedForward[i]) {
+                    if (speedX != 0 || speedY != 0) {
+                        double rotation = Math.atan2(speedY, speedX);
+                        this.rotation[i] = (float) -(rotation * 180.0 / Math.PI) + 90;
+                    }
+                }
+
+                step[i] = 0f;
+                continue;
+            }
+
+            this.time[i] = 0;
+            deltaX[i] += externalSpeedX[i];
+            deltaY[i] += externalSpeedY[i];
+            initialized[i] = true;
+            step[i] = deltaTime;
+        }
+    }
+
+    private void updateMovement(int from, int to, float externalAccelerationX, float externalAccelerationY, float deltaTime) {
+        for (int i = from; i < to; ++i) {
+            if (!initialized[i]) {
+                continue;
+            }
+
+            float time = this.time[i] + deltaTime;
+            this.time[i] = time;
+
+            float posX = this.posX[i];
+            float posY = this.posY[i];
+            float gravityCenterX = this.gravityCenterX[i];
+            float gravityCenterY = this.gravityCenterY[i];
+
+            float deltaX = this.deltaX[i];
+            float deltaY = this.deltaY[i];
+
+            float centripetalDirX, centripetalDirY;
+            if (gravityCenterX == posX && gravityCenterY == posY) {
+                double direction = -Math.atan2(deltaY, deltaX);
+                centripetalDirX = (float) Math.cos(direction);
+                centripetalDirY = (float) -Math.sin(direction);
+            } else {
+                centripetalDirX = gravityCenterX - posX;
+                centripetalDirY = gravityCenterY - posY;
+                float distance = (float) Math.sqrt(centripetalDirX * centripetalDirX + centripetalDirY * centripetalDirY);
+                centripetalDirX /= distance;
+                centripetalDirY /= distance;
+            }
+
+            float tangentialDirX = -centripetalDirY;
+            float tangentialDirY = centripetalDirX;
+
+            float centripetalAcc = centripetalAcceleration[i];
+            float tangentialAcc = tangentialAcceleration[i];
+            float accSumX = centripetalDirX * centripetalAcc + tangentialDirX * tangentialAcc;
+            float accSumY = centripetalDirY * centripetalAcc + tangentialDirY * tangentialAcc;
+
+            deltaX += (accSumX + externalAccelerationX + accelerationX[i]) * deltaTime;
+            deltaY += (accSumY + externalAccelerationY + accelerationY[i]) * deltaTime;
+            this.deltaX[i] = deltaX;
+            this.deltaY[i] = deltaY;
+
+            float progress = time / life[i];
+            float velocityFactor = (1f - progress) + progress * endSpeedFactor[i];
+
+            float velocityFactorTimesDeltaTime = velocityFactor * deltaTime;
+            this.posX[i] = posX + deltaX * velocityFactorTimesDeltaTime;
+            this.posY[i] = posY + deltaY * velocityFactorTimesDeltaTime;
+
+            if (rotatedForward[i]) {
+                if (deltaX != 0 || deltaY != 0) {
+                    double rotation = Math.atan2(deltaY, deltaX);
+                    this.rotation[i] = (float) -(rotation * 180.0 / Math.PI) + 90;
+                }
+            } else {
+                float rotationSpeed = deltaRotation[i] + rotationAcceleration[i] * deltaTime;
+                deltaRotation[i] = rotationSpeed;
+                this.rotation[i] += rotationSpeed * deltaTime;
+            }
+        }
+    }
+
+    /**
+     * Interleaves the attributes needed for rendering into the render buffer, for the particles in the specified range.
+     */
+    void writeTo(ParticleRenderBuffer renderBuffer, int from, int to) {
+        int stride = renderBuffer.getStride();
+        renderBuffer.ensureCapacity(to * stride);
+        for (int i = from, offset = from * stride; i < to; ++i, offset += stride) {
+            renderBuffer.setPosX(offset, posX[i]);
+            renderBuffer.setPosY(offset, posY[i]);
+            renderBuffer.setScale(offset, scale[i]);
+            renderBuffer.setRotation(offset, rotation[i]);
+            renderBuffer.setColorR(offset, colorR[i]);
+            renderBuffer.setColorG(offset, colorG[i]);
+            renderBuffer.setColorB(offset, colorB[i]);
+            renderBuffer.setColorA(offset, colorA[i]);
+        }
+    }
+}
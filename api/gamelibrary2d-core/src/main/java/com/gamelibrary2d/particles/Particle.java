@@ -14,6 +14,14 @@ public class Particle {
         setIndex(index);
     }
 
+    /**
+     * Creates a particle that is not stored in the particle buffers. All accessors must be overridden.
+     */
+    Particle() {
+        this.renderBuffer = null;
+        this.updateBuffer = null;
+    }
+
     public float getTime() {
         return updateBuffer.getTime(updateOffset);
     }
@@ -215,7 +223,7 @@ public class Particle {
         updateBuffer.setEndSpeedFactor(updateOffset, endSpeedFactor);
     }
 
-    private boolean isInitialized() {
+    boolean isInitialized() {
         return updateBuffer.isInitialized(updateOffset);
     }
 
@@ -0,0 +1,176 @@
+package com.gamelibrary2d.particles;
+
+import com.gamelibrary2d.Point;
+import com.gamelibrary2d.Rectangle;
+import com.gamelibrary2d.random.RandomInstance;
+
+/**
+ * A particle effect played by a {@link ParticleEffectManager}. The particles of the effect are stored in a pooled
+ * {@link DefaultParticleSystem}, which is returned to the manager when the effect has been stopped and all of
+ * its particles have expired. Emissions are scaled by the level of detail of the effect, and limited by the
+ * particle budget of the manager.
+ */
+public class ParticleEffect {
+    private final ParticleEffectManager manager;
+    private final int priority;
+
+    private DefaultParticleSystem particleSystem;
+    private Rectangle bounds;
+    private float posX, posY;
+    private float emissionTimer;
+    private boolean stopped;
+    boolean culled;
+
+    ParticleEffect(ParticleEffectManager manager, DefaultParticleSystem particleSystem, int priority, Rectangle bounds) {
+        this.manager = manager;
+        this.particleSystem = particleSystem;
+        this.priority = priority;
+        this.bounds = bounds;
+    }
+
+    public ParticleEffectManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Emissions of effects with higher priority can remove the particles of effects with lower priority, in order to
+     * stay within the particle budget of the manager.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return The particle system of the effect, or null if the effect has finished.
+     */
+    public DefaultParticleSystem getParticleSystem() {
+        return particleSystem;
+    }
+
+    /**
+     * @return The bounds of the effect, relative to its position, used to cull the effect when outside the viewport.
+     */
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
+    public void setBounds(Rectangle bounds) {
+        this.bounds = bounds;
+    }
+
+    public float getPosX() {
+        return posX;
+    }
+
+    public float getPosY() {
+        return posY;
+    }
+
+    public void setPosition(Point position) {
+        setPosition(position.getX(), position.getY());
+    }
+
+    public void setPosition(float x, float y) {
+        posX = x;
+        posY = y;
+    }
+
+    /**
+     * @return True if the effect is culled. Culled effects are not rendered and their emissions are skipped, but their
+     * particles are still updated.
+     */
+    public boolean isCulled() {
+        return culled;
+    }
+
+    /**
+     * @return True if the effect has been stopped. A stopped effect is finished when all of its particles have expired.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * @return True if the effect has finished, after which its particle system has been returned to the manager.
+     */
+    public boolean isFinished() {
+        return particleSystem == null;
+    }
+
+    /**
+     * Stops the effect. No more particles are emitted, and the effect finishes when all of its particles have expired.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Emits particles at the position of the effect.
+     * The number of particles is decided by the count-parameters of the effect's {@link ParticleEmissionParameters}.
+     */
+    public void emit() {
+        if (canEmit()) {
+            ParticleEmissionParameters emissionParameters = particleSystem.getParameters().getEmissionParameters();
+            emit(Math.round(emissionParameters.getParticleCount() + emissionParameters.getParticleCountVar() * RandomInstance.random11(particleSystem.getRandom())));
+        }
+    }
+
+    /**
+     * Emits particles at the position of the effect.
+     *
+     * @param count The number of particles to emit, before it is scaled by the level of detail.
+     */
+    public void emit(int count) {
+        if (canEmit()) {
+            int scaledCount = Math.round(count * manager.getLevelOfDetail(this));
+            int allowedCount = manager.requestEmission(this, scaledCount);
+            if (allowedCount > 0) {
+                particleSystem.emit(posX, posY, allowedCount);
+            }
+        }
+    }
+
+    /**
+     * Emits particles at the position of the effect, from the emission rate of the effect's
+     * {@link ParticleEmissionParameters}. The emission rate is scaled by the level of detail. The time since the last
+     * emission is kept by the effect.
+     *
+     * @param deltaTime The time, in seconds, since this method was last invoked.
+     */
+    public void emit(float deltaTime) {
+        if (!canEmit()) {
+            return;
+        }
+
+        float rate = particleSystem.getParameters().getEmissionParameters().getEmissionRate();
+        if (rate > 0) {
+            emissionTimer += deltaTime * manager.getLevelOfDetail(this);
+            int numberOfEmissions = (int) (emissionTimer * rate);
+            for (int i = 0; i < numberOfEmissions; ++i) {
+                ParticleEmissionParameters emissionParameters = particleSystem.getParameters().getEmissionParameters();
+                int count = Math.round(emissionParameters.getParticleCount() + emissionParameters.getParticleCountVar() * RandomInstance.random11(particleSystem.getRandom()));
+                int allowedCount = manager.requestEmission(this, count);
+                if (allowedCount > 0) {
+                    particleSystem.emit(posX, posY, allowedCount);
+                }
+            }
+
+            emissionTimer -= numberOfEmissions / rate;
+        }
+    }
+
+    private boolean canEmit() {
+        return particleSystem != null && !stopped && !manager.updateCulling(this);
+    }
+
+    int getParticleCount() {
+        return particleSystem != null ? particleSystem.getParticleCount() : 0;
+    }
+
+    DefaultParticleSystem release() {
+        DefaultParticleSystem particleSystem = this.particleSystem;
+        this.particleSystem = null;
+        stopped = true;
+        return particleSystem;
+    }
+}
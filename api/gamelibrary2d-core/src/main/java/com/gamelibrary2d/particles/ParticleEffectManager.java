@@ -0,0 +1,330 @@
+package com.gamelibrary2d.particles;
+
+import com.gamelibrary2d.Point;
+import com.gamelibrary2d.Rectangle;
+import com.gamelibrary2d.denotations.Renderable;
+import com.gamelibrary2d.denotations.Updatable;
+import com.gamelibrary2d.disposal.Disposer;
+
+import java.util.ArrayList;
+
+/**
+ * Plays particle effects within a global particle budget. Each {@link ParticleEffect} uses a
+ * {@link DefaultParticleSystem} from a pool, so that the buffers of finished effects are reused rather than
+ * allocated for each new effect. Effects outside the viewport, or too far from the focus point, are culled: they
+ * are neither rendered nor emit particles, but their particles keep aging so that the effects can finish. Emissions
+ * are scaled down with the distance from the focus point.
+ */
+public class ParticleEffectManager implements Updatable, Renderable {
+    private final Disposer disposer;
+    private final ArrayList<ParticleEffect> effects = new ArrayList<>();
+    private final ArrayList<DefaultParticleSystem> pool = new ArrayList<>();
+
+    private int particleBudget = Integer.MAX_VALUE;
+    private int particleCount;
+
+    private Rectangle viewport;
+    private Point focus;
+    private float cullDistance;
+    private float fullDetailDistance;
+    private float minDetailDistance;
+    private float minDetail = 1f;
+    private Rectangle defaultBounds = Rectangle.EMPTY;
+
+    /**
+     * Creates a new particle effect manager.
+     *
+     * @param disposer The disposer of the particle systems created by the manager.
+     */
+    public ParticleEffectManager(Disposer disposer) {
+        this.disposer = disposer;
+    }
+
+    /**
+     * Plays a new effect. The effect keeps playing until it is {@link ParticleEffect#stop stopped}.
+     *
+     * @param parameters The particle system parameters.
+     * @param renderer   The particle renderer.
+     * @param x          The x-coordinate of the effect.
+     * @param y          The y-coordinate of the effect.
+     * @param priority   The priority of the effect, see {@link ParticleEffect#getPriority}.
+     * @return The effect.
+     */
+    public ParticleEffect play(
+            ParticleSystemParameters parameters,
+            ParticleRenderer renderer,
+            float x,
+            float y,
+            int priority) {
+        ParticleEffect effect = new ParticleEffect(this, obtain(parameters, renderer), priority, defaultBounds);
+        effect.setPosition(x, y);
+        effects.add(effect);
+        return effect;
+    }
+
+    /**
+     * Emits the particles of a one-shot effect, such as an explosion. The effect is stopped immediately, and finishes
+     * when all of its particles have expired.
+     * The number of particles is decided by the count-parameters of the {@link ParticleEmissionParameters}.
+     *
+     * @return The effect.
+     */
+    public ParticleEffect emit(
+            ParticleSystemParameters parameters,
+            ParticleRenderer renderer,
+            float x,
+            float y,
+            int priority) {
+        ParticleEffect effect = play(parameters, renderer, x, y, priority);
+        effect.emit();
+        effect.stop();
+        return effect;
+    }
+
+    private DefaultParticleSystem obtain(ParticleSystemParameters parameters, ParticleRenderer renderer) {
+        if (pool.isEmpty()) {
+            return DefaultParticleSystem.create(parameters, renderer, disposer);
+        }
+
+        DefaultParticleSystem particleSystem = pool.remove(pool.size() - 1);
+        particleSystem.setSettings(parameters);
+        particleSystem.setRenderer(renderer);
+        return particleSystem;
+    }
+
+    private void release(ParticleEffect effect) {
+        DefaultParticleSystem particleSystem = effect.release();
+        particleSystem.clear();
+        particleSystem.setExternalSpeed(0f, 0f);
+        particleSystem.setExternalAcceleration(0f, 0f);
+        particleSystem.setUpdateListener(null);
+        particleSystem.setPositionTransformation(null);
+        particleSystem.setForkJoinPool(null);
+        particleSystem.setRandomGenerator(null);
+        particleSystem.setTrigonometryLookup(false);
+        pool.add(particleSystem);
+    }
+
+    /**
+     * @return The number of pooled particle systems, which are reused by new effects.
+     */
+    public int getPooledCount() {
+        return pool.size();
+    }
+
+    /**
+     * @return The number of effects that have not finished.
+     */
+    public int getEffectCount() {
+        return effects.size();
+    }
+
+    /**
+     * @return The number of particles of all effects.
+     */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    public int getParticleBudget() {
+        return particleBudget;
+    }
+
+    /**
+     * Sets the maximum number of particles of all effects. Emissions that would exceed the budget are reduced, unless
+     * room can be made by removing the particles of effects with lower priority.
+     */
+    public void setParticleBudget(int particleBudget) {
+        this.particleBudget = particleBudget;
+    }
+
+    public Rectangle getViewport() {
+        return viewport;
+    }
+
+    /**
+     * Effects whose bounds are outside the viewport are culled. No effects are culled by the viewport if null.
+     */
+    public void setViewport(Rectangle viewport) {
+        this.viewport = viewport;
+    }
+
+    public Point getFocus() {
+        return focus;
+    }
+
+    /**
+     * The focus point, typically the position of the camera or player, is used for distance culling and for the
+     * level of detail. Neither is applied if null.
+     */
+    public void setFocus(Point focus) {
+        this.focus = focus;
+    }
+
+    public float getCullDistance() {
+        return cullDistance;
+    }
+
+    /**
+     * Effects further away from the focus point than the specified distance are culled. No effects are culled by
+     * distance if the distance is zero.
+     */
+    public void setCullDistance(float cullDistance) {
+        this.cullDistance = cullDistance;
+    }
+
+    /**
+     * @return The bounds of new effects, relative to their position. See {@link ParticleEffect#setBounds}.
+     */
+    public Rectangle getDefaultBounds() {
+        return defaultBounds;
+    }
+
+    public void setDefaultBounds(Rectangle defaultBounds) {
+        this.defaultBounds = defaultBounds;
+    }
+
+    /**
+     * Sets how emissions are scaled with the distance from the focus point. Emissions are not scaled within the
+     * full detail distance. Beyond it, the scale decreases linearly to the minimum detail, which is reached at the
+     * minimum detail distance.
+     *
+     * @param fullDetailDistance The distance within which emissions are not scaled.
+     * @param minDetailDistance  The distance at which the minimum detail is reached.
+     * @param minDetail          The minimum scale of emissions, between 0 and 1.
+     */
+    public void setLevelOfDetail(float fullDetailDistance, float minDetailDistance, float minDetail) {
+        this.fullDetailDistance = fullDetailDistance;
+        this.minDetailDistance = minDetailDistance;
+        this.minDetail = minDetail;
+    }
+
+    /**
+     * @return The scale of emissions of the effect, between the minimum detail and 1.
+     */
+    float getLevelOfDetail(ParticleEffect effect) {
+        if (focus == null || minDetail >= 1f || minDetailDistance <= fullDetailDistance) {
+            return 1f;
+        }
+
+        float distance = focus.getDistance(effect.getPosX(), effect.getPosY());
+        if (distance <= fullDetailDistance) {
+            return 1f;
+        } else if (distance >= minDetailDistance) {
+            return minDetail;
+        } else {
+            float progress = (distance - fullDetailDistance) / (minDetailDistance - fullDetailDistance);
+            return 1f - progress * (1f - minDetail);
+        }
+    }
+
+    /**
+     * Determines if the effect is culled.
+     *
+     * @return True if the effect is culled.
+     */
+    boolean updateCulling(ParticleEffect effect) {
+        float x = effect.getPosX();
+        float y = effect.getPosY();
+        boolean culled = false;
+        if (focus != null && cullDistance > 0f) {
+            culled = focus.getDistance(x, y) > cullDistance;
+        }
+
+        if (!culled && viewport != null) {
+            Rectangle bounds = effect.getBounds();
+            culled = !viewport.intersects(
+                    x + bounds.getLowerX(),
+                    y + bounds.getLowerY(),
+                    x + bounds.getUpperX(),
+                    y + bounds.getUpperY());
+        }
+
+        effect.culled = culled;
+        return culled;
+    }
+
+    /**
+     * Determines how many particles the effect is allowed to emit. If the budget is exceeded, the particles of effects
+     * with lower priority are removed, starting with the lowest priority, until there is room for the emission.
+     *
+     * @return The number of particles the effect is allowed to emit.
+     */
+    int requestEmission(ParticleEffect effect, int count) {
+        if (count <= 0) {
+            return 0;
+        }
+
+        int available = particleBudget - particleCount;
+        while (available < count) {
+            ParticleEffect lowest = findLowestPriority(effect.getPriority());
+            if (lowest == null) {
+                break;
+            }
+
+            int removed = lowest.getParticleCount();
+            lowest.getParticleSystem().clear();
+            particleCount -= removed;
+            available += removed;
+        }
+
+        int allowed = Math.max(0, Math.min(count, available));
+        particleCount += allowed;
+        return allowed;
+    }
+
+    private ParticleEffect findLowestPriority(int priority) {
+        ParticleEffect lowest = null;
+        for (int i = 0; i < effects.size(); ++i) {
+            ParticleEffect effect = effects.get(i);
+            if (effect.getPriority() < priority
+                    && effect.getParticleCount() > 0
+                    && (lowest == null || effect.getPriority() < lowest.getPriority())) {
+                lowest = effect;
+            }
+        }
+
+        return lowest;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        particleCount = 0;
+        int i = 0;
+        while (i < effects.size()) {
+            ParticleEffect effect = effects.get(i);
+            updateCulling(effect);
+            effect.getParticleSystem().update(deltaTime);
+
+            if (effect.isStopped() && effect.getParticleCount() == 0) {
+                release(effect);
+                effects.remove(i);
+            } else {
+                particleCount += effect.getParticleCount();
+                ++i;
+            }
+        }
+    }
+
+    @Override
+    public void render(float alpha) {
+        for (int i = 0; i < effects.size(); ++i) {
+            ParticleEffect effect = effects.get(i);
+            if (!effect.isCulled()) {
+                effect.getParticleSystem().render(alpha);
+            }
+        }
+    }
+
+    /**
+     * Stops all effects and removes their particles. The particle systems are returned to the pool.
+     */
+    public void clear() {
+        for (int i = 0; i < effects.size(); ++i) {
+            release(effects.get(i));
+        }
+
+        effects.clear();
+        particleCount = 0;
+    }
+}
@@ -3,6 +3,8 @@ package com.gamelibrary2d.particles;
 import com.gamelibrary2d.io.DataBuffer;
 import com.gamelibrary2d.io.Serializable;
 
+import java.nio.ByteBuffer;
+
 public class ParticleEmissionParameters implements Serializable {
     private int particleCount;
     private int particleCountVar;
@@ -19,6 +21,12 @@ public class ParticleEmissionParameters implements Serializable {
         emissionRate = buffer.getFloat();
     }
 
+    ParticleEmissionParameters(ByteBuffer buffer) {
+        particleCount = buffer.getInt();
+        particleCountVar = buffer.getInt();
+        emissionRate = buffer.getFloat();
+    }
+
     /**
      * The number of particles per emission.
      */
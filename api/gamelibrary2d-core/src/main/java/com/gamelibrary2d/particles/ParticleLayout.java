@@ -0,0 +1,19 @@
+package com.gamelibrary2d.particles;
+
+/**
+ * Determines how a {@link DefaultParticleSystem} stores the state of its particles in memory.
+ */
+public enum ParticleLayout {
+
+    /**
+     * The state of each particle is stored in consecutive elements of the render and update buffers.
+     */
+    INTERLEAVED,
+
+    /**
+     * Each attribute is stored in its own array, and the particles are updated in plain loops over the arrays.
+     * The attributes needed for rendering are interleaved into the render buffer before rendering. This is usually
+     * faster for large particle systems.
+     */
+    STRUCT_OF_ARRAYS
+}
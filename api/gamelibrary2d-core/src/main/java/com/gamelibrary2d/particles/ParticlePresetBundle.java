@@ -0,0 +1,249 @@
+package com.gamelibrary2d.particles;
+
+import com.gamelibrary2d.io.Read;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single file holding many {@link ParticleSystemParameters presets}, with an index of their names.
+ * <p>
+ * Bundles are memory-mapped when opened from a file. Only the index is read up front. The parameters of a preset are
+ * bulk-copied from the mapped file the first time the preset is requested, and are then cached. The bundle is not
+ * threadsafe.
+ * </p>
+ * <p>
+ * The format is little-endian and starts with a header: the magic number, the {@link #VERSION version}, the strides of
+ * the update and spawn parameters, and the number of presets. The header is followed by the index, with the name
+ * (length-prefixed UTF-8) and the file offset of each preset, and then by the presets themselves.
+ * </p>
+ */
+public final class ParticlePresetBundle {
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x47325042; // G2PB
+    private static final int RECORD_SIZE = (ParticleUpdateParameters.STRIDE + ParticleSpawnParameters.STRIDE + 3) * 4;
+
+    private final ByteBuffer buffer;
+    private final List<String> names;
+    private final Map<String, Integer> indices;
+    private final int[] offsets;
+    private final ParticleSystemParameters[] presets;
+
+    private ParticlePresetBundle(ByteBuffer buffer, List<String> names, int[] offsets) {
+        this.buffer = buffer;
+        this.names = Collections.unmodifiableList(names);
+        this.offsets = offsets;
+        this.presets = new ParticleSystemParameters[offsets.length];
+        this.indices = new HashMap<>(offsets.length * 2);
+        for (int i = 0; i < offsets.length; ++i) {
+            indices.put(names.get(i), i);
+        }
+    }
+
+    /**
+     * Opens the bundle by memory-mapping the file.
+     */
+    public static ParticlePresetBundle open(File file) throws IOException {
+        return open(file.toPath());
+    }
+
+    /**
+     * Opens the bundle by memory-mapping the file.
+     */
+    public static ParticlePresetBundle open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping remains valid after the channel is closed.
+            return open(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Opens the bundle. The resource is memory-mapped if it is a file, and otherwise read into memory.
+     */
+    public static ParticlePresetBundle open(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return open(Paths.get(url.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid file URL: " + url, e);
+            }
+        }
+
+        try (InputStream stream = url.openStream()) {
+            return open(ByteBuffer.wrap(Read.byteArray(stream)));
+        }
+    }
+
+    /**
+     * Opens the bundle from the remaining bytes of the buffer. The presets are read from the buffer when requested,
+     * and it must therefore not be modified.
+     */
+    public static ParticlePresetBundle open(ByteBuffer buffer) throws IOException {
+        ByteBuffer bundle = buffer.slice();
+        ByteBuffer header = bundle.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (header.remaining() < 20 || header.getInt() != MAGIC) {
+            throw new IOException("Not a particle preset bundle");
+        }
+
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported particle preset bundle version: " + version);
+        }
+
+        int updateStride = header.getInt();
+        int spawnStride = header.getInt();
+        if (updateStride != ParticleUpdateParameters.STRIDE || spawnStride != ParticleSpawnParameters.STRIDE) {
+            throw new IOException("Unsupported particle parameter layout");
+        }
+
+        int count = header.getInt();
+        List<String> names = new ArrayList<>(count);
+        int[] offsets = new int[count];
+        try {
+            for (int i = 0; i < count; ++i) {
+                byte[] name = new byte[header.getShort() & 0xFFFF];
+                header.get(name);
+                names.add(new String(name, StandardCharsets.UTF_8));
+                offsets[i] = header.getInt();
+                if (offsets[i] < 0 || offsets[i] > header.limit() - RECORD_SIZE) {
+                    throw new IOException("Invalid offset of particle preset: " + names.get(i));
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated particle preset bundle", e);
+        }
+
+        return new ParticlePresetBundle(bundle, names, offsets);
+    }
+
+    /**
+     * Writes a bundle with the specified presets to the file. Any existing file is overwritten.
+     *
+     * @param presets The presets, by name. The names are stored in iteration order.
+     * @param file    The bundle file.
+     */
+    public static void write(Map<String, ParticleSystemParameters> presets, File file) throws IOException {
+        List<byte[]> names = new ArrayList<>(presets.size());
+        int indexSize = 0;
+        for (String name : presets.keySet()) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("Particle preset name is too long: " + name);
+            }
+            names.add(bytes);
+            indexSize += 2 + bytes.length + 4;
+        }
+
+        int headerSize = 20 + indexSize;
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize + presets.size() * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(ParticleUpdateParameters.STRIDE);
+        buffer.putInt(ParticleSpawnParameters.STRIDE);
+        buffer.putInt(presets.size());
+        for (int i = 0; i < names.size(); ++i) {
+            byte[] name = names.get(i);
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+            buffer.putInt(headerSize + i * RECORD_SIZE);
+        }
+
+        for (ParticleSystemParameters preset : presets.values()) {
+            FloatBuffer floats = buffer.asFloatBuffer();
+            floats.put(preset.getUpdateParameters().getInternalStateArray());
+            floats.put(preset.getSpawnParameters().getInternalStateArray());
+            buffer.position(buffer.position() + floats.position() * 4);
+
+            ParticleEmissionParameters emissionParameters = preset.getEmissionParameters();
+            buffer.putInt(emissionParameters.getParticleCount());
+            buffer.putInt(emissionParameters.getParticleCountVar());
+            buffer.putFloat(emissionParameters.getEmissionRate());
+        }
+
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * @return The number of presets in the bundle.
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * @return The names of the presets, in the order they are stored.
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    public boolean contains(String name) {
+        return indices.containsKey(name);
+    }
+
+    /**
+     * Gets the preset with the specified name. The preset is loaded on the first request, and the same instance is
+     * returned by subsequent requests.
+     *
+     * @return The preset, or null if the bundle does not contain the name.
+     */
+    public ParticleSystemParameters get(String name) {
+        Integer index = indices.get(name);
+        return index != null ? get(index) : null;
+    }
+
+    /**
+     * Gets the preset at the specified index, see {@link #getNames}. The preset is loaded on the first request, and
+     * the same instance is returned by subsequent requests.
+     */
+    public ParticleSystemParameters get(int index) {
+        ParticleSystemParameters preset = presets[index];
+        if (preset == null) {
+            preset = load(index);
+            presets[index] = preset;
+        }
+
+        return preset;
+    }
+
+    /**
+     * Loads a new instance of the preset at the specified index, without caching it.
+     */
+    public ParticleSystemParameters load(int index) {
+        ByteBuffer record = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        record.position(offsets[index]);
+
+        FloatBuffer floats = record.asFloatBuffer();
+        ParticleUpdateParameters updateParameters = new ParticleUpdateParameters(floats);
+        ParticleSpawnParameters spawnParameters = new ParticleSpawnParameters(floats);
+        record.position(record.position() + floats.position() * 4);
+
+        ParticleEmissionParameters emissionParameters = new ParticleEmissionParameters(record);
+        return new ParticleSystemParameters(emissionParameters, spawnParameters, updateParameters);
+    }
+}
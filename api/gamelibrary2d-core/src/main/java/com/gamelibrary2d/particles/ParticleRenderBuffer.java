@@ -22,6 +22,7 @@ public class ParticleRenderBuffer extends AbstractMirroredVertexArrayBuffer<Mirr
     private final static int COLOR_A = 7;
 
     private float[] internalState;
+    private long uploadedBytes;
 
     private ParticleRenderBuffer(MirroredFloatBuffer internalState) {
         super(internalState, STRIDE, 4);
@@ -36,6 +37,30 @@ public class ParticleRenderBuffer extends AbstractMirroredVertexArrayBuffer<Mirr
         return buffer;
     }
 
+    @Override
+    public void updateGPU(int offset, int len) {
+        super.updateGPU(offset, len);
+        uploadedBytes += (long) len * getStride() * Float.BYTES;
+    }
+
+    /**
+     * Uploads the first particles to the GPU, after orphaning the previous storage of the GPU buffer.
+     * See {@link MirroredFloatBuffer#streamGPU}.
+     *
+     * @param len The number of particles to upload.
+     */
+    public void streamGPU(int len) {
+        getBuffer().streamGPU(len * getStride());
+        uploadedBytes += (long) len * getStride() * Float.BYTES;
+    }
+
+    /**
+     * @return The total number of bytes uploaded to the GPU by this buffer.
+     */
+    public long getUploadedBytes() {
+        return uploadedBytes;
+    }
+
     public float getPosX(int offset) {
         return internalState[offset + POS_X];
     }
@@ -52,6 +77,20 @@ public class ParticleRenderBuffer extends AbstractMirroredVertexArrayBuffer<Mirr
         }
     }
 
+    /**
+     * Copies the state of the first particles to the destination array.
+     */
+    void copyTo(float[] destination, int len) {
+        System.arraycopy(internalState, 0, destination, 0, len * STRIDE);
+    }
+
+    /**
+     * Replaces the state of the first particles with the source array. The capacity must be sufficient.
+     */
+    void copyFrom(float[] source, int len) {
+        System.arraycopy(source, 0, internalState, 0, len * STRIDE);
+    }
+
     public void setPosX(int offset, float value) {
         internalState[offset + POS_X] = value;
     }
@@ -6,4 +6,22 @@ public interface ParticleRenderer {
 
     void render(Object particleSystem, OpenGLBuffer renderBuffer, boolean gpuOutdated, int offset, int len, float alpha);
 
+    /**
+     * Renders the particles in the specified range. Only the particles in the dirty range have changed since the last
+     * time they were rendered. By default, all particles are treated as changed if any particle has changed.
+     *
+     * @param dirtyOffset The index of the first changed particle.
+     * @param dirtyLen    The number of changed particles, or 0 if no particle has changed.
+     */
+    default void render(
+            Object particleSystem,
+            OpenGLBuffer renderBuffer,
+            int dirtyOffset,
+            int dirtyLen,
+            int offset,
+            int len,
+            float alpha) {
+        render(particleSystem, renderBuffer, dirtyLen > 0, offset, len, alpha);
+    }
+
 }
@@ -1,11 +1,15 @@
 package com.gamelibrary2d.particles;
 
+import com.gamelibrary2d.SinCosTable;
 import com.gamelibrary2d.io.DataBuffer;
 import com.gamelibrary2d.io.Serializable;
+import com.gamelibrary2d.random.RandomGenerator;
 import com.gamelibrary2d.random.RandomInstance;
 
+import java.nio.FloatBuffer;
+
 public class ParticleSpawnParameters implements Serializable {
-    private static final int STRIDE = 8;
+    static final int STRIDE = 8;
 
     private static final int ANGLE = 0;
     private static final int ANGLE_VAR = 1;
@@ -34,6 +38,13 @@ public class ParticleSpawnParameters implements Serializable {
         }
     }
 
+    /**
+     * Bulk-copies settings from the buffer, see {@link ParticlePresetBundle}.
+     */
+    ParticleSpawnParameters(FloatBuffer buffer) {
+        buffer.get(internalState);
+    }
+
     @Override
     public final void serialize(DataBuffer buffer) {
         for (int i = 0; i < STRIDE; ++i) {
@@ -149,6 +160,17 @@ public class ParticleSpawnParameters implements Serializable {
     }
 
     public double apply(Particle particle, float x, float y) {
+        return apply(particle, x, y, RandomInstance.get(), false);
+    }
+
+    /**
+     * Spawns the particle at the specified position.
+     *
+     * @param random      The random generator used for the variances.
+     * @param lookupTable True to compute the spawn direction with {@link SinCosTable}.
+     * @return The spawn angle, in radians.
+     */
+    public double apply(Particle particle, float x, float y, RandomGenerator random, boolean lookupTable) {
         float posX = 0f, posY = 0f;
 
         float radiusX = getRadiusX();
@@ -156,10 +178,10 @@ public class ParticleSpawnParameters implements Serializable {
         float radiusY = getRadiusY();
         float radiusYVar = getRadiusYVar();
         if (radiusX != 0f || radiusXVar != 0f || radiusY != 0f || radiusYVar != 0f) {
-            float angle = getAngle() - getAngleVar() * RandomInstance.random11() - 90;
+            float angle = getAngle() - getAngleVar() * RandomInstance.random11(random) - 90;
             double angleRadians = angle * Math.PI / 180d;
 
-            double alpha = RandomInstance.get().nextDouble();
+            double alpha = random.nextDouble();
 
             double minRx = radiusX - radiusXVar;
             double maxRx = radiusX + radiusXVar;
@@ -169,15 +191,17 @@ public class ParticleSpawnParameters implements Serializable {
             double maxRy = radiusY + radiusYVar;
             double ry = minRy * (1.0 - alpha) + maxRy * alpha;
 
-            posX += (float) (Math.cos(angleRadians) * rx);
-            posY += (float) (-Math.sin(angleRadians) * ry);
+            double cos = lookupTable ? SinCosTable.cos(angleRadians) : Math.cos(angleRadians);
+            double sin = lookupTable ? SinCosTable.sin(angleRadians) : Math.sin(angleRadians);
+            posX += (float) (cos * rx);
+            posY += (float) (-sin * ry);
         }
 
         float offsetXVar = getOffsetXVar();
         float offsetYVar = getOffsetYVar();
         if (offsetXVar != 0f || offsetYVar != 0f) {
-            posX += offsetXVar * RandomInstance.random11();
-            posY += offsetYVar * RandomInstance.random11();
+            posX += offsetXVar * RandomInstance.random11(random);
+            posY += offsetYVar * RandomInstance.random11(random);
         }
 
         particle.setPosition(x + getOffsetX() + posX, y + getOffsetY() + posY);
@@ -0,0 +1,101 @@
+package com.gamelibrary2d.particles;
+
+import com.gamelibrary2d.random.SplittableRandomGenerator;
+
+/**
+ * A copy of the state of a {@link DefaultParticleSystem}, taken with {@link DefaultParticleSystem#snapshot} and
+ * restored with {@link DefaultParticleSystem#restore}. The snapshot is meant to be reused: its arrays are only
+ * reallocated when they are too small for the particles of the system.
+ */
+public final class ParticleSystemSnapshot {
+    private final ParticleLayout layout;
+
+    final float[] externalSpeed = new float[2];
+    final float[] externalAcceleration = new float[2];
+
+    /**
+     * The render state of {@link ParticleLayout#INTERLEAVED interleaved} particles.
+     */
+    float[] renderState;
+
+    /**
+     * The update state of interleaved particles, or the float attributes of
+     * {@link ParticleLayout#STRUCT_OF_ARRAYS struct-of-arrays} particles.
+     */
+    float[] updateState;
+
+    /**
+     * The boolean attributes of struct-of-arrays particles.
+     */
+    boolean[] flags;
+
+    int particleCount;
+
+    /**
+     * The state of the random generator of the particle system, if it is a {@link SplittableRandomGenerator}.
+     */
+    SplittableRandomGenerator randomState;
+
+    boolean hasRandomState;
+
+    private int capacity;
+
+    /**
+     * Creates a snapshot for particle systems with the specified layout.
+     *
+     * @param layout   The particle layout.
+     * @param capacity The number of particles the snapshot can hold before its arrays are reallocated.
+     */
+    public ParticleSystemSnapshot(ParticleLayout layout, int capacity) {
+        this.layout = layout;
+        allocate(Math.max(1, capacity));
+    }
+
+    private void allocate(int capacity) {
+        this.capacity = capacity;
+        if (layout == ParticleLayout.STRUCT_OF_ARRAYS) {
+            renderState = null;
+            updateState = new float[capacity * InternalParticleArrays.FLOAT_ATTRIBUTES];
+            flags = new boolean[capacity * InternalParticleArrays.BOOLEAN_ATTRIBUTES];
+        } else {
+            renderState = new float[capacity * ParticleRenderBuffer.STRIDE];
+            updateState = new float[capacity * ParticleUpdateBuffer.STRIDE];
+            flags = null;
+        }
+    }
+
+    /**
+     * Makes room for the specified number of particles. The content of the snapshot is discarded if the arrays are
+     * reallocated.
+     */
+    void ensureCapacity(int minCapacity) {
+        if (capacity < minCapacity) {
+            allocate(Math.max(capacity * 2, minCapacity));
+        }
+    }
+
+    public ParticleLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return The number of particles the snapshot can hold before its arrays are reallocated.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return The number of particles in the snapshot.
+     */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    /**
+     * @return True if the snapshot contains the state of the random generator of the particle system.
+     */
+    public boolean hasRandomState() {
+        return hasRandomState;
+    }
+}
@@ -83,6 +83,20 @@ public class ParticleUpdateBuffer extends AbstractInterleavedBuffer<MirroredFloa
         }
     }
 
+    /**
+     * Copies the state of the first particles to the destination array.
+     */
+    void copyTo(float[] destination, int len) {
+        System.arraycopy(internalState, 0, destination, 0, len * STRIDE);
+    }
+
+    /**
+     * Replaces the state of the first particles with the source array. The capacity must be sufficient.
+     */
+    void copyFrom(float[] source, int len) {
+        System.arraycopy(source, 0, internalState, 0, len * STRIDE);
+    }
+
     float getExternalSpeedX(int offset) {
         return internalState[offset + EXTERNAL_SPEED_X];
     }
@@ -1,11 +1,15 @@
 package com.gamelibrary2d.particles;
 
+import com.gamelibrary2d.SinCosTable;
 import com.gamelibrary2d.io.DataBuffer;
 import com.gamelibrary2d.io.Serializable;
+import com.gamelibrary2d.random.RandomGenerator;
 import com.gamelibrary2d.random.RandomInstance;
 
+import java.nio.FloatBuffer;
+
 public class ParticleUpdateParameters implements Serializable {
-    private final static int STRIDE = 52;
+    final static int STRIDE = 52;
 
     private final static int LIFE = 0;
     private final static int LIFE_VAR = 1;
@@ -95,6 +99,13 @@ public class ParticleUpdateParameters implements Serializable {
         }
     }
 
+    /**
+     * Bulk-copies settings from the buffer, see {@link ParticlePresetBundle}.
+     */
+    ParticleUpdateParameters(FloatBuffer buffer) {
+        buffer.get(internalState);
+    }
+
     @Override
     public void serialize(DataBuffer buffer) {
         for (int i = 0; i < STRIDE; ++i) {
@@ -568,89 +579,107 @@ public class ParticleUpdateParameters implements Serializable {
     }
 
     public void apply(Particle particle, float x, float y, double spawnAngle) {
+        apply(particle, x, y, spawnAngle, RandomInstance.get(), false);
+    }
+
+    /**
+     * Applies the parameters to a spawned particle.
+     *
+     * @param random      The random generator used for the variances.
+     * @param lookupTable True to compute the velocity direction with {@link SinCosTable}.
+     */
+    public void apply(
+            Particle particle,
+            float x,
+            float y,
+            double spawnAngle,
+            RandomGenerator random,
+            boolean lookupTable) {
         if (isIndividualGravityCenter()) {
             particle.setGravityCenter(particle.getPosX(), particle.getPosY());
         } else {
             particle.setGravityCenter(x, y);
         }
 
-        float emittedLife = getLife() + getLifeVar() * RandomInstance.random11();
+        float emittedLife = getLife() + getLifeVar() * RandomInstance.random11(random);
 
-        float emittedColor0 = getColorR() + getColorRVar() * RandomInstance.random11();
-        float emittedColor1 = getColorG() + getColorGVar() * RandomInstance.random11();
-        float emittedColor2 = getColorB() + getColorBVar() * RandomInstance.random11();
-        float emittedAlpha = getAlpha() + getAlphaVar() * RandomInstance.random11();
+        float emittedColor0 = getColorR() + getColorRVar() * RandomInstance.random11(random);
+        float emittedColor1 = getColorG() + getColorGVar() * RandomInstance.random11(random);
+        float emittedColor2 = getColorB() + getColorBVar() * RandomInstance.random11(random);
+        float emittedAlpha = getAlpha() + getAlphaVar() * RandomInstance.random11(random);
 
-        float emittedScale = getScale() + getScaleVar() * RandomInstance.random11();
+        float emittedScale = getScale() + getScaleVar() * RandomInstance.random11(random);
 
-        float emittedSpeed = getSpeed() + getSpeedVar() * RandomInstance.random11();
+        float emittedSpeed = getSpeed() + getSpeedVar() * RandomInstance.random11(random);
 
         float velocityX = 0, velocityY = 0;
         if (emittedSpeed != 0) {
             if (isMovingFromCenter()) {
-                velocityX = (float) Math.cos(spawnAngle) * emittedSpeed;
-                velocityY = (float) -Math.sin(spawnAngle) * emittedSpeed;
+                float spawnCos = lookupTable ? SinCosTable.cos(spawnAngle) : (float) Math.cos(spawnAngle);
+                float spawnSin = lookupTable ? SinCosTable.sin(spawnAngle) : (float) Math.sin(spawnAngle);
+                velocityX = spawnCos * emittedSpeed;
+                velocityY = -spawnSin * emittedSpeed;
             } else {
                 velocityY = emittedSpeed;
             }
 
-            float direction = getDirection() + getDirectionVar() * RandomInstance.random11();
+            float direction = getDirection() + getDirectionVar() * RandomInstance.random11(random);
             double directionRadians = direction * Math.PI / 180d;
-            double sin = Math.sin(directionRadians);
-            double cos = Math.cos(directionRadians);
+            double sin = lookupTable ? SinCosTable.sin(directionRadians) : Math.sin(directionRadians);
+            double cos = lookupTable ? SinCosTable.cos(directionRadians) : Math.cos(directionRadians);
             float velocityX0 = velocityX;
             velocityX = (float) (velocityX0 * cos + velocityY * sin);
             velocityY = (float) (-velocityX0 * sin + velocityY * cos);
         }
 
-        float endSpeedFactor = getEndSpeedFactor() + getEndSpeedFactorVar() * RandomInstance.random11();
+        float endSpeedFactor = getEndSpeedFactor() + getEndSpeedFactorVar() * RandomInstance.random11(random);
 
         particle.setScale(emittedScale);
-        particle.setRotation(getRotation() + getRotationVar() * RandomInstance.random11());
+        particle.setRotation(getRotation() + getRotationVar() * RandomInstance.random11(random));
 
         particle.setColor(emittedColor0 / 255f, emittedColor1 / 255f, emittedColor2 / 255f, emittedAlpha);
 
-        particle.setDelay(getDelay() + getDelayVar() * RandomInstance.random11());
+        particle.setDelay(getDelay() + getDelayVar() * RandomInstance.random11(random));
 
         particle.setLife(emittedLife);
         particle.setEndSpeedFactor(endSpeedFactor);
         particle.setVelocity(velocityX, velocityY);
 
         particle.setAccelerationX(
-                getAccelerationX() + getAccelerationXVar() * RandomInstance.random11());
+                getAccelerationX() + getAccelerationXVar() * RandomInstance.random11(random));
 
         particle.setAccelerationY(
-                getAccelerationY() + getAccelerationYVar() * RandomInstance.random11());
+                getAccelerationY() + getAccelerationYVar() * RandomInstance.random11(random));
 
-        particle.setCentripetalAcceleration(getCentripetalAcceleration() + getCentripetalAccelerationVar() * RandomInstance.random11());
-        particle.setTangentialAcceleration(getTangentialAcceleration() + getTangentialAccelerationVar() * RandomInstance.random11());
+        particle.setCentripetalAcceleration(getCentripetalAcceleration() + getCentripetalAccelerationVar() * RandomInstance.random11(random));
+        particle.setTangentialAcceleration(getTangentialAcceleration() + getTangentialAccelerationVar() * RandomInstance.random11(random));
 
         if (isRotatedForward()) {
             particle.setRotatedForward(true);
         } else {
             particle.setRotatedForward(false);
-            particle.setRotationSpeed(getRotationSpeed() + getRotationSpeedVar() * RandomInstance.random11());
-            particle.setRotationAcceleration(getRotationAcceleration() + getRotationAccelerationVar() * RandomInstance.random11());
+            particle.setRotationSpeed(getRotationSpeed() + getRotationSpeedVar() * RandomInstance.random11(random));
+            particle.setRotationAcceleration(getRotationAcceleration() + getRotationAccelerationVar() * RandomInstance.random11(random));
         }
 
         if (isUpdatingScale()) {
-            float randomizedEndScaleVar = getEndScaleVar() * RandomInstance.random11();
+            float randomizedEndScaleVar = getEndScaleVar() * RandomInstance.random11(random);
             particle.setDeltaScale(((getEndScale() + randomizedEndScaleVar) - emittedScale) / emittedLife);
         } else {
             particle.setDeltaScale(0);
         }
 
         float deltaAlpha = isUpdatingAlpha()
-                ? ((getEndAlpha() + getEndAlphaVar() * RandomInstance.random11()) - emittedAlpha) / emittedLife
+                ? ((getEndAlpha() + getEndAlphaVar() * RandomInstance.random11(random)) - emittedAlpha) / emittedLife
                 : 0;
 
         if (isUpdatingColor()) {
             particle.setDeltaColor(
-                    ((getEndColorR() + getEndColorRVar() * RandomInstance.random11()) - emittedColor0)
+                    ((getEndColorR() + getEndColorRVar() * RandomInstance.random11(random)) - emittedColor0)
                             / (255f * emittedLife),
-                    ((getEndColorG() + getEndColorGVar() * RandomInstance.random11()) - emittedColor1)
+                    ((getEndColorG() + getEndColorGVar() * RandomInstance.random11(random)) - emittedColor1)
                             / (255f * emittedLife),
-                    ((getEndColorB() + getEndColorBVar() * RandomInstance.random11()) - emittedColor2)
+                    ((getEndColorB() + getEndColorBVar() * RandomInstance.random11(random)) - emittedColor2)
                             / (255f * emittedLife),
                     deltaAlpha);
         } else {
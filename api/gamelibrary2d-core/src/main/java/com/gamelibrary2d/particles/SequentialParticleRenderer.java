@@ -1,15 +1,60 @@
 package com.gamelibrary2d.particles;
 
+import com.gamelibrary2d.OpenGL;
+import com.gamelibrary2d.disposal.Disposer;
 import com.gamelibrary2d.opengl.ModelMatrix;
+import com.gamelibrary2d.opengl.OpenGLState;
+import com.gamelibrary2d.opengl.buffers.MirroredFloatBuffer;
 import com.gamelibrary2d.opengl.buffers.OpenGLBuffer;
 import com.gamelibrary2d.opengl.renderers.ContentRenderer;
+import com.gamelibrary2d.opengl.renderers.SurfaceRenderer;
+import com.gamelibrary2d.opengl.resources.Surface;
+import com.gamelibrary2d.opengl.resources.Texture;
 import com.gamelibrary2d.opengl.shaders.ShaderParameter;
+import com.gamelibrary2d.opengl.shaders.ShaderProgram;
 
 public class SequentialParticleRenderer implements ParticleRenderer {
+    private final static String TRANSFORM_ATTRIBUTE = "instanceTransform";
+    private final static String COLOR_ATTRIBUTE = "instanceColor";
+    private final static String TIME_ATTRIBUTE = "instanceTime";
+
+    /**
+     * The number of floats per instance: position, scale, rotation, color and time.
+     */
+    private final static int INSTANCE_STRIDE = 9;
+    private final static int INITIAL_INSTANCE_CAPACITY = 256;
+
+    private final MirroredFloatBuffer instanceBuffer;
+    private final float[] instanceParameters = new float[ShaderParameter.MIN_PARAMETERS];
+
     private ContentRenderer renderer;
+    private ShaderProgram instancedShaderProgram;
 
     public SequentialParticleRenderer(ContentRenderer renderer) {
+        this(renderer, null);
+    }
+
+    private SequentialParticleRenderer(ContentRenderer renderer, MirroredFloatBuffer instanceBuffer) {
         this.renderer = renderer;
+        this.instanceBuffer = instanceBuffer;
+    }
+
+    /**
+     * Creates a renderer that draws all particles with a single instanced draw call. The transform, color and time of
+     * each particle are packed into an instance buffer, and the surface of the {@link SurfaceRenderer} is drawn once
+     * per particle. Other content renderers can not be instanced, and are rendered sequentially.
+     *
+     * @param renderer The content renderer.
+     * @param disposer The disposer of the instance buffer.
+     */
+    public static SequentialParticleRenderer createInstanced(ContentRenderer renderer, Disposer disposer) {
+        MirroredFloatBuffer instanceBuffer = MirroredFloatBuffer.create(
+                new float[INITIAL_INSTANCE_CAPACITY * INSTANCE_STRIDE],
+                OpenGL.GL_ARRAY_BUFFER,
+                OpenGL.GL_DYNAMIC_DRAW,
+                disposer);
+
+        return new SequentialParticleRenderer(renderer, instanceBuffer);
     }
 
     public ContentRenderer getRenderer() {
@@ -20,6 +65,32 @@ public class SequentialParticleRenderer implements ParticleRenderer {
         this.renderer = renderer;
     }
 
+    /**
+     * @return True if the renderer was {@link #createInstanced created} for instanced rendering.
+     */
+    public boolean isInstanced() {
+        return instanceBuffer != null;
+    }
+
+    /**
+     * @return The shader program used for instanced rendering.
+     */
+    public ShaderProgram getInstancedShaderProgram() {
+        return instancedShaderProgram != null
+                ? instancedShaderProgram
+                : OpenGLState.getInstancedParticleShaderProgram();
+    }
+
+    /**
+     * Sets the shader program used for instanced rendering. The program receives the per-particle attributes
+     * "instanceTransform" (position, scale and rotation), "instanceColor" and "instanceTime".
+     *
+     * @param shaderProgram The shader program, or null to use the default program.
+     */
+    public void setInstancedShaderProgram(ShaderProgram shaderProgram) {
+        this.instancedShaderProgram = shaderProgram;
+    }
+
     @Override
     public void render(Object particleSystem, OpenGLBuffer buffer, boolean gpuOutdated, int offset, int len, float alpha) {
         if (!(buffer instanceof ParticleRenderBuffer)) {
@@ -28,43 +99,155 @@ public class SequentialParticleRenderer implements ParticleRenderer {
 
         if (renderer != null) {
             ParticleRenderBuffer renderBuffer = (ParticleRenderBuffer) buffer;
+            if (instanceBuffer != null && renderer instanceof SurfaceRenderer) {
+                renderInstanced(particleSystem, renderBuffer, offset, len, alpha, (SurfaceRenderer<?>) renderer);
+            } else {
+                renderSequential(particleSystem, renderBuffer, offset, len, alpha);
+            }
+        }
+    }
 
-            ModelMatrix modelMatrix = ModelMatrix.instance();
+    private void renderSequential(
+            Object particleSystem,
+            ParticleRenderBuffer renderBuffer,
+            int offset,
+            int len,
+            float alpha) {
+        ModelMatrix modelMatrix = ModelMatrix.instance();
 
-            int end = offset + len;
-            for (int i = offset; i < end; ++i) {
-                int renderOffset = i * renderBuffer.getStride();
+        int end = offset + len;
+        for (int i = offset; i < end; ++i) {
+            int renderOffset = i * renderBuffer.getStride();
 
-                modelMatrix.pushMatrix();
+            modelMatrix.pushMatrix();
 
-                modelMatrix.translatef(
-                        renderBuffer.getPosX(renderOffset),
-                        renderBuffer.getPosY(renderOffset),
-                        0);
+            modelMatrix.translatef(
+                    renderBuffer.getPosX(renderOffset),
+                    renderBuffer.getPosY(renderOffset),
+                    0);
 
-                modelMatrix.rotatef(-renderBuffer.getRotation(renderOffset), 0, 0, 1);
+            modelMatrix.rotatef(-renderBuffer.getRotation(renderOffset), 0, 0, 1);
 
-                modelMatrix.scalef(
-                        renderBuffer.getScale(renderOffset),
-                        renderBuffer.getScale(renderOffset),
-                        1.0f);
+            modelMatrix.scalef(
+                    renderBuffer.getScale(renderOffset),
+                    renderBuffer.getScale(renderOffset),
+                    1.0f);
 
-                if (particleSystem instanceof DefaultParticleSystem) {
-                    renderer.setShaderParameter(
-                            ShaderParameter.TIME,
-                            ((DefaultParticleSystem) particleSystem).getParticleTime(i));
-                }
+            if (particleSystem instanceof DefaultParticleSystem) {
+                renderer.setShaderParameter(
+                        ShaderParameter.TIME,
+                        ((DefaultParticleSystem) particleSystem).getParticleTime(i));
+            }
 
-                renderer.setColor(
-                        renderBuffer.getColorR(renderOffset),
-                        renderBuffer.getColorG(renderOffset),
-                        renderBuffer.getColorB(renderOffset),
-                        renderBuffer.getColorA(renderOffset));
+            renderer.setColor(
+                    renderBuffer.getColorR(renderOffset),
+                    renderBuffer.getColorG(renderOffset),
+                    renderBuffer.getColorB(renderOffset),
+                    renderBuffer.getColorA(renderOffset));
 
-                renderer.render(alpha);
+            renderer.render(alpha);
 
-                modelMatrix.popMatrix();
-            }
+            modelMatrix.popMatrix();
+        }
+    }
+
+    private void renderInstanced(
+            Object particleSystem,
+            ParticleRenderBuffer renderBuffer,
+            int offset,
+            int len,
+            float alpha,
+            SurfaceRenderer<?> renderer) {
+        Surface surface = renderer.getSurface();
+        if (surface == null || len <= 0) {
+            return;
+        }
+
+        packInstances(particleSystem, renderBuffer, offset, len);
+
+        ShaderProgram shaderProgram = getInstancedShaderProgram();
+        Texture texture = renderer.getTexture();
+        instanceParameters[ShaderParameter.COLOR_R] = 1f;
+        instanceParameters[ShaderParameter.COLOR_G] = 1f;
+        instanceParameters[ShaderParameter.COLOR_B] = 1f;
+        instanceParameters[ShaderParameter.ALPHA] = alpha;
+        instanceParameters[ShaderParameter.TEXTURED] = texture != null ? 1 : 0;
+        shaderProgram.bind();
+        shaderProgram.updateModelMatrix();
+        shaderProgram.setParameters(instanceParameters, 0, instanceParameters.length);
+        shaderProgram.applyParameters();
+
+        OpenGLState.setBlendMode(renderer.getBlendMode());
+        if (texture != null) {
+            texture.bind();
+        }
+
+        instanceBuffer.bind();
+        instanceBuffer.streamGPU(len * INSTANCE_STRIDE);
+        int transformAttribute = enableInstanceAttribute(shaderProgram, TRANSFORM_ATTRIBUTE, 4, 0);
+        int colorAttribute = enableInstanceAttribute(shaderProgram, COLOR_ATTRIBUTE, 4, 4);
+        int timeAttribute = enableInstanceAttribute(shaderProgram, TIME_ATTRIBUTE, 1, 8);
+        instanceBuffer.unbind();
+
+        surface.renderInstanced(shaderProgram, len);
+
+        disableInstanceAttribute(transformAttribute);
+        disableInstanceAttribute(colorAttribute);
+        disableInstanceAttribute(timeAttribute);
+    }
+
+    private void packInstances(Object particleSystem, ParticleRenderBuffer renderBuffer, int offset, int len) {
+        float[] instances = instanceBuffer.getData();
+        if (instances.length < len * INSTANCE_STRIDE) {
+            instances = new float[Math.max(len, instances.length / INSTANCE_STRIDE * 2) * INSTANCE_STRIDE];
+            instanceBuffer.allocate(instances);
+        }
+
+        DefaultParticleSystem defaultParticleSystem = particleSystem instanceof DefaultParticleSystem
+                ? (DefaultParticleSystem) particleSystem
+                : null;
+
+        int stride = renderBuffer.getStride();
+        for (int i = 0; i < len; ++i) {
+            int renderOffset = (offset + i) * stride;
+            int instanceOffset = i * INSTANCE_STRIDE;
+            instances[instanceOffset] = renderBuffer.getPosX(renderOffset);
+            instances[instanceOffset + 1] = renderBuffer.getPosY(renderOffset);
+            instances[instanceOffset + 2] = renderBuffer.getScale(renderOffset);
+            instances[instanceOffset + 3] = renderBuffer.getRotation(renderOffset);
+            instances[instanceOffset + 4] = renderBuffer.getColorR(renderOffset);
+            instances[instanceOffset + 5] = renderBuffer.getColorG(renderOffset);
+            instances[instanceOffset + 6] = renderBuffer.getColorB(renderOffset);
+            instances[instanceOffset + 7] = renderBuffer.getColorA(renderOffset);
+            instances[instanceOffset + 8] = defaultParticleSystem != null
+                    ? defaultParticleSystem.getParticleTime(offset + i)
+                    : 0f;
+        }
+    }
+
+    private static int enableInstanceAttribute(ShaderProgram shaderProgram, String name, int size, int offset) {
+        int location = shaderProgram.getAttributeLocation(name);
+        if (location >= 0) {
+            OpenGL openGL = OpenGL.instance();
+            openGL.glEnableVertexAttribArray(location);
+            openGL.glVertexAttribPointer(
+                    location,
+                    size,
+                    OpenGL.GL_FLOAT,
+                    false,
+                    INSTANCE_STRIDE * Float.BYTES,
+                    (long) offset * Float.BYTES);
+            openGL.glVertexAttribDivisor(location, 1);
+        }
+
+        return location;
+    }
+
+    private static void disableInstanceAttribute(int location) {
+        if (location >= 0) {
+            OpenGL openGL = OpenGL.instance();
+            openGL.glVertexAttribDivisor(location, 0);
+            openGL.glDisableVertexAttribArray(location);
         }
     }
-}
\ No newline at end of file
+}
@@ -104,6 +104,16 @@ public class Lwjgl_OpenGL implements OpenGL {
         GL20.glEnableVertexAttribArray(index);
     }
 
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+        GL20.glDisableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glVertexAttribDivisor(int index, int divisor) {
+        GL33.glVertexAttribDivisor(index, divisor);
+    }
+
     @Override
     public void glDeleteBuffers(int buffers) {
         GL15.glDeleteBuffers(buffers);
@@ -124,6 +134,16 @@ public class Lwjgl_OpenGL implements OpenGL {
         GL11.glDrawArrays(mode, first, count);
     }
 
+    @Override
+    public void glDrawElementsInstanced(int mode, int count, int type, long indices, int primcount) {
+        GL31.glDrawElementsInstanced(mode, count, type, indices, primcount);
+    }
+
+    @Override
+    public void glDrawArraysInstanced(int mode, int first, int count, int primcount) {
+        GL31.glDrawArraysInstanced(mode, first, count, primcount);
+    }
+
     @Override
     public String glGetShaderInfoLog(int id) {
         return GL20.glGetShaderInfoLog(id);
@@ -300,6 +320,31 @@ public class Lwjgl_OpenGL implements OpenGL {
         GL43.glDispatchCompute(numGroupsX, numGroupsY, numGroupsZ);
     }
 
+    @Override
+    public void glDrawArraysIndirect(int mode, long indirect) {
+        GL40.glDrawArraysIndirect(mode, indirect);
+    }
+
+    @Override
+    public void glCopyBufferSubData(int readTarget, int writeTarget, long readOffset, long writeOffset, long size) {
+        GL31.glCopyBufferSubData(readTarget, writeTarget, readOffset, writeOffset, size);
+    }
+
+    @Override
+    public long glFenceSync(int condition, int flags) {
+        return GL32.glFenceSync(condition, flags);
+    }
+
+    @Override
+    public int glClientWaitSync(long sync, int flags, long timeout) {
+        return GL32.glClientWaitSync(sync, flags, timeout);
+    }
+
+    @Override
+    public void glDeleteSync(long sync) {
+        GL32.glDeleteSync(sync);
+    }
+
     @Override
     public void glBindBufferBase(int target, int index, int buffer) {
         GL30.glBindBufferBase(target, index, buffer);
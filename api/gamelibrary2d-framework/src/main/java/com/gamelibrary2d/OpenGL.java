@@ -1,5 +1,7 @@
 package com.gamelibrary2d;
 
+import com.gamelibrary2d.io.BufferUtils;
+
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
@@ -17,6 +19,7 @@ public interface OpenGL {
     int GL_ELEMENT_ARRAY_BUFFER = 34963;
     int GL_STATIC_DRAW = 35044;
     int GL_DYNAMIC_DRAW = 35048;
+    int GL_DYNAMIC_READ = 35049;
     int GL_VERTEX_SHADER = 35633;
     int GL_FRAGMENT_SHADER = 35632;
     int GL_COMPUTE_SHADER = 37305;
@@ -43,6 +46,17 @@ public interface OpenGL {
     int GL_SHADER_STORAGE_BUFFER = 37074;
     int GL_VERTEX_ATTRIB_ARRAY_BARRIER_BIT = 1;
     int GL_SHADER_STORAGE_BARRIER_BIT = 8192;
+    int GL_COMMAND_BARRIER_BIT = 64;
+    int GL_BUFFER_UPDATE_BARRIER_BIT = 512;
+    int GL_ATOMIC_COUNTER_BARRIER_BIT = 4096;
+    int GL_DRAW_INDIRECT_BUFFER = 36671;
+    int GL_COPY_READ_BUFFER = 36662;
+    int GL_COPY_WRITE_BUFFER = 36663;
+    int GL_SYNC_GPU_COMMANDS_COMPLETE = 37143;
+    int GL_ALREADY_SIGNALED = 37146;
+    int GL_TIMEOUT_EXPIRED = 37147;
+    int GL_CONDITION_SATISFIED = 37148;
+    int GL_WAIT_FAILED = 37149;
     int GL_POINT_SMOOTH = 2832;
     int GL_POINT_SMOOTH_HINT = 3153;
     int GL_FASTEST = 4353;
@@ -97,6 +111,31 @@ public interface OpenGL {
 
     void glEnableVertexAttribArray(int index);
 
+    /**
+     * Disables the vertex attribute array.
+     * <p>
+     * The default implementation is a software stand-in, which leaves the array enabled. An enabled array has no
+     * effect on shader programs that do not read the attribute. It should be overridden when supported.
+     * </p>
+     */
+    default void glDisableVertexAttribArray(int index) {
+
+    }
+
+    /**
+     * Sets the number of instances drawn before the attribute advances to the next element.
+     * A divisor of 0 advances the attribute per vertex.
+     * <p>
+     * The default implementation is a software stand-in, which only supports the divisor 0 that attributes have by
+     * default. It should be overridden when instanced attributes are supported.
+     * </p>
+     */
+    default void glVertexAttribDivisor(int index, int divisor) {
+        if (divisor != 0) {
+            throw new IllegalStateException("Instanced vertex attributes are not supported");
+        }
+    }
+
     void glDeleteBuffers(int buffers);
 
     void glDeleteVertexArrays(int arrays);
@@ -105,6 +144,32 @@ public interface OpenGL {
 
     void glDrawArrays(int mode, int first, int count);
 
+    /**
+     * Draws the elements once for each instance.
+     * <p>
+     * The default implementation is a software stand-in, which invokes {@link #glDrawElements} once per instance.
+     * It should be overridden when supported.
+     * </p>
+     */
+    default void glDrawElementsInstanced(int mode, int count, int type, long indices, int primcount) {
+        for (int i = 0; i < primcount; ++i) {
+            glDrawElements(mode, count, type, indices);
+        }
+    }
+
+    /**
+     * Draws the arrays once for each instance.
+     * <p>
+     * The default implementation is a software stand-in, which invokes {@link #glDrawArrays} once per instance.
+     * It should be overridden when supported.
+     * </p>
+     */
+    default void glDrawArraysInstanced(int mode, int first, int count, int primcount) {
+        for (int i = 0; i < primcount; ++i) {
+            glDrawArrays(mode, first, count);
+        }
+    }
+
     String glGetShaderInfoLog(int id);
 
     int glCreateShader(int type);
@@ -178,6 +243,67 @@ public interface OpenGL {
 
     void glBindBufferBase(int target, int index, int buffer);
 
+    /**
+     * Draws using the command stored at the specified byte offset of the buffer bound to
+     * {@link #GL_DRAW_INDIRECT_BUFFER}. The command consists of four integers: the vertex count, the instance count,
+     * the first vertex and a reserved value.
+     * <p>
+     * The default implementation is a software stand-in, which reads the command back to the CPU and invokes
+     * {@link #glDrawArrays}. It waits for the command to be written and should be overridden when supported.
+     * </p>
+     */
+    default void glDrawArraysIndirect(int mode, long indirect) {
+        IntBuffer command = BufferUtils.createIntBuffer(4);
+        glGetBufferSubData(GL_DRAW_INDIRECT_BUFFER, (int) indirect, command);
+        int count = command.get(0);
+        int instanceCount = command.get(1);
+        int first = command.get(2);
+        for (int i = 0; i < instanceCount; ++i) {
+            glDrawArrays(mode, first, count);
+        }
+    }
+
+    /**
+     * Copies data between the buffers bound to the specified targets.
+     * <p>
+     * The default implementation is a software stand-in, which reads the data back to the CPU before writing it.
+     * The size must be a multiple of four bytes.
+     * </p>
+     */
+    default void glCopyBufferSubData(int readTarget, int writeTarget, long readOffset, long writeOffset, long size) {
+        IntBuffer data = BufferUtils.createIntBuffer((int) (size / Integer.BYTES));
+        glGetBufferSubData(readTarget, (int) readOffset, data);
+        glBufferSubData(writeTarget, writeOffset, data);
+    }
+
+    /**
+     * Creates a sync object that is signaled when all previously issued commands have completed.
+     * <p>
+     * The default implementation is a software stand-in, which returns a sync object that is always signaled.
+     * This is correct as long as all previous commands complete before they return, as the software stand-ins do.
+     * </p>
+     *
+     * @return The sync object.
+     */
+    default long glFenceSync(int condition, int flags) {
+        return 1L;
+    }
+
+    /**
+     * Waits for a sync object to be signaled, or for the timeout to expire.
+     *
+     * @param timeout The timeout in nanoseconds. A timeout of 0 checks the state of the sync object without waiting.
+     * @return {@link #GL_ALREADY_SIGNALED}, {@link #GL_CONDITION_SATISFIED}, {@link #GL_TIMEOUT_EXPIRED}
+     * or {@link #GL_WAIT_FAILED}.
+     */
+    default int glClientWaitSync(long sync, int flags, long timeout) {
+        return GL_ALREADY_SIGNALED;
+    }
+
+    default void glDeleteSync(long sync) {
+
+    }
+
     void glHint(int target, int hint);
 
     void glPointSize(float size);
@@ -1,6 +1,7 @@
 package com.gamelibrary2d.network.client;
 
 import com.gamelibrary2d.io.DataBuffer;
+import com.gamelibrary2d.io.Serializable;
 import com.gamelibrary2d.network.Authenticator;
 import com.gamelibrary2d.network.Communicator;
 import com.gamelibrary2d.network.initialization.ConnectionContext;
@@ -134,5 +135,15 @@ public final class LocalServer extends AbstractServer implements ConnectionFacto
         public DataBuffer getStreamBuffer() {
             return LocalServer.super.getStreamBuffer();
         }
+
+        @Override
+        public void broadcast(Serializable message) {
+            LocalServer.super.broadcast(message);
+        }
+
+        @Override
+        public void broadcastEncrypted(Serializable message) {
+            LocalServer.super.broadcastEncrypted(message);
+        }
     }
 }
@@ -1,19 +1,29 @@
 package com.gamelibrary2d.network.server;
 
+import com.gamelibrary2d.network.Communicator;
 import com.gamelibrary2d.network.connections.ConnectionListenerRegistration;
 import com.gamelibrary2d.network.connections.ConnectionService;
+import com.gamelibrary2d.network.connections.SharedBuffer;
 import com.gamelibrary2d.network.initialization.ConnectionInitializer;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
 
 abstract class InternalAbstractNetworkServer extends AbstractServer {
-    private final ConnectionService connectionService = new ConnectionService();
+    private final ConnectionService connectionService;
     private final String hostname;
     private ConnectionListenerRegistration registration;
 
-    protected InternalAbstractNetworkServer(String hostname) {
+    protected InternalAbstractNetworkServer(String hostname, int eventLoops) {
         this.hostname = hostname;
+        this.connectionService = new ConnectionService(eventLoops);
+    }
+
+    /**
+     * @return The number of selector threads performing the socket I/O of the server.
+     */
+    public int getEventLoops() {
+        return connectionService.getEventLoops();
     }
 
     private void onConnected(SocketChannel channel) {
@@ -69,6 +79,17 @@ abstract class InternalAbstractNetworkServer extends AbstractServer {
         }
     }
 
+    @Override
+    protected boolean canShare(Communicator communicator) {
+        return communicator instanceof InternalNetworkCommunicator;
+    }
+
+    @Override
+    protected void sendShared(Communicator communicator, SharedBuffer[] messages, int[] positions, int count)
+            throws IOException {
+        ((InternalNetworkCommunicator) communicator).sendOutgoing(messages, positions, count);
+    }
+
     @Override
     protected void onStart() throws IOException {
         connectionService.start();
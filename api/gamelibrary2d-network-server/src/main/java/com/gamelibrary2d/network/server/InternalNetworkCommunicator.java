@@ -1,10 +1,13 @@
 package com.gamelibrary2d.network.server;
 
+import com.gamelibrary2d.io.DataBuffer;
 import com.gamelibrary2d.network.AbstractNetworkCommunicator;
 import com.gamelibrary2d.network.Authenticator;
 import com.gamelibrary2d.network.connections.ConnectionService;
+import com.gamelibrary2d.network.connections.SharedBuffer;
 import com.gamelibrary2d.network.initialization.ConnectionInitializer;
 
+import java.io.IOException;
 import java.nio.channels.SocketChannel;
 
 class InternalNetworkCommunicator extends AbstractNetworkCommunicator {
@@ -30,4 +33,26 @@ class InternalNetworkCommunicator extends AbstractNetworkCommunicator {
         authenticator.addAuthentication(initializer);
     }
 
+    /**
+     * Sends the outgoing buffer with shared messages inserted at the specified positions of the buffer.
+     */
+    void sendOutgoing(SharedBuffer[] messages, int[] positions, int count) throws IOException {
+        SocketChannel socketChannel = getSocketChannel();
+        if (socketChannel == null)
+            throw new IOException("Socket channel not connected");
+
+        DataBuffer outgoing = getOutgoing();
+        int limit = outgoing.limit();
+        int position = outgoing.position();
+        try {
+            outgoing.flip();
+            getConnectionService().send(socketChannel, outgoing, messages, positions, count);
+            outgoing.clear();
+        } catch (IOException e) {
+            outgoing.limit(limit);
+            outgoing.position(position);
+            throw e;
+        }
+    }
+
 }
\ No newline at end of file
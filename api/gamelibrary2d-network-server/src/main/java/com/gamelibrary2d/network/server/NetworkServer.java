@@ -1,6 +1,7 @@
 package com.gamelibrary2d.network.server;
 
 import com.gamelibrary2d.io.DataBuffer;
+import com.gamelibrary2d.io.Serializable;
 import com.gamelibrary2d.network.Authenticator;
 import com.gamelibrary2d.network.Communicator;
 import com.gamelibrary2d.network.initialization.ConnectionContext;
@@ -19,7 +20,21 @@ public final class NetworkServer extends InternalAbstractNetworkServer {
     }
 
     public NetworkServer(String hostname, ServerLogic serverLogic, Authenticator authenticator) {
-        super(hostname);
+        this(hostname, serverLogic, authenticator, 1);
+    }
+
+    /**
+     * Creates a server with the specified number of event loops. Each event loop is a selector thread, and each
+     * client is pinned to one of them for all of its socket I/O. Servers with many clients should use more than one
+     * event loop, for example one per available processor.
+     *
+     * @param hostname      The host name.
+     * @param serverLogic   The server logic.
+     * @param authenticator The authenticator, or null if clients are not authenticated.
+     * @param eventLoops    The number of selector threads.
+     */
+    public NetworkServer(String hostname, ServerLogic serverLogic, Authenticator authenticator, int eventLoops) {
+        super(hostname, eventLoops);
         host = new InternalHost(hostname);
         this.serverLogic = serverLogic;
         this.authenticator = authenticator;
@@ -135,5 +150,15 @@ public final class NetworkServer extends InternalAbstractNetworkServer {
         public DataBuffer getStreamBuffer() {
             return NetworkServer.super.getStreamBuffer();
         }
+
+        @Override
+        public void broadcast(Serializable message) {
+            NetworkServer.super.broadcast(message);
+        }
+
+        @Override
+        public void broadcastEncrypted(Serializable message) {
+            NetworkServer.super.broadcastEncrypted(message);
+        }
     }
 }
\ No newline at end of file
@@ -7,40 +7,93 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.channels.*;
-import java.util.ArrayList;
-import java.util.Hashtable;
-import java.util.Iterator;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Performs all socket I/O on a group of selector threads, called event loops. Connection listeners and outgoing
+ * connection attempts are handled by the first event loop. Each communicator is pinned to one event loop, by its
+ * identity hash, and the TCP and UDP channels of the communicator are read and written by that loop only.
+ * <p>
+ * The state of a channel is stored as the attachment of its selection key, and selected keys are dispatched without
+ * any lookups or locks. The concurrent maps are only used to find the connection of a channel when sending from
+ * other threads, and to close all channels when the service is stopped.
+ * </p>
+ */
 public class ConnectionService {
-    private final Map<SelectableChannel, InternalConnectionListener> connectionListeners = new Hashtable<>();
-    private final Map<SocketChannel, InternalTcpConnection> tcpConnections = new Hashtable<>();
-    private final Map<DatagramChannel, InternalUdpConnection> udpConnections = new Hashtable<>();
-    private final Thread thread;
-    private Selector selector;
-
+    /**
+     * Channels with a connection listener attached: server sockets, and outgoing connections that are still pending.
+     */
+    private final Set<SelectableChannel> listenerChannels = ConcurrentHashMap.newKeySet();
+    private final Map<SocketChannel, InternalTcpConnection> tcpConnections = new ConcurrentHashMap<>();
+    private final Map<DatagramChannel, InternalUdpConnection> udpConnections = new ConcurrentHashMap<>();
+    private final InternalEventLoop[] eventLoops;
+
+    /**
+     * Creates a connection service with a single event loop.
+     */
     public ConnectionService() {
-        thread = new Thread(this::run);
+        this(1);
+    }
+
+    /**
+     * Creates a connection service with the specified number of event loops.
+     *
+     * @param eventLoops The number of selector threads.
+     */
+    public ConnectionService(int eventLoops) {
+        if (eventLoops < 1) {
+            throw new IllegalArgumentException("At least one event loop is required");
+        }
+
+        this.eventLoops = new InternalEventLoop[eventLoops];
+        for (int i = 0; i < eventLoops; ++i) {
+            this.eventLoops[i] = new InternalEventLoop(this, "ConnectionService-" + i);
+        }
+    }
+
+    /**
+     * @return The number of selector threads.
+     */
+    public int getEventLoops() {
+        return eventLoops.length;
     }
 
     public boolean isRunning() {
-        return thread.isAlive();
+        for (InternalEventLoop eventLoop : eventLoops) {
+            if (eventLoop.isRunning()) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     public void start() throws IOException {
-        if (!isRunning()) {
-            selector = Selector.open();
-            thread.start();
+        for (InternalEventLoop eventLoop : eventLoops) {
+            eventLoop.start();
         }
     }
 
     public void stop() throws InterruptedException {
-        if (isRunning()) {
-            thread.interrupt();
-            if (!Thread.currentThread().equals(thread)) {
-                thread.join();
-            }
+        for (InternalEventLoop eventLoop : eventLoops) {
+            eventLoop.interrupt();
         }
+
+        for (InternalEventLoop eventLoop : eventLoops) {
+            eventLoop.join();
+        }
+    }
+
+    private InternalEventLoop acceptorLoop() {
+        return eventLoops[0];
+    }
+
+    private InternalEventLoop eventLoop(Communicator communicator) {
+        return eventLoops.length == 1
+                ? eventLoops[0]
+                : eventLoops[Math.floorMod(System.identityHashCode(communicator), eventLoops.length)];
     }
 
     public ConnectionListenerRegistration registerConnectionListener(
@@ -54,8 +107,16 @@ public class ConnectionService {
             socketChannel.socket().bind(new InetSocketAddress(hostName, port));
 
             ConnectionListenerRegistration registration = new ConnectionListenerRegistration(socketChannel, socketChannel.socket().getLocalPort());
-            connectionListeners.put(socketChannel, new InternalConnectionListener(onConnected, onConnectionFailed));
-            register(socketChannel, selector, SelectionKey.OP_ACCEPT);
+            InternalConnectionListener connectionListener = new InternalConnectionListener(onConnected, onConnectionFailed);
+            listenerChannels.add(socketChannel);
+            InternalEventLoop eventLoop = acceptorLoop();
+            eventLoop.execute(() -> {
+                try {
+                    eventLoop.register(socketChannel, SelectionKey.OP_ACCEPT, connectionListener);
+                } catch (ClosedChannelException e) {
+                    listenerChannels.remove(socketChannel);
+                }
+            });
             return registration;
         } catch (IOException e) {
             close(socketChannel);
@@ -65,7 +126,7 @@ public class ConnectionService {
 
     public void deregisterConnectionListener(ConnectionListenerRegistration registration) throws IOException {
         ServerSocketChannel channel = registration.getServerSocketChannel();
-        connectionListeners.remove(registration.getServerSocketChannel());
+        listenerChannels.remove(channel);
         channel.close();
     }
 
@@ -87,15 +148,52 @@ public class ConnectionService {
         addOutgoing(tcpConnection, buffer);
     }
 
+    /**
+     * Sends the buffer with shared messages inserted into it. The shared messages are queued by reference, and are
+     * not copied for the connection.
+     *
+     * @param channel   The channel.
+     * @param buffer    The buffer, from its position to its limit.
+     * @param messages  The shared messages.
+     * @param positions The positions of the buffer where the messages are inserted, in ascending order.
+     * @param count     The number of shared messages.
+     */
+    public void send(SocketChannel channel, DataBuffer buffer, SharedBuffer[] messages, int[] positions, int count)
+            throws IOException {
+        InternalTcpConnection tcpConnection = tcpConnections.get(channel);
+        if (tcpConnection == null) {
+            throw new IOException("No connected TCP communicator");
+        }
+
+        try {
+            if (tcpConnection.addOutgoing(buffer, messages, positions, count)) {
+                tcpConnection.getEventLoop().execute(() -> scheduleWrite(tcpConnection));
+            }
+        } catch (IOException e) {
+            tcpConnection.disconnect(e);
+            throw e;
+        }
+    }
+
     private void addOutgoing(InternalConnection connection, DataBuffer buffer) throws IOException {
         try {
-            connection.addOutgoing(selector, buffer);
+            if (connection.addOutgoing(buffer)) {
+                connection.getEventLoop().execute(() -> scheduleWrite(connection));
+            }
         } catch (IOException e) {
             connection.disconnect(e);
             throw e;
         }
     }
 
+    private void scheduleWrite(InternalConnection connection) {
+        try {
+            connection.scheduleWrite(connection.getEventLoop().getSelector());
+        } catch (IOException e) {
+            connection.disconnect(e);
+        }
+    }
+
     private void sendOutgoing(InternalConnection connection, SelectionKey key) {
         try {
             connection.sendOutgoing(key);
@@ -109,31 +207,44 @@ public class ConnectionService {
         SocketChannel channel = SocketChannel.open();
         channel.configureBlocking(false);
         channel.connect(new InetSocketAddress(hostname, port));
-        connectionListeners.put(channel, new InternalConnectionListener(onConnected, onConnectionFailed));
-        register(channel, selector, SelectionKey.OP_CONNECT);
+        InternalConnectionListener connectionListener = new InternalConnectionListener(onConnected, onConnectionFailed);
+        listenerChannels.add(channel);
+        InternalEventLoop eventLoop = acceptorLoop();
+        eventLoop.execute(() -> {
+            try {
+                eventLoop.register(channel, SelectionKey.OP_CONNECT, connectionListener);
+            } catch (ClosedChannelException e) {
+                listenerChannels.remove(channel);
+                connectionListener.onConnectionFailed(hostname, e);
+            }
+        });
     }
 
     public void connect(SocketChannel socketChannel, Communicator communicator,
                         ChannelDisconnectedHandler disconnectedHandler) {
+        InternalEventLoop eventLoop = eventLoop(communicator);
         InternalByteChannelReader dataReader = new InternalByteChannelReader(socketChannel);
-        InternalTcpConnection tcpConnection = new InternalTcpConnection(dataReader, socketChannel, communicator, exception -> {
+        InternalTcpConnection tcpConnection = new InternalTcpConnection(eventLoop, dataReader, socketChannel, communicator, exception -> {
             tcpConnections.remove(socketChannel);
             disconnectedHandler.onDisconnected(exception);
         });
 
         tcpConnections.put(socketChannel, tcpConnection);
 
-        try {
-            register(socketChannel, selector, SelectionKey.OP_READ, tcpConnection);
-        } catch (IOException e) {
-            disconnect(socketChannel, e);
-        }
+        eventLoop.execute(() -> {
+            try {
+                eventLoop.register(socketChannel, SelectionKey.OP_READ, tcpConnection);
+            } catch (IOException e) {
+                disconnect(socketChannel, e);
+            }
+        });
     }
 
     public void connect(DatagramChannel datagramChannel, Communicator communicator, ConnectionType connectionType, int hostPort, ChannelDisconnectedHandler disconnectedHandler) {
+        InternalEventLoop eventLoop = eventLoop(communicator);
         InternalByteChannelReader dataReader = new InternalByteChannelReader(datagramChannel);
 
-        InternalUdpConnection udpConnection = new InternalUdpConnection(dataReader, datagramChannel, communicator, connectionType, exception -> {
+        InternalUdpConnection udpConnection = new InternalUdpConnection(eventLoop, dataReader, datagramChannel, communicator, connectionType, exception -> {
             udpConnections.remove(datagramChannel);
             disconnectedHandler.onDisconnected(exception);
         });
@@ -144,21 +255,19 @@ public class ConnectionService {
             datagramChannel.connect(new InetSocketAddress(communicator.getEndpoint(), hostPort));
             datagramChannel.configureBlocking(false);
             if (connectionType != ConnectionType.WRITE) {
-                register(datagramChannel, selector, SelectionKey.OP_READ, udpConnection);
+                eventLoop.execute(() -> {
+                    try {
+                        eventLoop.register(datagramChannel, SelectionKey.OP_READ, udpConnection);
+                    } catch (IOException e) {
+                        disconnect(datagramChannel);
+                    }
+                });
             }
         } catch (IOException e) {
             disconnect(datagramChannel);
         }
     }
 
-    private void register(SelectableChannel channel, Selector selector, int ops) throws ClosedChannelException {
-        channel.register(selector, ops);
-    }
-
-    private void register(SelectableChannel channel, Selector selector, int ops, Object att) throws ClosedChannelException {
-        channel.register(selector, ops, att);
-    }
-
     public void disconnect(SocketChannel socketChannel) {
         disconnect(socketChannel, null);
     }
@@ -184,51 +293,37 @@ public class ConnectionService {
         }
     }
 
-    private void run() {
-        try {
-            while (!Thread.currentThread().isInterrupted()) {
-                int selectedKeys = selector.selectNow();
-                if (selectedKeys > 0) {
-                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
-                    while (keys.hasNext()) {
-                        SelectionKey key = keys.next();
-                        keys.remove();
-
-                        if (!key.isValid())
-                            continue;
-
-                        if (key.isAcceptable()) {
-                            accept(key);
-                        } else if (key.isWritable()) {
-                            write(key);
-                        } else if (key.isReadable()) {
-                            read(key);
-                        } else if (key.isConnectable()) {
-                            handleConnect(key);
-                        }
-                    }
-                } else {
-                    try {
-                        Thread.sleep(10);
-                    } catch (InterruptedException e) {
-                        break;
-                    }
-                }
+    /**
+     * Handles a selected key. Invoked on the event loop of the key.
+     */
+    void onSelected(SelectionKey key) {
+        if (key.isAcceptable()) {
+            accept(key);
+        } else if (key.isConnectable()) {
+            handleConnect(key);
+        } else {
+            // A key can be both writable and readable. Reads must not wait for the outgoing data to be sent,
+            // or they would starve while the connection is continuously written to.
+            if (key.isWritable()) {
+                write(key);
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(key);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            disconnect();
         }
     }
 
     private void handleConnect(SelectionKey key) {
         SocketChannel channel = (SocketChannel) key.channel();
-        InternalConnectionListener connectionListener = connectionListeners.remove(channel);
+        InternalConnectionListener connectionListener = (InternalConnectionListener) key.attachment();
+        listenerChannels.remove(channel);
         try {
             if (channel.isConnectionPending()) {
                 channel.finishConnect();
             }
+            // The connection may be registered with another event loop. Registering it with this one
+            // replaces the interest and the attachment of the key.
+            key.interestOps(0);
             channel.configureBlocking(false);
             connectionListener.onConnected(channel);
         } catch (IOException e) {
@@ -245,7 +340,7 @@ public class ConnectionService {
     private void accept(SelectionKey key) {
         ServerSocketChannel serverSocketChannel = (ServerSocketChannel) key.channel();
         SocketChannel socketChannel = null;
-        InternalConnectionListener connectionListener = connectionListeners.get(serverSocketChannel);
+        InternalConnectionListener connectionListener = (InternalConnectionListener) key.attachment();
 
         try {
             socketChannel = serverSocketChannel.accept();
@@ -280,23 +375,26 @@ public class ConnectionService {
         }
     }
 
-    private void disconnect() {
-        if (selector != null) {
-            close(selector);
-
-            for (Closeable channel : connectionListeners.keySet()) {
+    /**
+     * Closes the connections of an event loop that has stopped. Invoked on the stopped event loop.
+     */
+    void onEventLoopStopped(InternalEventLoop eventLoop) {
+        if (eventLoop == acceptorLoop()) {
+            for (SelectableChannel channel : listenerChannels) {
+                listenerChannels.remove(channel);
                 close(channel);
             }
-            connectionListeners.clear();
-
-            ArrayList<InternalConnection> connections = new ArrayList<>(tcpConnections.size() + udpConnections.size());
-            connections.addAll(tcpConnections.values());
-            connections.addAll((udpConnections.values()));
+        }
 
-            tcpConnections.clear();
-            udpConnections.clear();
+        // The disconnected handlers remove the connections, which is allowed while iterating concurrent maps.
+        for (InternalConnection connection : tcpConnections.values()) {
+            if (connection.getEventLoop() == eventLoop) {
+                connection.disconnect();
+            }
+        }
 
-            for (InternalConnection connection : connections) {
+        for (InternalConnection connection : udpConnections.values()) {
+            if (connection.getEventLoop() == eventLoop) {
                 connection.disconnect();
             }
         }
@@ -1,33 +1,50 @@
 package com.gamelibrary2d.network.connections;
 
 import com.gamelibrary2d.io.DataBuffer;
-import com.gamelibrary2d.io.DynamicByteBuffer;
 import com.gamelibrary2d.network.ChannelDisconnectedHandler;
 import com.gamelibrary2d.network.Communicator;
 import com.gamelibrary2d.network.DataReader;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.ArrayDeque;
 
+/**
+ * Base class of TCP and UDP connections. Outgoing data is queued in buffers from the {@link InternalBufferPool}, and
+ * the buffers are returned to the pool as soon as they have been sent. Idle connections therefore hold no buffers.
+ * Messages are appended to the last queued buffer while it has room, and each queued buffer is written to the channel
+ * directly, without being copied. Stream connections also queue slices of {@link SharedBuffer shared buffers}, and
+ * write several queued buffers with each gathering write.
+ */
 abstract class InternalAbstractConnection implements InternalConnection {
+    private static final int MAX_GATHERED_BUFFERS = 16;
+
     private final Object synchronizationKey = new Object();
+    private final InternalEventLoop eventLoop;
     private final ByteChannel channel;
     private final DataReader dataReader;
     private final Communicator communicator;
     private final ChannelDisconnectedHandler disconnectedHandler;
-    private final DataBuffer writeBuffer = new DynamicByteBuffer();
+    private final ArrayDeque<InternalPooledBuffer> outgoing = new ArrayDeque<>();
+    private final ByteBuffer[] gatheredBuffers = new ByteBuffer[MAX_GATHERED_BUFFERS];
     private final int communicationChannel;
+    private int appendPosition;
+    private boolean writeScheduled;
     private boolean scheduledToClose;
 
     public InternalAbstractConnection(
+            InternalEventLoop eventLoop,
             DataReader dataReader,
             ByteChannel channel,
             Communicator communicator,
             ChannelDisconnectedHandler disconnectedHandler,
             int communicationChannel) {
+        this.eventLoop = eventLoop;
         this.dataReader = dataReader;
         this.channel = channel;
         this.communicator = communicator;
@@ -35,39 +52,137 @@ abstract class InternalAbstractConnection implements InternalConnection {
         this.communicationChannel = communicationChannel;
     }
 
+    @Override
+    public InternalEventLoop getEventLoop() {
+        return eventLoop;
+    }
+
     @Override
     public int readIncoming() throws IOException {
         return communicator.addIncoming(communicationChannel, dataReader);
     }
 
     @Override
-    public void addOutgoing(Selector selector, DataBuffer data) throws IOException {
+    public boolean addOutgoing(DataBuffer data) throws IOException {
         if (!canWrite()) {
             throw new IOException("Connection is read-only");
         }
 
         synchronized (synchronizationKey) {
-            onScheduleWrite(writeBuffer, data);
-            ((SelectableChannel) channel).register(selector, SelectionKey.OP_WRITE, this);
+            append(data.internalByteBuffer());
+            return markWriteScheduled();
+        }
+    }
+
+    @Override
+    public boolean addOutgoing(DataBuffer data, SharedBuffer[] messages, int[] positions, int count)
+            throws IOException {
+        if (!canWrite()) {
+            throw new IOException("Connection is read-only");
+        }
+
+        synchronized (synchronizationKey) {
+            ByteBuffer buffer = data.internalByteBuffer();
+            int limit = buffer.limit();
+            try {
+                for (int i = 0; i < count; ++i) {
+                    int position = Math.min(positions[i], limit);
+                    if (position > buffer.position()) {
+                        buffer.limit(position);
+                        append(buffer);
+                        buffer.limit(limit);
+                    }
+
+                    ByteBuffer writeBuffer = beginAppend(getHeaderSize());
+                    putHeader(writeBuffer, messages[i].size());
+                    endAppend(writeBuffer);
+                    outgoing.add(messages[i].slice());
+                }
+
+                if (buffer.hasRemaining()) {
+                    append(buffer);
+                }
+            } finally {
+                buffer.limit(limit);
+            }
+
+            return markWriteScheduled();
+        }
+    }
+
+    private void append(ByteBuffer data) {
+        int messageSize = data.remaining();
+        ByteBuffer writeBuffer = beginAppend(getHeaderSize() + messageSize);
+        putHeader(writeBuffer, messageSize);
+        writeBuffer.put(data);
+        endAppend(writeBuffer);
+    }
+
+    private boolean markWriteScheduled() {
+        if (writeScheduled) {
+            return false;
+        }
+
+        writeScheduled = true;
+        return true;
+    }
+
+    /**
+     * Prepares the last queued buffer for appending the specified number of bytes. A new buffer is queued if the last
+     * buffer is shared or does not have room. Must be followed by {@link #endAppend}.
+     */
+    private ByteBuffer beginAppend(int size) {
+        InternalPooledBuffer last = outgoing.peekLast();
+        if (last != null && !last.isShared()) {
+            ByteBuffer buffer = last.buffer();
+            int maxLimit = Math.min(buffer.capacity(), getMaxBufferSize());
+            if (maxLimit - buffer.limit() >= size) {
+                // Queued buffers are kept ready for writing. Append after the limit, and restore the position after.
+                appendPosition = buffer.position();
+                buffer.position(buffer.limit());
+                buffer.limit(maxLimit);
+                return buffer;
+            }
+        }
+
+        // Grow the queued buffers while the connection falls behind, to keep their number low.
+        int capacity = last != null && !last.isShared()
+                ? Math.max(size, Math.min(last.buffer().capacity() * 2, InternalBufferPool.MAX_POOLED_CAPACITY))
+                : size;
+        InternalPooledBuffer pooledBuffer = InternalBufferPool.instance().acquire(capacity);
+        outgoing.add(pooledBuffer);
+        appendPosition = 0;
+        return pooledBuffer.buffer();
+    }
+
+    private void endAppend(ByteBuffer buffer) {
+        buffer.flip();
+        buffer.position(appendPosition);
+    }
+
+    @Override
+    public void scheduleWrite(Selector selector) throws IOException {
+        SelectableChannel selectableChannel = (SelectableChannel) channel;
+        SelectionKey key = selectableChannel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        } else {
+            selectableChannel.register(selector, SelectionKey.OP_WRITE, this);
         }
     }
 
     @Override
     public void sendOutgoing(SelectionKey key) throws IOException {
         synchronized (synchronizationKey) {
-            writeBuffer.flip();
-            channel.write(writeBuffer.internalByteBuffer());
-            int remaining = writeBuffer.remaining();
-            if (remaining > 0) {
-                int position = writeBuffer.position();
-                writeBuffer.clear();
-                writeBuffer.put(writeBuffer.array(), position, remaining);
-                key.interestOps(SelectionKey.OP_WRITE);
+            if (isStream()) {
+                sendGathered();
             } else {
-                writeBuffer.clear();
-                if (canRead()) {
-                    key.interestOps(SelectionKey.OP_READ);
-                }
+                sendEach();
+            }
+
+            if (outgoing.isEmpty()) {
+                writeScheduled = false;
+                key.interestOps(canRead() ? SelectionKey.OP_READ : 0);
             }
         }
 
@@ -76,9 +191,51 @@ abstract class InternalAbstractConnection implements InternalConnection {
         }
     }
 
+    private void sendEach() throws IOException {
+        InternalPooledBuffer pooledBuffer;
+        while ((pooledBuffer = outgoing.peek()) != null) {
+            ByteBuffer buffer = pooledBuffer.buffer();
+            channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                break;
+            }
+
+            outgoing.poll();
+            pooledBuffer.release();
+        }
+    }
+
+    private void sendGathered() throws IOException {
+        while (!outgoing.isEmpty()) {
+            int count = 0;
+            for (InternalPooledBuffer pooledBuffer : outgoing) {
+                gatheredBuffers[count++] = pooledBuffer.buffer();
+                if (count == MAX_GATHERED_BUFFERS) {
+                    break;
+                }
+            }
+
+            ((GatheringByteChannel) channel).write(gatheredBuffers, 0, count);
+            for (int i = 0; i < count; ++i) {
+                gatheredBuffers[i] = null;
+            }
+
+            InternalPooledBuffer pooledBuffer;
+            while ((pooledBuffer = outgoing.peek()) != null && !pooledBuffer.buffer().hasRemaining()) {
+                outgoing.poll();
+                pooledBuffer.release();
+            }
+
+            if (pooledBuffer != null) {
+                // The socket buffer is full.
+                break;
+            }
+        }
+    }
+
     public void disconnectWhenAllDataIsSent() {
         synchronized (synchronizationKey) {
-            scheduledToClose = writeBuffer.internalByteBuffer().position() > 0;
+            scheduledToClose = !outgoing.isEmpty();
         }
 
         if (!scheduledToClose) {
@@ -94,10 +251,20 @@ abstract class InternalAbstractConnection implements InternalConnection {
     @Override
     public void disconnect(IOException e) {
         closeChannel();
+        releaseOutgoing();
         disconnectedHandler.onDisconnected(e);
         scheduledToClose = false;
     }
 
+    private void releaseOutgoing() {
+        synchronized (synchronizationKey) {
+            InternalPooledBuffer pooledBuffer;
+            while ((pooledBuffer = outgoing.poll()) != null) {
+                pooledBuffer.release();
+            }
+        }
+    }
+
     private void closeChannel() {
         if (channel != null) {
             try {
@@ -112,5 +279,19 @@ abstract class InternalAbstractConnection implements InternalConnection {
 
     protected abstract boolean canRead();
 
-    protected abstract void onScheduleWrite(DataBuffer writeBuffer, DataBuffer data);
+    /**
+     * @return The maximum number of bytes queued in a single buffer. A single message can exceed the limit.
+     */
+    protected int getMaxBufferSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return True if the channel is stream-oriented, in which case queued buffers can be written together.
+     */
+    protected abstract boolean isStream();
+
+    protected abstract int getHeaderSize();
+
+    protected abstract void putHeader(ByteBuffer writeBuffer, int messageSize);
 }
@@ -0,0 +1,79 @@
+package com.gamelibrary2d.network.connections;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * A shared pool of direct buffers used for socket I/O. Buffers are pooled in size classes, from 1 KiB to 64 KiB, and
+ * each class retains at most {@link #MAX_RETAINED_BYTES} of free buffers. Requests larger than the largest class are
+ * served by heap buffers that are not pooled. The buffers are pooled together with their reference counts, and
+ * neither acquiring nor recycling a buffer allocates.
+ */
+final class InternalBufferPool {
+    static final int MIN_POOLED_CAPACITY = 1 << 10;
+    static final int MAX_POOLED_CAPACITY = 1 << 16;
+    static final int MAX_RETAINED_BYTES = 1 << 22;
+
+    private static final InternalBufferPool instance = new InternalBufferPool();
+
+    private final ArrayList<ArrayDeque<InternalPooledBuffer>> freeBuffers;
+
+    private InternalBufferPool() {
+        int sizeClasses = sizeClass(MAX_POOLED_CAPACITY) + 1;
+        freeBuffers = new ArrayList<>(sizeClasses);
+        for (int i = 0; i < sizeClasses; ++i) {
+            freeBuffers.add(new ArrayDeque<>());
+        }
+    }
+
+    static InternalBufferPool instance() {
+        return instance;
+    }
+
+    private static int sizeClass(int capacity) {
+        int roundedCapacity = Math.max(MIN_POOLED_CAPACITY, Integer.highestOneBit(capacity - 1) << 1);
+        return Integer.numberOfTrailingZeros(roundedCapacity) - Integer.numberOfTrailingZeros(MIN_POOLED_CAPACITY);
+    }
+
+    private static int capacity(int sizeClass) {
+        return MIN_POOLED_CAPACITY << sizeClass;
+    }
+
+    /**
+     * Acquires a cleared buffer with at least the specified capacity. The buffer must be {@link InternalPooledBuffer#release
+     * released} when no longer used.
+     */
+    InternalPooledBuffer acquire(int minCapacity) {
+        if (minCapacity > MAX_POOLED_CAPACITY) {
+            return new InternalPooledBuffer(null, ByteBuffer.allocate(minCapacity));
+        }
+
+        int sizeClass = sizeClass(minCapacity);
+        ArrayDeque<InternalPooledBuffer> buffers = freeBuffers.get(sizeClass);
+        InternalPooledBuffer pooledBuffer;
+        synchronized (buffers) {
+            pooledBuffer = buffers.pollLast();
+        }
+
+        if (pooledBuffer != null) {
+            pooledBuffer.reset();
+            return pooledBuffer;
+        }
+
+        return new InternalPooledBuffer(this, ByteBuffer.allocateDirect(capacity(sizeClass)));
+    }
+
+    /**
+     * Returns a buffer to the pool. The buffer is dropped if its size class has reached the retention limit.
+     */
+    void recycle(InternalPooledBuffer pooledBuffer) {
+        int capacity = pooledBuffer.buffer().capacity();
+        ArrayDeque<InternalPooledBuffer> buffers = freeBuffers.get(sizeClass(capacity));
+        synchronized (buffers) {
+            if (buffers.size() < MAX_RETAINED_BYTES / capacity) {
+                buffers.addLast(pooledBuffer);
+            }
+        }
+    }
+}
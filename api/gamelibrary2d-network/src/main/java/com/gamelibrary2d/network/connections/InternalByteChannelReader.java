@@ -4,8 +4,14 @@ import com.gamelibrary2d.io.DataBuffer;
 import com.gamelibrary2d.network.DataReader;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
 
+/**
+ * Reads from a channel into a direct buffer borrowed from the {@link InternalBufferPool}, which is returned to the
+ * pool when the read is done. Reading into the direct buffer avoids the temporary buffer used by NIO when reading
+ * into a heap buffer, and the largest size class holds any datagram.
+ */
 class InternalByteChannelReader implements DataReader {
     private final ReadableByteChannel channel;
 
@@ -15,23 +21,28 @@ class InternalByteChannelReader implements DataReader {
 
     @Override
     public int read(DataBuffer output) throws IOException {
-        int totalBytesRead = 0;
-
-        while (true) {
-            output.ensureRemaining(1);
-            int remaining = output.remaining();
-
-            int bytesRead = channel.read(output.internalByteBuffer());
-            if (bytesRead == -1 && totalBytesRead == 0) {
-                return -1;
+        InternalPooledBuffer readBuffer = InternalBufferPool.instance().acquire(InternalBufferPool.MAX_POOLED_CAPACITY);
+        try {
+            ByteBuffer buffer = readBuffer.buffer();
+            int totalBytesRead = 0;
+            while (true) {
+                buffer.clear();
+                int bytesRead = channel.read(buffer);
+                if (bytesRead == -1) {
+                    return totalBytesRead == 0 ? -1 : totalBytesRead;
+                }
+
+                buffer.flip();
+                output.put(buffer);
+                totalBytesRead += bytesRead;
+                if (bytesRead < buffer.capacity()) {
+                    break;
+                }
             }
 
-            totalBytesRead += bytesRead;
-            if (bytesRead < remaining) {
-                break;
-            }
+            return totalBytesRead;
+        } finally {
+            readBuffer.release();
         }
-
-        return totalBytesRead;
     }
 }
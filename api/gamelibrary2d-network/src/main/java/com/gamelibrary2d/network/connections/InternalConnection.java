@@ -7,9 +7,32 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 
 interface InternalConnection {
+    /**
+     * @return The event loop that performs all I/O of the connection.
+     */
+    InternalEventLoop getEventLoop();
+
     int readIncoming() throws IOException;
 
-    void addOutgoing(Selector selector, DataBuffer data) throws IOException;
+    /**
+     * Adds data to the outgoing buffer.
+     *
+     * @return True if the connection must be {@link #scheduleWrite scheduled} for writing.
+     */
+    boolean addOutgoing(DataBuffer data) throws IOException;
+
+    /**
+     * Adds data to the outgoing data, with shared messages inserted at the specified positions of the data. A
+     * reference to each shared message is queued, without copying it. Only supported by stream connections.
+     *
+     * @return True if the connection must be {@link #scheduleWrite scheduled} for writing.
+     */
+    boolean addOutgoing(DataBuffer data, SharedBuffer[] messages, int[] positions, int count) throws IOException;
+
+    /**
+     * Enables write interest for the connection. Must be invoked on the selector thread.
+     */
+    void scheduleWrite(Selector selector) throws IOException;
 
     void sendOutgoing(SelectionKey key) throws IOException;
 
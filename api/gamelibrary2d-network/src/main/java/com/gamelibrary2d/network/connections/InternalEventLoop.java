@@ -0,0 +1,120 @@
+package com.gamelibrary2d.network.connections;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A selector thread of a {@link ConnectionService}. The thread blocks until one of its channels is ready, or until it
+ * is woken up by a task submitted from another thread. Registrations and changes of interest are always performed on
+ * the selector thread, since they would otherwise block while the selector is waiting.
+ */
+class InternalEventLoop {
+    private final ConnectionService connectionService;
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile Selector selector;
+
+    InternalEventLoop(ConnectionService connectionService, String name) {
+        this.connectionService = connectionService;
+        thread = new Thread(this::run, name);
+    }
+
+    boolean isRunning() {
+        return thread.isAlive();
+    }
+
+    boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    Selector getSelector() {
+        return selector;
+    }
+
+    void start() throws IOException {
+        if (!isRunning()) {
+            selector = Selector.open();
+            thread.start();
+        }
+    }
+
+    void interrupt() {
+        thread.interrupt();
+    }
+
+    void join() throws InterruptedException {
+        if (!inEventLoop()) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Registers the channel with the selector. Must be invoked on the selector thread.
+     */
+    void register(SelectableChannel channel, int ops, Object att) throws ClosedChannelException {
+        channel.register(selector, ops, att);
+    }
+
+    /**
+     * Runs the task on the selector thread. If invoked from another thread, the task is queued and the selector is
+     * woken up to run it.
+     */
+    void execute(Runnable task) {
+        if (inEventLoop()) {
+            task.run();
+        } else {
+            pendingTasks.add(task);
+            Selector selector = this.selector;
+            if (selector != null) {
+                selector.wakeup();
+            }
+        }
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                runPendingTasks();
+                int selectedKeys = selector.select();
+                if (selectedKeys > 0) {
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isValid()) {
+                            connectionService.onSelected(key);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            close();
+        }
+    }
+
+    private void close() {
+        try {
+            selector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        pendingTasks.clear();
+        connectionService.onEventLoopStopped(this);
+    }
+}
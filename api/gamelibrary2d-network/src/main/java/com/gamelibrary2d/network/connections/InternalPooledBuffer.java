@@ -0,0 +1,77 @@
+package com.gamelibrary2d.network.connections;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference-counted buffer from the {@link InternalBufferPool}. The buffer is returned to the pool when its last
+ * reference is released. {@link #slice Slices} share the memory of the buffer and hold a reference to it, which
+ * allows the same data to be queued by several connections without copying it.
+ */
+final class InternalPooledBuffer {
+    private final InternalBufferPool pool;
+    private final InternalPooledBuffer parent;
+    private final ByteBuffer buffer;
+    private final AtomicInteger referenceCount = new AtomicInteger(1);
+
+    InternalPooledBuffer(InternalBufferPool pool, ByteBuffer buffer) {
+        this(pool, null, buffer);
+    }
+
+    private InternalPooledBuffer(InternalBufferPool pool, InternalPooledBuffer parent, ByteBuffer buffer) {
+        this.pool = pool;
+        this.parent = parent;
+        this.buffer = buffer;
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return True if this is a slice, or if the buffer has been sliced or retained. Shared buffers must not be
+     * modified.
+     */
+    boolean isShared() {
+        return parent != null || referenceCount.get() > 1;
+    }
+
+    /**
+     * Creates a read-only slice of the remaining bytes of the buffer. The slice has its own position, and holds a
+     * reference to the buffer until the slice is released.
+     */
+    InternalPooledBuffer slice() {
+        retain();
+        return new InternalPooledBuffer(null, this, buffer.asReadOnlyBuffer());
+    }
+
+    /**
+     * Prepares a recycled buffer for reuse.
+     */
+    void reset() {
+        buffer.clear();
+        referenceCount.set(1);
+    }
+
+    InternalPooledBuffer retain() {
+        if (referenceCount.getAndIncrement() <= 0) {
+            referenceCount.getAndDecrement();
+            throw new IllegalStateException("Buffer has been released");
+        }
+
+        return this;
+    }
+
+    void release() {
+        int count = referenceCount.decrementAndGet();
+        if (count == 0) {
+            if (parent != null) {
+                parent.release();
+            } else if (pool != null) {
+                pool.recycle(this);
+            }
+        } else if (count < 0) {
+            throw new IllegalStateException("Buffer has already been released");
+        }
+    }
+}
@@ -1,23 +1,32 @@
 package com.gamelibrary2d.network.connections;
 
-import com.gamelibrary2d.io.DataBuffer;
 import com.gamelibrary2d.network.ChannelDisconnectedHandler;
 import com.gamelibrary2d.network.Communicator;
 import com.gamelibrary2d.network.DataReader;
 
+import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 
 class InternalTcpConnection extends InternalAbstractConnection {
 
-    InternalTcpConnection(DataReader dataReader, SocketChannel channel, Communicator communicator, ChannelDisconnectedHandler disconnectedHandler) {
-        super(dataReader, channel, communicator, disconnectedHandler, 0);
+    InternalTcpConnection(InternalEventLoop eventLoop, DataReader dataReader, SocketChannel channel, Communicator communicator, ChannelDisconnectedHandler disconnectedHandler) {
+        super(eventLoop, dataReader, channel, communicator, disconnectedHandler, 0);
     }
 
     @Override
-    protected void onScheduleWrite(DataBuffer writeBuffer, DataBuffer data) {
-        writeBuffer.putBool(false);
-        writeBuffer.putInt(data.remaining());
-        writeBuffer.put(data);
+    protected boolean isStream() {
+        return true;
+    }
+
+    @Override
+    protected int getHeaderSize() {
+        return 1 + Integer.BYTES;
+    }
+
+    @Override
+    protected void putHeader(ByteBuffer writeBuffer, int messageSize) {
+        writeBuffer.put((byte) 0);
+        writeBuffer.putInt(messageSize);
     }
 
     @Override
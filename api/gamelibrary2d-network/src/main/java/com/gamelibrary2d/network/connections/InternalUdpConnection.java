@@ -1,30 +1,49 @@
 package com.gamelibrary2d.network.connections;
 
-import com.gamelibrary2d.io.DataBuffer;
 import com.gamelibrary2d.network.ChannelDisconnectedHandler;
 import com.gamelibrary2d.network.Communicator;
 import com.gamelibrary2d.network.ConnectionType;
 import com.gamelibrary2d.network.DataReader;
 
+import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 
 class InternalUdpConnection extends InternalAbstractConnection {
+    /**
+     * The maximum payload of an IPv4 datagram. Each queued buffer is sent as one datagram.
+     */
+    private static final int MAX_DATAGRAM_SIZE = 65507;
+
     private final ConnectionType connectionType;
     private int prevTransmissionId;
 
-    InternalUdpConnection(DataReader dataReader, DatagramChannel channel, Communicator communicator, ConnectionType connectionType,
+    InternalUdpConnection(InternalEventLoop eventLoop, DataReader dataReader, DatagramChannel channel, Communicator communicator, ConnectionType connectionType,
                           ChannelDisconnectedHandler disconnectedHandler) {
-        super(dataReader, channel, communicator, disconnectedHandler, 1);
+        super(eventLoop, dataReader, channel, communicator, disconnectedHandler, 1);
         this.connectionType = connectionType;
     }
 
     @Override
-    protected void onScheduleWrite(DataBuffer writeBuffer, DataBuffer data) {
+    protected int getMaxBufferSize() {
+        return MAX_DATAGRAM_SIZE;
+    }
+
+    @Override
+    protected boolean isStream() {
+        return false;
+    }
+
+    @Override
+    protected int getHeaderSize() {
+        return 1 + 2 * Integer.BYTES;
+    }
+
+    @Override
+    protected void putHeader(ByteBuffer writeBuffer, int messageSize) {
         int transmissionId = incrementTransmissionId();
-        writeBuffer.putBool(true);
+        writeBuffer.put((byte) 1);
         writeBuffer.putInt(transmissionId);
-        writeBuffer.putInt(data.remaining());
-        writeBuffer.put(data);
+        writeBuffer.putInt(messageSize);
     }
 
     private int incrementTransmissionId() {
@@ -0,0 +1,53 @@
+package com.gamelibrary2d.network.connections;
+
+import com.gamelibrary2d.io.DataBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only message that can be sent to many connections without being copied for each of them. The
+ * {@link ConnectionService} queues a reference to the message for each TCP connection, and the memory is returned to
+ * the pool when the creator has {@link #release released} the buffer and all connections have sent it.
+ */
+public final class SharedBuffer {
+    private final InternalPooledBuffer pooledBuffer;
+
+    private SharedBuffer(InternalPooledBuffer pooledBuffer) {
+        this.pooledBuffer = pooledBuffer;
+    }
+
+    /**
+     * Creates a shared buffer with a copy of the remaining bytes of the specified buffer. The position of the
+     * specified buffer is not changed.
+     */
+    public static SharedBuffer copyOf(DataBuffer content) {
+        ByteBuffer source = content.internalByteBuffer().duplicate();
+        InternalPooledBuffer pooledBuffer = InternalBufferPool.instance().acquire(source.remaining());
+        ByteBuffer buffer = pooledBuffer.buffer();
+        buffer.put(source);
+        buffer.flip();
+        return new SharedBuffer(pooledBuffer);
+    }
+
+    /**
+     * @return The size of the message, in bytes.
+     */
+    public int size() {
+        return pooledBuffer.buffer().remaining();
+    }
+
+    /**
+     * Creates a read-only slice of the message, which must be released by the caller.
+     */
+    InternalPooledBuffer slice() {
+        return pooledBuffer.slice();
+    }
+
+    /**
+     * Releases the buffer. It must not be used after it has been released, but the message is still sent to any
+     * connection it has been queued for.
+     */
+    public void release() {
+        pooledBuffer.release();
+    }
+}
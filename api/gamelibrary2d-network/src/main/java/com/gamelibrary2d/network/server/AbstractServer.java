@@ -3,7 +3,9 @@ package com.gamelibrary2d.network.server;
 import com.gamelibrary2d.denotations.Updatable;
 import com.gamelibrary2d.io.DataBuffer;
 import com.gamelibrary2d.io.DynamicByteBuffer;
+import com.gamelibrary2d.io.Serializable;
 import com.gamelibrary2d.network.Communicator;
+import com.gamelibrary2d.network.connections.SharedBuffer;
 import com.gamelibrary2d.network.events.CommunicatorDisconnectedEvent;
 import com.gamelibrary2d.network.events.CommunicatorDisconnectedListener;
 import com.gamelibrary2d.network.initialization.*;
@@ -12,8 +14,17 @@ import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class AbstractServer implements Server, Updatable {
+    /**
+     * The number of initialized communicators from which broadcasts are {@link #canShare shared}. Below it, copying
+     * the message is cheaper than sending the outgoing buffers in slices.
+     */
+    private static final int MIN_SHARED_BROADCAST_COMMUNICATORS = 64;
+
     private final List<PendingCommunicator> pendingCommunicators;
     private final DataBuffer streamBuffer;
+    private final DataBuffer broadcastBuffer;
+    private final ArrayList<SharedBuffer> sharedBroadcasts = new ArrayList<>();
+    private final IdentityHashMap<Communicator, SharedMessages> sharedMessages = new IdentityHashMap<>();
     private final DataBuffer incomingBuffer;
     private final ArrayList<Communicator> communicators;
     private final List<Communicator> readOnlyCommunicators;
@@ -25,6 +36,7 @@ public abstract class AbstractServer implements Server, Updatable {
         incomingBuffer = new DynamicByteBuffer();
         incomingBuffer.flip();
         streamBuffer = new DynamicByteBuffer();
+        broadcastBuffer = new DynamicByteBuffer();
         communicators = new ArrayList<>();
         pendingCommunicators = new ArrayList<>();
         readOnlyCommunicators = Collections.unmodifiableList(communicators);
@@ -53,6 +65,91 @@ public abstract class AbstractServer implements Server, Updatable {
         return streamBuffer;
     }
 
+    /**
+     * Sends the message to all initialized communicators. The message is serialized once, and is sent at the end of
+     * the update in order with the data written to the outgoing buffer of each communicator. When there are many
+     * communicators, those that {@link #canShare share} broadcasts send a reference to the serialized message instead
+     * of a copy.
+     */
+    protected void broadcast(Serializable message) {
+        broadcast(message, false);
+    }
+
+    /**
+     * Sends the message to all initialized communicators, like {@link #broadcast}, but encrypts it for each
+     * communicator with an {@link Communicator#getEncryptionWriter encryption writer}. The message is serialized
+     * once, and only encrypted for the communicators that have encryption enabled.
+     */
+    protected void broadcastEncrypted(Serializable message) {
+        broadcast(message, true);
+    }
+
+    private void broadcast(Serializable message, boolean encrypted) {
+        if (communicators.isEmpty()) {
+            return;
+        }
+
+        broadcastBuffer.clear();
+        message.serialize(broadcastBuffer);
+        broadcastBuffer.flip();
+
+        boolean share = communicators.size() >= MIN_SHARED_BROADCAST_COMMUNICATORS;
+        SharedBuffer sharedBuffer = null;
+        for (int i = 0; i < communicators.size(); ++i) {
+            Communicator communicator = communicators.get(i);
+            try {
+                if (encrypted && communicator.getEncryptionWriter() != null) {
+                    communicator.writeEncrypted(this::putBroadcast);
+                } else if (share && canShare(communicator)) {
+                    if (sharedBuffer == null) {
+                        sharedBuffer = SharedBuffer.copyOf(broadcastBuffer);
+                        sharedBroadcasts.add(sharedBuffer);
+                    }
+
+                    SharedMessages shared = sharedMessages.get(communicator);
+                    if (shared == null) {
+                        shared = new SharedMessages();
+                        sharedMessages.put(communicator, shared);
+                    }
+
+                    shared.add(sharedBuffer, communicator.getOutgoing().position());
+                } else {
+                    putBroadcast(communicator.getOutgoing());
+                }
+            } catch (IOException e) {
+                communicator.disconnect(e);
+            }
+        }
+    }
+
+    private void putBroadcast(DataBuffer buffer) {
+        buffer.put(broadcastBuffer.internalByteBuffer());
+        broadcastBuffer.position(0);
+    }
+
+    /**
+     * Determines if broadcasts are shared with the communicator. Shared broadcasts are not copied to the outgoing
+     * buffer of the communicator, but are sent together with it by {@link #sendShared}. Returns false by default.
+     */
+    protected boolean canShare(Communicator communicator) {
+        return false;
+    }
+
+    /**
+     * Sends the outgoing buffer of a communicator that {@link #canShare shares} broadcasts. The shared broadcasts
+     * must be inserted at the specified positions of the outgoing buffer, in order to keep the order in which the
+     * data was written. Must be overridden if {@link #canShare} is.
+     *
+     * @param communicator The communicator.
+     * @param messages     The shared broadcasts.
+     * @param positions    The positions of the outgoing buffer where the broadcasts were made, in ascending order.
+     * @param count        The number of shared broadcasts.
+     */
+    protected void sendShared(Communicator communicator, SharedBuffer[] messages, int[] positions, int count)
+            throws IOException {
+        throw new IllegalStateException("Shared broadcasts are not supported");
+    }
+
     private void connectedTask(ConnectionContext context, Communicator communicator) {
         onConnected(communicator);
     }
@@ -64,6 +161,7 @@ public abstract class AbstractServer implements Server, Updatable {
 
     protected void reinitialize(Communicator communicator) {
         if (communicators.remove(communicator)) {
+            sharedMessages.remove(communicator);
             InternalConnectionInitializer initializer = new InternalConnectionInitializer();
             try {
                 onInitializeClient(initializer);
@@ -101,6 +199,7 @@ public abstract class AbstractServer implements Server, Updatable {
 
     private void onDisconnected(Communicator communicator, Throwable cause) {
         if (communicators.remove(communicator)) {
+            sharedMessages.remove(communicator);
             // Read final messages
             readAndHandleMessages(communicator);
             onDisconnected(communicator, false, cause);
@@ -256,13 +355,28 @@ public abstract class AbstractServer implements Server, Updatable {
 
         for (int i = 0; i < communicators.size(); ++i)
             sendMessages(communicators.get(i));
+
+        // The connections hold their own references to the shared broadcasts.
+        for (int i = 0; i < sharedBroadcasts.size(); ++i)
+            sharedBroadcasts.get(i).release();
+
+        sharedBroadcasts.clear();
     }
 
     private void sendMessages(Communicator communicator) {
+        SharedMessages shared = sharedMessages.isEmpty() ? null : sharedMessages.get(communicator);
         try {
-            communicator.sendOutgoing();
+            if (shared != null && shared.count > 0) {
+                sendShared(communicator, shared.messages, shared.positions, shared.count);
+            } else {
+                communicator.sendOutgoing();
+            }
         } catch (IOException e) {
             communicator.disconnect(e);
+        } finally {
+            if (shared != null) {
+                shared.clear();
+            }
         }
     }
 
@@ -334,6 +448,32 @@ public abstract class AbstractServer implements Server, Updatable {
         }
     }
 
+    /**
+     * The broadcasts shared with a communicator during an update, and the positions of its outgoing buffer where
+     * they were made.
+     */
+    private static class SharedMessages {
+        SharedBuffer[] messages = new SharedBuffer[4];
+        int[] positions = new int[4];
+        int count;
+
+        void add(SharedBuffer message, int position) {
+            if (count == messages.length) {
+                messages = Arrays.copyOf(messages, count * 2);
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+
+            messages[count] = message;
+            positions[count] = position;
+            ++count;
+        }
+
+        void clear() {
+            Arrays.fill(messages, 0, count, null);
+            count = 0;
+        }
+    }
+
     private static class PendingCommunicator {
         final Communicator communicator;
         final ConnectionContext context;
@@ -55,10 +55,33 @@ public interface Host {
         }
     }
 
+    /**
+     * Sends the message to all communicators. Servers serialize the message once and share it between the
+     * communicators, while the default implementation serializes it for each communicator.
+     */
     default void broadcast(Serializable message) {
         List<Communicator> communicators = getCommunicators();
         for (Communicator communicator : communicators) {
             message.serialize(communicator.getOutgoing());
         }
     }
+
+    /**
+     * Sends the message to all communicators, encrypted for each communicator with an
+     * {@link Communicator#getEncryptionWriter encryption writer}. Other communicators receive the message unencrypted.
+     */
+    default void broadcastEncrypted(Serializable message) {
+        List<Communicator> communicators = getCommunicators();
+        for (Communicator communicator : communicators) {
+            try {
+                if (communicator.getEncryptionWriter() != null) {
+                    communicator.writeEncrypted(message::serialize);
+                } else {
+                    message.serialize(communicator.getOutgoing());
+                }
+            } catch (IOException e) {
+                communicator.disconnect(e);
+            }
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.example.framework;
 import android.opengl.GLES10;
 import android.opengl.GLES20;
 import android.opengl.GLES30;
+import android.opengl.GLES31;
 
 import com.gamelibrary2d.OpenGL;
 import com.gamelibrary2d.io.BufferUtils;
@@ -108,6 +109,31 @@ public class Android_OpenGL implements OpenGL {
         throw new RuntimeException("Not implemented");
     }
 
+    @Override
+    public void glDrawArraysIndirect(int mode, long indirect) {
+        GLES31.glDrawArraysIndirect(mode, indirect);
+    }
+
+    @Override
+    public void glCopyBufferSubData(int readTarget, int writeTarget, long readOffset, long writeOffset, long size) {
+        GLES30.glCopyBufferSubData(readTarget, writeTarget, (int) readOffset, (int) writeOffset, (int) size);
+    }
+
+    @Override
+    public long glFenceSync(int condition, int flags) {
+        return GLES30.glFenceSync(condition, flags);
+    }
+
+    @Override
+    public int glClientWaitSync(long sync, int flags, long timeout) {
+        return GLES30.glClientWaitSync(sync, flags, timeout);
+    }
+
+    @Override
+    public void glDeleteSync(long sync) {
+        GLES30.glDeleteSync(sync);
+    }
+
     @Override
     public void glPointSize(float size) {
         GLES10.glPointSize(size);
@@ -190,6 +216,16 @@ public class Android_OpenGL implements OpenGL {
         GLES20.glEnableVertexAttribArray(index);
     }
 
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+        GLES20.glDisableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glVertexAttribDivisor(int index, int divisor) {
+        GLES30.glVertexAttribDivisor(index, divisor);
+    }
+
     @Override
     public void glDeleteBuffers(int buffers) {
         SINGLE_INTEGER.clear();
@@ -208,6 +244,16 @@ public class Android_OpenGL implements OpenGL {
         GLES20.glDrawArrays(mode, first, count);
     }
 
+    @Override
+    public void glDrawElementsInstanced(int mode, int count, int type, long indices, int primcount) {
+        GLES30.glDrawElementsInstanced(mode, count, type, (int) indices, primcount);
+    }
+
+    @Override
+    public void glDrawArraysInstanced(int mode, int first, int count, int primcount) {
+        GLES30.glDrawArraysInstanced(mode, first, count, primcount);
+    }
+
     @Override
     public String glGetShaderInfoLog(int id) {
         return GLES20.glGetShaderInfoLog(id);
@@ -135,6 +135,7 @@ public class GameFrameManager {
         gameLayer.setPosition(renderedGameBounds.getLowerX(), renderedGameBounds.getLowerY());
 
         renderers.initialize(gameSettings, textures, frame);
+        effects.setViewport(gameBounds);
 
         backgroundLayer.add(createBackground(
                 new Rectangle(0, 0, windowWidth, windowHeight),
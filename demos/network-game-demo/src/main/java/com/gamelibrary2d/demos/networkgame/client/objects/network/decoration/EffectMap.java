@@ -1,6 +1,7 @@
 package com.gamelibrary2d.demos.networkgame.client.objects.network.decoration;
 
 import com.gamelibrary2d.Point;
+import com.gamelibrary2d.Rectangle;
 import com.gamelibrary2d.denotations.Renderable;
 import com.gamelibrary2d.components.containers.Layer;
 import com.gamelibrary2d.demos.networkgame.client.ParticleRendererFactory;
@@ -14,6 +15,7 @@ import com.gamelibrary2d.functional.Factory;
 import com.gamelibrary2d.io.Serializer;
 import com.gamelibrary2d.opengl.renderers.BlendMode;
 import com.gamelibrary2d.particles.DefaultParticleSystem;
+import com.gamelibrary2d.particles.ParticleEffectManager;
 import com.gamelibrary2d.particles.ParticleRenderer;
 import com.gamelibrary2d.particles.ParticleSystemParameters;
 import com.gamelibrary2d.sound.SoundPlayer;
@@ -25,6 +27,11 @@ import java.util.List;
 import java.util.Map;
 
 public class EffectMap {
+    private final static int PARTICLE_BUDGET = 50000;
+    private final static int PLAYER_EXPLOSION_PRIORITY = 1;
+    private final static int OBSTACLE_EXPLOSION_PRIORITY = 0;
+    private final static Rectangle EXPLOSION_BOUNDS = Rectangle.create(128f, 128f);
+
     private final ResourceManager resourceManager;
     private final SoundMap sounds;
     private final SoundPlayer soundPlayer;
@@ -33,6 +40,7 @@ public class EffectMap {
     private final Map<Byte, Map<Byte, InstantEffect>> destroyedEffects = new HashMap<>();
     private final Map<Byte, Map<Byte, Factory<DurationEffect>>> updateEffects = new HashMap<>();
     private ParticleRenderer defaultRenderer;
+    private ParticleEffectManager explosions;
 
     public EffectMap(ResourceManager resourceManager, SoundMap sounds, SoundPlayer soundPlayer) {
         this.resourceManager = resourceManager;
@@ -44,19 +52,22 @@ public class EffectMap {
         return new ParticleDurationEffect(particleSystem);
     }
 
+    private ParticleRenderer getDefaultRenderer(Disposer disposer) {
+        if (defaultRenderer == null) {
+            defaultRenderer = ParticleRendererFactory.create(disposer);
+        }
+
+        return defaultRenderer;
+    }
+
     private DefaultParticleSystem createParticleSystem(
             ParticleSystemParameters params,
             int simultaneousEffects,
             Scene scene,
             Disposer disposer) {
-
-        if (defaultRenderer == null) {
-            defaultRenderer = ParticleRendererFactory.create(disposer);
-        }
-
         return createParticleSystem(
                 params,
-                defaultRenderer,
+                getDefaultRenderer(disposer),
                 simultaneousEffects,
                 scene,
                 disposer);
@@ -89,14 +100,19 @@ public class EffectMap {
         updateEffects.put((byte) 0, () -> createUpdateEffect(engineSystem));
         this.updateEffects.put(ObjectTypes.PLAYER, updateEffects);
 
-        DefaultParticleSystem explosionSystem = createParticleSystem(
-                loadParameters(Particles.EXPLOSION),
-                8,
-                Scene.FOREGROUND,
-                disposer);
+        ParticleSystemParameters explosionParams = loadParameters(Particles.EXPLOSION);
+        ParticleRenderer explosionRenderer = getDefaultRenderer(disposer);
 
         Map<Byte, InstantEffect> destroyedEffects = new HashMap<>();
-        destroyedEffects.put((byte) 0, obj -> explosionSystem.emit(obj.getPosition()));
+        destroyedEffects.put((byte) 0, obj -> {
+            Point position = obj.getPosition();
+            explosions.emit(
+                    explosionParams,
+                    explosionRenderer,
+                    position.getX(),
+                    position.getY(),
+                    PLAYER_EXPLOSION_PRIORITY);
+        });
         this.destroyedEffects.put(ObjectTypes.PLAYER, destroyedEffects);
     }
 
@@ -125,11 +141,8 @@ public class EffectMap {
         }
         this.updateEffects.put(ObjectTypes.OBSTACLE, updateEffects);
 
-        DefaultParticleSystem shockwaveSystem = createParticleSystem(
-                loadParameters(Particles.SHOCK_WAVE),
-                8,
-                Scene.FOREGROUND,
-                disposer);
+        ParticleSystemParameters shockwaveParams = loadParameters(Particles.SHOCK_WAVE);
+        ParticleRenderer shockwaveRenderer = getDefaultRenderer(disposer);
 
         Map<Byte, InstantEffect> destroyedEffects = new HashMap<>();
         this.destroyedEffects.put(ObjectTypes.OBSTACLE, destroyedEffects);
@@ -141,19 +154,22 @@ public class EffectMap {
                     BlendMode.TRANSPARENT,
                     disposer);
 
-            DefaultParticleSystem explosionSystem = createParticleSystem(
-                    destroyParams,
-                    particleRenderer,
-                    destroyParams.estimateCapacity(),
-                    Scene.FOREGROUND,
-                    disposer);
-
             Object soundEffect = sounds.getDestroyedSound(ObjectTypes.OBSTACLE, key);
 
             destroyedEffects.put(key, obj -> {
                 Point position = obj.getPosition();
-                shockwaveSystem.emit(position);
-                explosionSystem.emit(position);
+                explosions.emit(
+                        shockwaveParams,
+                        shockwaveRenderer,
+                        position.getX(),
+                        position.getY(),
+                        OBSTACLE_EXPLOSION_PRIORITY);
+                explosions.emit(
+                        destroyParams,
+                        particleRenderer,
+                        position.getX(),
+                        position.getY(),
+                        OBSTACLE_EXPLOSION_PRIORITY);
                 if (soundEffect != null) {
                     soundPlayer.play(soundEffect, 0.5f);
                 }
@@ -162,11 +178,18 @@ public class EffectMap {
     }
 
     public void initialize(TextureMap textures, Disposer disposer) throws IOException {
+        explosions = new ParticleEffectManager(disposer);
+        explosions.setParticleBudget(PARTICLE_BUDGET);
+        explosions.setDefaultBounds(EXPLOSION_BOUNDS);
         initializePlayerEffects(disposer);
         initializePortalEffects(disposer);
         initializeObstacleEffects(textures, disposer);
     }
 
+    public void setViewport(Rectangle viewport) {
+        explosions.setViewport(viewport);
+    }
+
     public void onLoaded(Layer<Renderable> backgroundEffects, Layer<Renderable> foregroundEffects) {
         for (ParticleSystemItem particleSystem : particleSystems) {
             if (particleSystem.scene == Scene.BACKGROUND) {
@@ -175,6 +198,8 @@ public class EffectMap {
                 foregroundEffects.add(particleSystem.particleSystem);
             }
         }
+
+        foregroundEffects.add(explosions);
     }
 
     private InstantEffect getDestroyed(ClientObject obj) {
@@ -9,6 +9,7 @@ import com.gamelibrary2d.io.DataBuffer;
 import com.gamelibrary2d.io.DynamicByteBuffer;
 import com.gamelibrary2d.io.Serializer;
 import com.gamelibrary2d.particles.ParticleEmissionParameters;
+import com.gamelibrary2d.particles.ParticlePresetBundle;
 import com.gamelibrary2d.particles.ParticleSpawnParameters;
 import com.gamelibrary2d.particles.ParticleSystemParameters;
 import com.gamelibrary2d.particles.ParticleUpdateParameters;
@@ -23,8 +24,14 @@ import com.gamelibrary2d.tools.particlegenerator.widgets.Button;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class SaveLoadResetPanel extends AbstractPanel<GameObject> {
+    private static final String PRESET_EXTENSION = ".particle";
+    private static final String BUNDLE_EXTENSION = ".particles";
+
     private final ParticleSystemModel particleSystem;
     private final DataBuffer ioBuffer = new DynamicByteBuffer();
     private final Serializer serializer = new Serializer(ioBuffer);
@@ -41,6 +48,7 @@ public class SaveLoadResetPanel extends AbstractPanel<GameObject> {
         addButton("Load", 100, 0, this::loadParticleSystem);
         addButton("Reset", 200, 0, particleSystem::reset);
         addButton("Randomize", 300, 0, this::randomizeParticleSystem);
+        addButton("Bundle", 400, 0, this::bundleParticleSystems);
     }
 
     private void addButton(String text, float posX, float posY, Action onClick) {
@@ -88,6 +96,32 @@ public class SaveLoadResetPanel extends AbstractPanel<GameObject> {
         particleSystem.setSettings(settings);
     }
 
+    /**
+     * Writes all presets in the selected directory to a {@link ParticlePresetBundle}, named after the directory.
+     */
+    private void bundleParticleSystems() {
+        try {
+            File directory = fileChooser.browse(FileSelectionMode.DIRECTORIES_ONLY);
+            if (directory != null) {
+                File[] files = directory.listFiles((dir, name) -> name.endsWith(PRESET_EXTENSION));
+                if (files != null && files.length > 0) {
+                    Arrays.sort(files);
+                    Map<String, ParticleSystemParameters> presets = new LinkedHashMap<>();
+                    for (File file : files) {
+                        String name = file.getName();
+                        presets.put(
+                                name.substring(0, name.length() - PRESET_EXTENSION.length()),
+                                serializer.deserialize(file, ParticleSystemParameters::new));
+                    }
+
+                    ParticlePresetBundle.write(presets, new File(directory, directory.getName() + BUNDLE_EXTENSION));
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     private void randomizeParticleSystem() {
         RandomGenerator random = RandomInstance.get();
 